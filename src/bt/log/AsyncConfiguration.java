@@ -0,0 +1,346 @@
+package bt.log;
+
+import java.util.logging.Level;
+
+/**
+ * A class holding values to set up an {@link AsyncLoggerHandler}.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class AsyncConfiguration
+{
+    /**
+     * The policy that is applied when the queue is full.
+     */
+    private BackPressurePolicy policy;
+
+    /**
+     * The unit in which the capacity is measured.
+     */
+    private QueueLimit queueLimit;
+
+    /**
+     * The maximum number of queued entries or bytes, depending on the queue limit.
+     */
+    private long capacity;
+
+    /**
+     * The maximum time in milliseconds that a logging thread blocks while the queue is full.
+     */
+    private long blockTimeout;
+
+    /**
+     * Entries below this level are dropped by {@link BackPressurePolicy#DROP_BELOW_LEVEL} while the queue is full.
+     */
+    private Level dropLevel;
+
+    /**
+     * The interval in milliseconds in which summaries of dropped entries are logged.
+     */
+    private long summaryInterval;
+
+    /**
+     * The name of the consumer thread.
+     */
+    private String threadName;
+
+    /**
+     * The path of the spill file used by {@link BackPressurePolicy#SPILL}.
+     */
+    private String spillFile;
+
+    /**
+     * The size of the spill file in bytes.
+     */
+    private int spillCapacity;
+
+    /**
+     * The number of queues that logging threads are spread across.
+     */
+    private int shards;
+
+    /**
+     * Entries at or above this level are queued in the priority lane, null if there is no priority lane.
+     */
+    private Level priorityLevel;
+
+    /**
+     * Indicates whether logging threads wait until their priority entries have been published and flushed.
+     */
+    private boolean synchronousPriority;
+
+    /**
+     * The maximum number of entries in the priority lane.
+     */
+    private int priorityCapacity;
+
+    /**
+     * Creates a new instance.
+     */
+    public AsyncConfiguration()
+    {
+        this.policy = BackPressurePolicy.BLOCK;
+        this.queueLimit = QueueLimit.EVENTS;
+        this.capacity = 8192;
+        this.blockTimeout = 1000;
+        this.dropLevel = Level.INFO;
+        this.summaryInterval = 10000;
+        this.threadName = "BtLogging-async";
+        this.spillCapacity = 64 * 1024 * 1024;
+        this.shards = 1;
+        this.priorityCapacity = 1024;
+    }
+
+    public BackPressurePolicy getPolicy()
+    {
+        return policy;
+    }
+
+    public QueueLimit getQueueLimit()
+    {
+        return queueLimit;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    public long getBlockTimeout()
+    {
+        return blockTimeout;
+    }
+
+    public Level getDropLevel()
+    {
+        return dropLevel;
+    }
+
+    public long getSummaryInterval()
+    {
+        return summaryInterval;
+    }
+
+    public String getThreadName()
+    {
+        return threadName;
+    }
+
+    public String getSpillFile()
+    {
+        return spillFile;
+    }
+
+    public int getSpillCapacity()
+    {
+        return spillCapacity;
+    }
+
+    public int getShards()
+    {
+        return shards;
+    }
+
+    public Level getPriorityLevel()
+    {
+        return priorityLevel;
+    }
+
+    public boolean isSynchronousPriority()
+    {
+        return synchronousPriority;
+    }
+
+    public int getPriorityCapacity()
+    {
+        return priorityCapacity;
+    }
+
+    /**
+     * Sets the policy that is applied when the queue is full.
+     *
+     * @param policy
+     *
+     * @return
+     */
+    public AsyncConfiguration policy(BackPressurePolicy policy)
+    {
+        this.policy = policy;
+        return this;
+    }
+
+    /**
+     * Sets the capacity of the queue in number of entries.
+     *
+     * @param events
+     *
+     * @return
+     */
+    public AsyncConfiguration capacity(long events)
+    {
+        return capacity(events, QueueLimit.EVENTS);
+    }
+
+    /**
+     * Sets the capacity of the queue measured in the given unit.
+     *
+     * @param capacity
+     * @param queueLimit
+     *
+     * @return
+     */
+    public AsyncConfiguration capacity(long capacity, QueueLimit queueLimit)
+    {
+        this.capacity = capacity;
+        this.queueLimit = queueLimit;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds that a logging thread blocks while the queue is full.
+     *
+     * @param millis
+     *
+     * @return
+     */
+    public AsyncConfiguration blockTimeout(long millis)
+    {
+        this.blockTimeout = millis;
+        return this;
+    }
+
+    /**
+     * Sets the level below which entries are dropped by {@link BackPressurePolicy#DROP_BELOW_LEVEL}.
+     *
+     * @param level
+     *
+     * @return
+     */
+    public AsyncConfiguration dropLevel(Level level)
+    {
+        this.dropLevel = level;
+        return this;
+    }
+
+    /**
+     * Sets the interval in milliseconds in which summaries of dropped entries are logged.
+     * A value of 0 or less disables the summaries.
+     *
+     * @param millis
+     *
+     * @return
+     */
+    public AsyncConfiguration summaryInterval(long millis)
+    {
+        this.summaryInterval = millis;
+        return this;
+    }
+
+    /**
+     * Sets the name of the consumer thread.
+     *
+     * @param name
+     *
+     * @return
+     */
+    public AsyncConfiguration threadName(String name)
+    {
+        this.threadName = name;
+        return this;
+    }
+
+    /**
+     * Sets the path of the spill file used by {@link BackPressurePolicy#SPILL}.
+     * If no path is set, a temporary file will be used.
+     *
+     * @param path
+     *
+     * @return
+     */
+    public AsyncConfiguration spillFile(String path)
+    {
+        this.spillFile = path;
+        return this;
+    }
+
+    /**
+     * Sets the size of the spill file in bytes.
+     *
+     * @param bytes
+     *
+     * @return
+     */
+    public AsyncConfiguration spillCapacity(int bytes)
+    {
+        this.spillCapacity = bytes;
+        return this;
+    }
+
+    /**
+     * Sets the number of queues that logging threads are spread across, so that many concurrently logging threads
+     * don't compete for the lock of a single queue. The capacity is divided evenly between the shards. Entries of
+     * different shards are only ordered by their sequence number on a best-effort basis, see
+     * {@link AsyncLoggerHandler}.
+     * <p>
+     * A value of 1 uses a single queue. Sharding is not supported by {@link BackPressurePolicy#SPILL}, which
+     * always uses a single queue.
+     *
+     * @param shards
+     *
+     * @return
+     */
+    public AsyncConfiguration shards(int shards)
+    {
+        this.shards = shards;
+        return this;
+    }
+
+    /**
+     * Sets the level at or above which entries are queued in a separate priority lane, which the consumer always
+     * drains first and which is limited by its own {@link #priorityCapacity(int) capacity} instead of the capacity of
+     * the queue. Entries of the priority lane are therefore published before entries of lower levels that were queued
+     * earlier, which can be seen from their sequence numbers, see
+     * {@link LoggerConfiguration#printSequenceNumber(boolean)}.
+     * <p>
+     * A value of null, which is the default, disables the priority lane.
+     *
+     * @param level
+     *
+     * @return
+     */
+    public AsyncConfiguration priorityLevel(Level level)
+    {
+        this.priorityLevel = level;
+        return this;
+    }
+
+    /**
+     * Sets whether logging threads wait until their entries of the priority lane have been published and the target
+     * handler has been flushed, at most for the block timeout.
+     *
+     * @param value
+     *
+     * @return
+     */
+    public AsyncConfiguration synchronousPriority(boolean value)
+    {
+        this.synchronousPriority = value;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of entries in the priority lane. While the priority lane is full, new entries at or
+     * above the priority level are queued like all other entries, so that the back pressure policy applies to them.
+     * The default is 1024.
+     *
+     * @param entries
+     *
+     * @return
+     */
+    public AsyncConfiguration priorityCapacity(int entries)
+    {
+        this.priorityCapacity = entries;
+        return this;
+    }
+}
@@ -0,0 +1,1140 @@
+package bt.log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A handler that hands log entries over to a background thread which publishes them to a target handler.
+ * <p>
+ * The queue between the logging threads and the background thread is bounded either by the number of entries
+ * or by their approximate encoded size, see {@link QueueLimit}. What happens when the queue is full is defined
+ * by the configured {@link BackPressurePolicy}. Every dropped entry is counted per {@link DropReason} and a
+ * summary of the dropped entries is published to the target handler periodically.
+ * <p>
+ * With {@link BackPressurePolicy#SPILL} no entries are dropped. Instead they are written to a memory mapped
+ * spill file while the queue is full. Once entries have been spilled, new entries are spilled as well until
+ * the consumer caught up, and the consumer always publishes the entry with the lowest sequence number of both
+ * tiers first, so that the original order is kept.
+ * <p>
+ * With more than one {@link AsyncConfiguration#shards(int) shard}, every logging thread queues its entries in the
+ * shard that its thread id maps to, or in the next shard whose lock is free if that one is contended. Each shard has
+ * its own lock and an equal part of the capacity, and the back pressure policy is applied per shard. The consumer
+ * drains all shards at once and sorts the drained entries by their sequence number before publishing them. The
+ * order is best-effort: sequence numbers are assigned when a record is created, not when it is queued, so an entry
+ * that reaches its shard after the consumer drained it is published after entries with higher sequence numbers.
+ * <p>
+ * Entries at or above the {@link AsyncConfiguration#priorityLevel(Level) priority level} bypass the queue. They are
+ * kept in a separate bounded lane which the consumer drains before the queue, and the target handler is flushed
+ * right after they were published, so that errors are written even if queued entries of lower levels are still
+ * waiting.
+ * <p>
+ * All information that depends on the logging thread, like the thread name and the caller, is captured
+ * before an entry is queued.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class AsyncLoggerHandler extends Handler
+{
+    /**
+     * The maximum number of entries that the consumer takes from the queue at once.
+     */
+    private static final int MAX_BATCH_SIZE = 256;
+
+    /**
+     * The handler that queued entries are published to.
+     */
+    protected final Handler target;
+
+    /**
+     * The configuration of this handler.
+     */
+    protected final AsyncConfiguration config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = this.lock.newCondition();
+    private final Condition notFull = this.lock.newCondition();
+    private final Condition drained = this.lock.newCondition();
+    private final Condition priorityPublished = this.lock.newCondition();
+    private final ArrayDeque<BtLogRecord> queue = new ArrayDeque<>();
+
+    /**
+     * The entries at or above the priority level which were not published yet.
+     */
+    private final ArrayDeque<BtLogRecord> priorityQueue = new ArrayDeque<>();
+    private final LongAdder[] dropCounts;
+    private final long[] reportedDropCounts;
+    private final LongAdder spilledCount = new LongAdder();
+    private final LogRecordCodec codec = new LogRecordCodec();
+    private long reportedSpilledCount;
+    private SpillFile spillFile;
+    private final Thread consumer;
+
+    /**
+     * The shards of the queue, null if a single queue is used.
+     */
+    private final Shard[] shards;
+
+    /**
+     * The number of entries in all shards.
+     */
+    private final AtomicLong shardedCount = new AtomicLong();
+    private volatile boolean consumerParked;
+    private long queuedSize;
+    private long priorityQueuedCount;
+    private volatile boolean priorityPending;
+    private long priorityPublishedCount;
+    private boolean consuming;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance with a default configuration.
+     *
+     * @param target The handler that entries are published to.
+     */
+    public AsyncLoggerHandler(Handler target)
+    {
+        this(target, new AsyncConfiguration());
+    }
+
+    /**
+     * Creates a new instance with the given configuration and starts the consumer thread.
+     *
+     * @param target The handler that entries are published to.
+     * @param config
+     */
+    public AsyncLoggerHandler(Handler target, AsyncConfiguration config)
+    {
+        super();
+        this.target = target;
+        this.config = config;
+        this.dropCounts = new LongAdder[DropReason.values().length];
+        this.reportedDropCounts = new long[this.dropCounts.length];
+
+        for (int i = 0; i < this.dropCounts.length; i++)
+        {
+            this.dropCounts[i] = new LongAdder();
+        }
+
+        setLevel(target.getLevel());
+
+        if (config.getPolicy() == BackPressurePolicy.SPILL)
+        {
+            try
+            {
+                this.spillFile = new SpillFile(config.getSpillFile() != null ? Paths.get(config.getSpillFile())
+                                                                             : Files.createTempFile("btlog-spill", ".dat"),
+                                               config.getSpillCapacity());
+            }
+            catch (IOException e)
+            {
+                reportError("Failed to create spill file, falling back to blocking", e, ErrorManager.OPEN_FAILURE);
+            }
+        }
+
+        if (config.getShards() > 1 && config.getPolicy() != BackPressurePolicy.SPILL)
+        {
+            this.shards = new Shard[config.getShards()];
+
+            for (int i = 0; i < this.shards.length; i++)
+            {
+                this.shards[i] = new Shard(Math.max(config.getCapacity() / this.shards.length, 1));
+            }
+        }
+        else
+        {
+            this.shards = null;
+        }
+
+        this.consumer = new Thread(this.shards != null ? this::consumeShards : this::consume, config.getThreadName());
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Gets the handler that entries are published to.
+     *
+     * @return
+     */
+    public Handler getTarget()
+    {
+        return this.target;
+    }
+
+    /**
+     * Gets the total number of entries that were dropped for the given reason.
+     *
+     * @param reason
+     *
+     * @return
+     */
+    public long getDroppedCount(DropReason reason)
+    {
+        return this.dropCounts[reason.ordinal()].sum();
+    }
+
+    /**
+     * Gets the total number of entries that were dropped for any reason.
+     *
+     * @return
+     */
+    public long getDroppedCount()
+    {
+        long sum = 0;
+
+        for (LongAdder count : this.dropCounts)
+        {
+            sum += count.sum();
+        }
+
+        return sum;
+    }
+
+    /**
+     * Gets the total number of entries that were written to the spill file.
+     *
+     * @return
+     */
+    public long getSpilledCount()
+    {
+        return this.spilledCount.sum();
+    }
+
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (this.closed || !isLoggable(record))
+        {
+            return;
+        }
+
+        BtLogRecord event = BtLogRecord.of(record);
+        event.freeze();
+
+        if (this.target.getFormatter() instanceof DefaultLogFormatter)
+        {
+            ((DefaultLogFormatter)this.target.getFormatter()).captureContext(event);
+        }
+
+        // the target handler might log itself, blocking the consumer on its own queue would deadlock
+        if (Thread.currentThread() == this.consumer)
+        {
+            publishToTarget(event);
+        }
+        else if (isPriority(event) && enqueuePriority(event))
+        {
+            // published by the consumer before the queue
+        }
+        else if (!(this.shards != null ? enqueueSharded(event) : enqueue(event)))
+        {
+            publishToTarget(event);
+        }
+    }
+
+    private boolean isPriority(BtLogRecord event)
+    {
+        return this.config.getPriorityLevel() != null
+                && event.getLevel().intValue() >= this.config.getPriorityLevel().intValue();
+    }
+
+    /**
+     * Gets the size of the given entry in the unit of the configured queue limit.
+     *
+     * @param event
+     *
+     * @return
+     */
+    protected long sizeOf(BtLogRecord event)
+    {
+        return this.config.getQueueLimit() == QueueLimit.BYTES ? event.getEncodedSizeEstimate() : 1;
+    }
+
+    /**
+     * Adds the given entry to the queue, applying the back pressure policy if the queue is full.
+     *
+     * @param event
+     *
+     * @return false if the calling thread should publish the entry itself, true otherwise.
+     */
+    private boolean enqueue(BtLogRecord event)
+    {
+        long size = sizeOf(event);
+
+        this.lock.lock();
+
+        try
+        {
+            // once entries have been spilled, new ones have to follow them until the consumer caught up
+            if (hasSpilled())
+            {
+                return spill(event, size);
+            }
+
+            if (hasSpace(size))
+            {
+                add(event, size);
+                return true;
+            }
+
+            switch (this.config.getPolicy())
+            {
+                case DROP_NEW:
+                    drop(DropReason.QUEUE_FULL);
+                    return true;
+                case DROP_OLDEST:
+                    while (!hasSpace(size))
+                    {
+                        this.queuedSize -= sizeOf(this.queue.pollFirst());
+                        drop(DropReason.OLDEST_EVICTED);
+                    }
+
+                    add(event, size);
+                    return true;
+                case DROP_BELOW_LEVEL:
+                    if (event.getLevel().intValue() < this.config.getDropLevel().intValue())
+                    {
+                        drop(DropReason.BELOW_LEVEL);
+                        return true;
+                    }
+
+                    return awaitSpace(event, size);
+                case SYNCHRONOUS:
+                    return false;
+                case SPILL:
+                    if (this.spillFile != null)
+                    {
+                        return spill(event, size);
+                    }
+
+                    return awaitSpace(event, size);
+                case BLOCK:
+                default:
+                    return awaitSpace(event, size);
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until there is space for the given entry or the block timeout elapsed. Has to be called while
+     * holding the lock.
+     *
+     * @param event
+     * @param size
+     *
+     * @return
+     */
+    private boolean awaitSpace(BtLogRecord event, long size)
+    {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(this.config.getBlockTimeout());
+
+        try
+        {
+            while (!hasSpace(size))
+            {
+                if (nanos <= 0 || this.closed)
+                {
+                    drop(DropReason.BLOCK_TIMEOUT);
+                    return true;
+                }
+
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            drop(DropReason.BLOCK_TIMEOUT);
+            return true;
+        }
+
+        add(event, size);
+        return true;
+    }
+
+    /**
+     * Encodes the given entry and appends it to the spill file, waiting at most the block timeout while the spill
+     * file is full. If the entry could not be written, it is added to the queue instead. Has to be called while
+     * holding the lock.
+     *
+     * @param event
+     * @param size
+     *
+     * @return
+     */
+    private boolean spill(BtLogRecord event, long size)
+    {
+        byte[] data = this.codec.encode(event);
+        long nanos = TimeUnit.MILLISECONDS.toNanos(this.config.getBlockTimeout());
+        boolean written = false;
+
+        try
+        {
+            while (this.spillFile.fits(data.length) && !this.closed)
+            {
+                if (this.spillFile.write(data))
+                {
+                    written = true;
+                    break;
+                }
+
+                if (nanos <= 0)
+                {
+                    break;
+                }
+
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!written)
+        {
+            // exceeding the in-memory bound is preferable to losing the entry or blocking the logging thread
+            add(event, size);
+            return true;
+        }
+
+        this.spilledCount.increment();
+        this.notEmpty.signal();
+        return true;
+    }
+
+    private boolean hasSpilled()
+    {
+        return this.spillFile != null && !this.spillFile.isEmpty();
+    }
+
+    private boolean isEmpty()
+    {
+        return this.queue.isEmpty() && this.priorityQueue.isEmpty() && !hasSpilled() && this.shardedCount.get() == 0;
+    }
+
+    /**
+     * Removes the entry with the lowest sequence number from either the queue or the spill file. Has to be called
+     * while holding the lock.
+     *
+     * @return
+     */
+    private BtLogRecord takeNext()
+    {
+        if (hasSpilled())
+        {
+            byte[] data = this.spillFile.peek();
+
+            if (this.queue.isEmpty()
+                    || LogRecordCodec.readSequenceNumber(data) < this.queue.peekFirst().getSequenceNumber())
+            {
+                this.spillFile.remove();
+                return this.codec.decode(data);
+            }
+        }
+
+        BtLogRecord event = this.queue.pollFirst();
+        this.queuedSize -= sizeOf(event);
+        return event;
+    }
+
+    private boolean hasSpace(long size)
+    {
+        // an empty queue always accepts an entry, so that a single oversized entry can't block forever
+        return this.queue.isEmpty() || this.queuedSize + size <= this.config.getCapacity();
+    }
+
+    private void add(BtLogRecord event, long size)
+    {
+        this.queue.addLast(event);
+        this.queuedSize += size;
+        this.notEmpty.signal();
+    }
+
+    private void drop(DropReason reason)
+    {
+        this.dropCounts[reason.ordinal()].increment();
+    }
+
+    /**
+     * Adds the given entry to the priority lane and waits until it has been published if configured.
+     *
+     * @param event
+     *
+     * @return false if the priority lane is full, in which case the entry has to be queued like any other entry, so
+     *         that the back pressure policy applies to it.
+     */
+    private boolean enqueuePriority(BtLogRecord event)
+    {
+        this.lock.lock();
+
+        try
+        {
+            if (this.priorityQueue.size() >= this.config.getPriorityCapacity())
+            {
+                return false;
+            }
+
+            this.priorityQueue.addLast(event);
+            long ticket = ++this.priorityQueuedCount;
+            this.priorityPending = true;
+            this.notEmpty.signal();
+
+            if (this.shards != null)
+            {
+                // the sharded consumer only waits for the count, which therefore includes the priority lane
+                this.shardedCount.incrementAndGet();
+                signalConsumer();
+            }
+
+            if (this.config.isSynchronousPriority())
+            {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(this.config.getBlockTimeout());
+
+                while (this.priorityPublishedCount < ticket && nanos > 0 && this.consumer.isAlive())
+                {
+                    nanos = this.priorityPublished.awaitNanos(nanos);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves all entries of the priority lane to the given list. Has to be called while holding the lock.
+     *
+     * @param urgent
+     */
+    private void takePriority(List<BtLogRecord> urgent)
+    {
+        this.priorityPending = false;
+
+        if (this.priorityQueue.isEmpty())
+        {
+            return;
+        }
+
+        if (this.shards != null)
+        {
+            this.shardedCount.addAndGet(-this.priorityQueue.size());
+        }
+
+        urgent.addAll(this.priorityQueue);
+        this.priorityQueue.clear();
+    }
+
+    private void publishPendingPriority(List<BtLogRecord> urgent)
+    {
+        this.lock.lock();
+
+        try
+        {
+            takePriority(urgent);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        publishPriority(urgent);
+    }
+
+    /**
+     * Publishes and flushes the given entries of the priority lane and wakes up the threads that wait for them.
+     *
+     * @param urgent
+     */
+    private void publishPriority(List<BtLogRecord> urgent)
+    {
+        if (urgent.isEmpty())
+        {
+            return;
+        }
+
+        for (BtLogRecord event : urgent)
+        {
+            publishToTarget(event);
+        }
+
+        try
+        {
+            this.target.flush();
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to flush log entries", e, ErrorManager.FLUSH_FAILURE);
+        }
+
+        this.lock.lock();
+
+        try
+        {
+            this.priorityPublishedCount += urgent.size();
+            this.priorityPublished.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        urgent.clear();
+    }
+
+    /**
+     * Adds the given entry to the shard of the current thread, or to the next shard that is not locked by another
+     * thread.
+     *
+     * @param event
+     *
+     * @return false if the calling thread should publish the entry itself, true otherwise.
+     */
+    private boolean enqueueSharded(BtLogRecord event)
+    {
+        long id = Thread.currentThread().getId();
+        int home = (int)((id ^ (id >>> 16)) % this.shards.length);
+
+        for (int i = 0; i < this.shards.length; i++)
+        {
+            Shard shard = this.shards[(home + i) % this.shards.length];
+
+            if (shard.lock.tryLock())
+            {
+                return shard.enqueue(event);
+            }
+        }
+
+        this.shards[home].lock.lock();
+        return this.shards[home].enqueue(event);
+    }
+
+    /**
+     * Wakes up the consumer if it is waiting for new entries of the shards.
+     */
+    private void signalConsumer()
+    {
+        // the count is always increased before this flag is read, and the consumer sets the flag before it checks the
+        // count, so that it can't miss an entry
+        if (this.consumerParked)
+        {
+            LockSupport.unpark(this.consumer);
+        }
+    }
+
+    private void publishToTarget(BtLogRecord event)
+    {
+        try
+        {
+            this.target.publish(event);
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to publish log entry", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * The loop of the consumer thread, which publishes queued entries until the handler is closed and the
+     * queue is empty.
+     */
+    private void consume()
+    {
+        List<BtLogRecord> urgent = new ArrayList<>();
+        List<BtLogRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long summaryInterval = TimeUnit.MILLISECONDS.toNanos(this.config.getSummaryInterval());
+        long nextSummary = System.nanoTime() + summaryInterval;
+        boolean running = true;
+
+        while (running)
+        {
+            this.lock.lock();
+
+            try
+            {
+                while (isEmpty() && !this.closed)
+                {
+                    if (summaryInterval <= 0)
+                    {
+                        this.notEmpty.await();
+                    }
+                    else if (this.notEmpty.awaitNanos(nextSummary - System.nanoTime()) <= 0)
+                    {
+                        break;
+                    }
+                }
+
+                takePriority(urgent);
+
+                while (batch.size() < MAX_BATCH_SIZE && (!this.queue.isEmpty() || hasSpilled()))
+                {
+                    batch.add(takeNext());
+                }
+
+                running = !(this.closed && isEmpty());
+                this.consuming = !batch.isEmpty() || !urgent.isEmpty();
+                this.notFull.signalAll();
+            }
+            catch (InterruptedException e)
+            {
+                running = false;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            publishPriority(urgent);
+
+            for (BtLogRecord event : batch)
+            {
+                // entries of the priority lane don't wait until the rest of the batch was published
+                if (this.priorityPending)
+                {
+                    publishPendingPriority(urgent);
+                }
+
+                publishToTarget(event);
+            }
+
+            batch.clear();
+
+            if (summaryInterval > 0 && (System.nanoTime() - nextSummary >= 0 || !running))
+            {
+                publishDropSummary(this.config.getSummaryInterval());
+                nextSummary = System.nanoTime() + summaryInterval;
+            }
+
+            this.lock.lock();
+
+            try
+            {
+                this.consuming = false;
+
+                if (isEmpty())
+                {
+                    this.drained.signalAll();
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The loop of the consumer thread if the queue is sharded. Every iteration drains all shards and publishes the
+     * drained entries ordered by their sequence number. Entries are only ordered within an iteration, see the
+     * documentation of this class.
+     */
+    private void consumeShards()
+    {
+        List<BtLogRecord> urgent = new ArrayList<>();
+        List<BtLogRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long summaryInterval = TimeUnit.MILLISECONDS.toNanos(this.config.getSummaryInterval());
+        long nextSummary = System.nanoTime() + summaryInterval;
+        boolean running = true;
+
+        while (running)
+        {
+            if (this.shardedCount.get() == 0 && !this.closed)
+            {
+                this.consumerParked = true;
+
+                if (this.shardedCount.get() == 0 && !this.closed)
+                {
+                    if (summaryInterval <= 0)
+                    {
+                        LockSupport.park(this);
+                    }
+                    else
+                    {
+                        LockSupport.parkNanos(this, nextSummary - System.nanoTime());
+                    }
+                }
+
+                this.consumerParked = false;
+            }
+
+            this.lock.lock();
+
+            try
+            {
+                this.consuming = true;
+                takePriority(urgent);
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            publishPriority(urgent);
+
+            for (Shard shard : this.shards)
+            {
+                shard.drainTo(batch);
+            }
+
+            // a logging thread can queue an entry in any shard whose lock is free, and a record can be created long
+            // before it is queued, so the entries of a single shard are not ordered either
+            batch.sort(Comparator.comparingLong(BtLogRecord::getSequenceNumber));
+            running = !(this.closed && this.shardedCount.get() == 0);
+
+            for (BtLogRecord event : batch)
+            {
+                // entries of the priority lane don't wait until the rest of the batch was published
+                if (this.priorityPending)
+                {
+                    publishPendingPriority(urgent);
+                }
+
+                publishToTarget(event);
+            }
+
+            batch.clear();
+
+            if (summaryInterval > 0 && (System.nanoTime() - nextSummary >= 0 || !running))
+            {
+                publishDropSummary(this.config.getSummaryInterval());
+                nextSummary = System.nanoTime() + summaryInterval;
+            }
+
+            this.lock.lock();
+
+            try
+            {
+                this.consuming = false;
+
+                if (isEmpty())
+                {
+                    this.drained.signalAll();
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Publishes a summary of all entries that were dropped or spilled since the last summary to the target handler.
+     *
+     * @param interval The length of the summarized interval in milliseconds.
+     */
+    protected void publishDropSummary(long interval)
+    {
+        long total = 0;
+        var details = new StringBuilder();
+
+        for (DropReason reason : DropReason.values())
+        {
+            long count = this.dropCounts[reason.ordinal()].sum();
+            long delta = count - this.reportedDropCounts[reason.ordinal()];
+            this.reportedDropCounts[reason.ordinal()] = count;
+
+            if (delta > 0)
+            {
+                details.append(details.length() == 0 ? "" : ", ");
+                details.append(reason.getDescription());
+                details.append(": ");
+                details.append(delta);
+                total += delta;
+            }
+        }
+
+        long spilled = this.spilledCount.sum();
+
+        if (spilled > this.reportedSpilledCount)
+        {
+            details.append(details.length() == 0 ? "" : ", ");
+            details.append("spilled to disk: ");
+            details.append(spilled - this.reportedSpilledCount);
+            this.reportedSpilledCount = spilled;
+        }
+
+        if (details.length() > 0)
+        {
+            var summary = new BtLogRecord(Level.WARNING, "Dropped " + total + " log entries in the last "
+                    + interval + " ms (" + details + ")");
+            summary.setLoggerName(getClass().getName());
+            summary.setCallerLocation(new CallerLocation(getClass().getName(), "publishDropSummary", "(J)V", -1));
+            publishToTarget(summary);
+        }
+    }
+
+    /**
+     * Waits until all entries that were queued before this call have been published and then flushes the
+     * target handler.
+     */
+    @Override
+    public void flush()
+    {
+        if (Thread.currentThread() != this.consumer)
+        {
+            this.lock.lock();
+
+            try
+            {
+                while ((!isEmpty() || this.consuming) && this.consumer.isAlive())
+                {
+                    this.drained.await(100, TimeUnit.MILLISECONDS);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+
+        this.target.flush();
+    }
+
+    /**
+     * Stops accepting new entries, waits until all queued entries have been published and closes the target
+     * handler.
+     */
+    @Override
+    public void close() throws SecurityException
+    {
+        if (this.closed)
+        {
+            return;
+        }
+
+        this.lock.lock();
+
+        try
+        {
+            this.closed = true;
+            this.notEmpty.signalAll();
+            this.notFull.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        if (this.shards != null)
+        {
+            for (Shard shard : this.shards)
+            {
+                shard.signalClosed();
+            }
+
+            LockSupport.unpark(this.consumer);
+        }
+
+        if (Thread.currentThread() != this.consumer)
+        {
+            try
+            {
+                this.consumer.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (this.spillFile != null)
+        {
+            try
+            {
+                this.spillFile.close();
+            }
+            catch (IOException e)
+            {
+                reportError("Failed to delete spill file", e, ErrorManager.CLOSE_FAILURE);
+            }
+        }
+
+        this.target.close();
+    }
+
+    /**
+     * One of the queues of a sharded handler, with its own lock and part of the capacity.
+     */
+    private final class Shard
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = this.lock.newCondition();
+        private final ArrayDeque<BtLogRecord> queue = new ArrayDeque<>();
+        private final long capacity;
+        private long queuedSize;
+
+        private Shard(long capacity)
+        {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Adds the given entry, applying the back pressure policy if this shard is full. Has to be called while
+         * holding the lock, which is released by this method.
+         *
+         * @param event
+         *
+         * @return false if the calling thread should publish the entry itself, true otherwise.
+         */
+        private boolean enqueue(BtLogRecord event)
+        {
+            long size = sizeOf(event);
+
+            try
+            {
+                if (hasSpace(size))
+                {
+                    add(event, size);
+                    return true;
+                }
+
+                switch (AsyncLoggerHandler.this.config.getPolicy())
+                {
+                    case DROP_NEW:
+                        drop(DropReason.QUEUE_FULL);
+                        return true;
+                    case DROP_OLDEST:
+                        while (!hasSpace(size))
+                        {
+                            this.queuedSize -= sizeOf(this.queue.pollFirst());
+                            AsyncLoggerHandler.this.shardedCount.decrementAndGet();
+                            drop(DropReason.OLDEST_EVICTED);
+                        }
+
+                        add(event, size);
+                        return true;
+                    case DROP_BELOW_LEVEL:
+                        if (event.getLevel().intValue() < AsyncLoggerHandler.this.config.getDropLevel().intValue())
+                        {
+                            drop(DropReason.BELOW_LEVEL);
+                            return true;
+                        }
+
+                        return awaitSpace(event, size);
+                    case SYNCHRONOUS:
+                        return false;
+                    case BLOCK:
+                    default:
+                        return awaitSpace(event, size);
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+
+        private boolean awaitSpace(BtLogRecord event, long size)
+        {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(AsyncLoggerHandler.this.config.getBlockTimeout());
+
+            try
+            {
+                while (!hasSpace(size))
+                {
+                    if (nanos <= 0 || AsyncLoggerHandler.this.closed)
+                    {
+                        drop(DropReason.BLOCK_TIMEOUT);
+                        return true;
+                    }
+
+                    nanos = this.notFull.awaitNanos(nanos);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                drop(DropReason.BLOCK_TIMEOUT);
+                return true;
+            }
+
+            add(event, size);
+            return true;
+        }
+
+        private boolean hasSpace(long size)
+        {
+            return this.queue.isEmpty() || this.queuedSize + size <= this.capacity;
+        }
+
+        private void add(BtLogRecord event, long size)
+        {
+            this.queue.addLast(event);
+            this.queuedSize += size;
+            AsyncLoggerHandler.this.shardedCount.incrementAndGet();
+            signalConsumer();
+        }
+
+        /**
+         * Moves all entries of this shard to the given list.
+         *
+         * @param target
+         */
+        private void drainTo(List<BtLogRecord> target)
+        {
+            this.lock.lock();
+
+            try
+            {
+                if (this.queue.isEmpty())
+                {
+                    return;
+                }
+
+                AsyncLoggerHandler.this.shardedCount.addAndGet(-this.queue.size());
+                target.addAll(this.queue);
+                this.queue.clear();
+                this.queuedSize = 0;
+                this.notFull.signalAll();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+
+        private void signalClosed()
+        {
+            this.lock.lock();
+
+            try
+            {
+                this.notFull.signalAll();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package bt.log;
+
+/**
+ * Defines how an {@link AsyncLoggerHandler} behaves when its queue is full.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public enum BackPressurePolicy
+{
+    /**
+     * The logging thread waits until there is space in the queue. If no space becomes available within the
+     * configured block timeout, the new entry is dropped.
+     */
+    BLOCK,
+
+    /**
+     * New entries are dropped while the queue is full.
+     */
+    DROP_NEW,
+
+    /**
+     * The oldest queued entries are dropped to make space for the new entry.
+     */
+    DROP_OLDEST,
+
+    /**
+     * New entries below the configured drop level are dropped while the queue is full. Entries at or above
+     * that level will block like {@link #BLOCK}.
+     */
+    DROP_BELOW_LEVEL,
+
+    /**
+     * While the queue is full, the logging thread publishes new entries to the target handler itself.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * While the queue is full, new entries are encoded and appended to a memory mapped spill file, which the
+     * consumer drains in order of the entries sequence numbers. No entries are dropped. If the spill file is full
+     * as well, the logging thread blocks for at most the block timeout and then adds the entry to the queue beyond
+     * its capacity.
+     */
+    SPILL
+}
@@ -0,0 +1,239 @@
+package bt.log;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A handler that keeps low level log entries in a small per-thread backlog instead of publishing them, and
+ * only publishes that backlog once the same thread logs an error.
+ * <p>
+ * Entries below the backlog level are stored in a ring buffer of the logging thread, overwriting the oldest
+ * entries once it is full. They are neither formatted nor written. Entries at or above the backlog level are
+ * published to the target handler right away. If an entry has the level SEVERE, the backlog of the logging
+ * thread is published ahead of it, so that the context that lead to the error is available. The backlog can
+ * also be published or cleared explicitly via {@link Log#flushBacklog()} and {@link Log#clearBacklog()}.
+ * <p>
+ * To receive entries below the backlog level at all, the logger that this handler is attached to needs to have
+ * a low enough level.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class BacklogLoggerHandler extends Handler
+{
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * All handlers which have not been closed yet.
+     */
+    private static final List<BacklogLoggerHandler> OPEN_HANDLERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * The handler that entries are published to.
+     */
+    protected final Handler target;
+
+    /**
+     * Entries below this level are kept in the backlog.
+     */
+    protected final Level backlogLevel;
+
+    private final ThreadLocal<Backlog> backlogs;
+
+    /**
+     * Creates a new instance that keeps entries below INFO in a backlog with {@link #DEFAULT_CAPACITY} entries.
+     *
+     * @param target The handler that entries are published to.
+     */
+    public BacklogLoggerHandler(Handler target)
+    {
+        this(target, Level.INFO, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param target       The handler that entries are published to.
+     * @param backlogLevel Entries below this level are kept in the backlog.
+     * @param capacity     The maximum number of entries in the backlog of each thread.
+     */
+    public BacklogLoggerHandler(Handler target, Level backlogLevel, int capacity)
+    {
+        super();
+        this.target = target;
+        this.backlogLevel = backlogLevel;
+        this.backlogs = ThreadLocal.withInitial(() -> new Backlog(capacity));
+        setLevel(Level.ALL);
+        OPEN_HANDLERS.add(this);
+    }
+
+    /**
+     * Publishes the backlog of the current thread for all open handlers.
+     */
+    static void flushAll()
+    {
+        for (BacklogLoggerHandler handler : OPEN_HANDLERS)
+        {
+            handler.flushBacklog();
+        }
+    }
+
+    /**
+     * Discards the backlog of the current thread for all open handlers.
+     */
+    static void clearAll()
+    {
+        for (BacklogLoggerHandler handler : OPEN_HANDLERS)
+        {
+            handler.clearBacklog();
+        }
+    }
+
+    /**
+     * Gets the handler that entries are published to.
+     *
+     * @return
+     */
+    public Handler getTarget()
+    {
+        return this.target;
+    }
+
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (!isLoggable(record))
+        {
+            return;
+        }
+
+        int level = record.getLevel().intValue();
+
+        if (level < this.backlogLevel.intValue())
+        {
+            BtLogRecord event = BtLogRecord.of(record);
+            event.freeze();
+
+            if (this.target.getFormatter() instanceof DefaultLogFormatter)
+            {
+                // the entry is formatted later on from a different stack
+                ((DefaultLogFormatter)this.target.getFormatter()).captureContext(event);
+            }
+
+            this.backlogs.get().add(event);
+            return;
+        }
+
+        if (level >= Level.SEVERE.intValue())
+        {
+            flushBacklog();
+        }
+
+        publishToTarget(record);
+    }
+
+    /**
+     * Publishes all entries in the backlog of the current thread to the target handler, oldest first, and
+     * clears the backlog.
+     */
+    public void flushBacklog()
+    {
+        Backlog backlog = this.backlogs.get();
+        LogRecord record;
+
+        while ((record = backlog.poll()) != null)
+        {
+            publishToTarget(record);
+        }
+    }
+
+    /**
+     * Discards all entries in the backlog of the current thread.
+     */
+    public void clearBacklog()
+    {
+        this.backlogs.get().clear();
+    }
+
+    private void publishToTarget(LogRecord record)
+    {
+        try
+        {
+            this.target.publish(record);
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to publish log entry", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        this.target.flush();
+    }
+
+    @Override
+    public void close() throws SecurityException
+    {
+        OPEN_HANDLERS.remove(this);
+        this.target.close();
+    }
+
+    /**
+     * A ring buffer which overwrites its oldest entry once it is full.
+     */
+    private static final class Backlog
+    {
+        private final LogRecord[] entries;
+        private int head;
+        private int size;
+
+        Backlog(int capacity)
+        {
+            this.entries = new LogRecord[capacity];
+        }
+
+        void add(LogRecord record)
+        {
+            int tail = (this.head + this.size) % this.entries.length;
+            this.entries[tail] = record;
+
+            if (this.size < this.entries.length)
+            {
+                this.size++;
+            }
+            else
+            {
+                this.head = (this.head + 1) % this.entries.length;
+            }
+        }
+
+        LogRecord poll()
+        {
+            if (this.size == 0)
+            {
+                return null;
+            }
+
+            LogRecord record = this.entries[this.head];
+            this.entries[this.head] = null;
+            this.head = (this.head + 1) % this.entries.length;
+            this.size--;
+
+            return record;
+        }
+
+        void clear()
+        {
+            Arrays.fill(this.entries, null);
+            this.head = 0;
+            this.size = 0;
+        }
+    }
+}
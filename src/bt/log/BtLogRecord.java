@@ -0,0 +1,518 @@
+package bt.log;
+
+import org.slf4j.event.KeyValuePair;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A {@link LogRecord} that additionally holds all information about the logging thread which is needed to
+ * format the record.
+ * <p>
+ * The thread name, caller location and diagnostic context are captured when the record is created, so that the
+ * record can be formatted on a different thread, for example by an {@link AsyncLoggerHandler}.
+ * <p>
+ * Messages with arguments are not formatted when the record is created. Instead the format and the arguments,
+ * unboxed for up to two primitive arguments, are kept, and the message is rendered when it is first requested.
+ * Formatters can write such messages directly into a {@link LogBuffer} via {@link #appendMessage(LogBuffer)},
+ * which never creates the message String at all. Object arguments are rendered via the {@link ObjectRenderers}.
+ * Since they might be changed after they were logged, {@link #freeze()} renders them before the record is handed
+ * to a different thread.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class BtLogRecord extends LogRecord
+{
+    private static final long serialVersionUID = -2907915468532094613L;
+
+    /**
+     * The approximate number of encoded bytes per stack frame of a logged throwable.
+     */
+    private static final int ESTIMATED_FRAME_SIZE = 64;
+
+    /**
+     * The approximate number of encoded bytes of the prefix of a log entry.
+     */
+    private static final int ESTIMATED_PREFIX_SIZE = 96;
+
+    /**
+     * The name of the thread that created this record.
+     */
+    private String threadName;
+
+    /**
+     * The location of the code that created this record.
+     */
+    private CallerLocation callerLocation;
+
+    /**
+     * The diagnostic context of the thread that created this record.
+     */
+    private MDCContext mdcContext;
+
+    /**
+     * The key value pairs that were added via the fluent API of SLF4J. They are not serializable and therefore
+     * only transferred by a {@link LogRecordCodec}.
+     */
+    private transient List<KeyValuePair> keyValuePairs;
+
+    /**
+     * The markers of this record including the markers they reference. They are not serializable and therefore only
+     * transferred by a {@link LogRecordCodec}.
+     */
+    private transient MarkerSet markers;
+
+    /**
+     * The format of the message if it is rendered lazily from its arguments, otherwise null.
+     */
+    private String format;
+
+    /**
+     * Indicates whether the message is rendered from the object arguments in the parameters of this record instead
+     * of primitive arguments.
+     */
+    private boolean objectArguments;
+
+    /**
+     * The number of primitive arguments of the format.
+     */
+    private int primitiveCount;
+
+    /**
+     * Bit i is set if the primitive argument i holds the raw bits of a double instead of a long.
+     */
+    private int doubleMask;
+
+    private long primitive0;
+    private long primitive1;
+
+    /**
+     * The cached result of {@link #getEncodedSizeEstimate()}.
+     */
+    private transient int encodedSizeEstimate = -1;
+
+    /**
+     * The encoded entry of the last formatter that cached its output in this record, see
+     * {@link EncodingFormatter#getFormatKey()}.
+     */
+    private transient volatile FormattedEntry formatted;
+
+    /**
+     * Creates a new instance and captures the name and diagnostic context of the current thread.
+     *
+     * @param level
+     * @param msg
+     */
+    public BtLogRecord(Level level, String msg)
+    {
+        super(level, msg);
+        this.threadName = Thread.currentThread().getName();
+        this.mdcContext = MDCContext.current();
+    }
+
+    /**
+     * Gets a record that holds all thread dependent information of the given record.
+     * <p>
+     * If the given record is already a BtLogRecord it will be returned. Otherwise a copy will be created which
+     * captures the current thread, its diagnostic context and the caller location. This method should therefore
+     * be called on the thread that created the given record.
+     *
+     * @param record
+     *
+     * @return
+     */
+    @SuppressWarnings("deprecation")
+    public static BtLogRecord of(LogRecord record)
+    {
+        if (record instanceof BtLogRecord)
+        {
+            return (BtLogRecord)record;
+        }
+
+        var copy = new BtLogRecord(record.getLevel(), record.getMessage());
+        copy.setLoggerName(record.getLoggerName());
+        copy.setResourceBundle(record.getResourceBundle());
+        copy.setResourceBundleName(record.getResourceBundleName());
+        copy.setInstant(record.getInstant());
+        copy.setSequenceNumber(record.getSequenceNumber());
+        copy.setThreadID(record.getThreadID());
+        copy.setSourceClassName(record.getSourceClassName());
+        copy.setSourceMethodName(record.getSourceMethodName());
+        copy.setParameters(record.getParameters());
+        copy.setThrown(record.getThrown());
+        copy.setCallerLocation(CallerLocation.capture());
+
+        return copy;
+    }
+
+    /**
+     * Gets the structured key value pairs of this record.
+     *
+     * @return The pairs or an empty list if there are none.
+     */
+    public List<KeyValuePair> getKeyValuePairs()
+    {
+        return this.keyValuePairs == null ? Collections.emptyList() : this.keyValuePairs;
+    }
+
+    public void setKeyValuePairs(List<KeyValuePair> keyValuePairs)
+    {
+        this.keyValuePairs = keyValuePairs;
+        this.encodedSizeEstimate = -1;
+    }
+
+    /**
+     * Sets the format and the primitive arguments that the message of this record is rendered from.
+     *
+     * @param format
+     * @param count      The number of arguments, at most 2.
+     * @param doubleMask Bit i is set if argument i holds the raw bits of a double.
+     * @param bits0      The first argument.
+     * @param bits1      The second argument.
+     */
+    void setPrimitiveArguments(String format, int count, int doubleMask, long bits0, long bits1)
+    {
+        this.format = format;
+        this.primitiveCount = count;
+        this.doubleMask = doubleMask;
+        this.primitive0 = bits0;
+        this.primitive1 = bits1;
+        this.encodedSizeEstimate = -1;
+    }
+
+    /**
+     * Sets the format and the object arguments that the message of this record is rendered from. The arguments are
+     * kept as the parameters of this record.
+     *
+     * @param format
+     * @param arguments
+     */
+    void setObjectArguments(String format, Object[] arguments)
+    {
+        this.format = format;
+        this.objectArguments = true;
+        this.primitiveCount = 0;
+        setParameters(arguments);
+        this.encodedSizeEstimate = -1;
+    }
+
+    /**
+     * Checks whether the message is rendered from object arguments.
+     *
+     * @return
+     */
+    boolean hasObjectArguments()
+    {
+        return this.objectArguments;
+    }
+
+    /**
+     * Renders the message now if it is rendered from object arguments, since those could be changed by the logging
+     * thread later on. This has to be called before the record is formatted on a different thread or at a later
+     * time.
+     */
+    public void freeze()
+    {
+        if (this.objectArguments)
+        {
+            getMessage();
+        }
+    }
+
+    /**
+     * Gets the format that the message is rendered from.
+     *
+     * @return The format or null if the message of this record was set directly.
+     */
+    public String getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Gets the number of primitive arguments of the format.
+     *
+     * @return
+     */
+    public int getPrimitiveArgumentCount()
+    {
+        return this.primitiveCount;
+    }
+
+    /**
+     * Checks whether the primitive argument at the given index is a double or a long.
+     *
+     * @param index
+     *
+     * @return
+     */
+    public boolean isDoubleArgument(int index)
+    {
+        return (this.doubleMask & (1 << index)) != 0;
+    }
+
+    /**
+     * Gets the raw bits of the primitive argument at the given index.
+     *
+     * @param index
+     *
+     * @return The value of a long argument or the raw bits of a double argument.
+     */
+    long getArgumentBits(int index)
+    {
+        return index == 0 ? this.primitive0 : this.primitive1;
+    }
+
+    int getDoubleMask()
+    {
+        return this.doubleMask;
+    }
+
+    /**
+     * Appends the primitive argument at the given index.
+     *
+     * @param index
+     * @param buffer
+     */
+    public void appendPrimitiveArgument(int index, LogBuffer buffer)
+    {
+        if (isDoubleArgument(index))
+        {
+            buffer.append(Double.longBitsToDouble(getArgumentBits(index)));
+        }
+        else
+        {
+            buffer.append(getArgumentBits(index));
+        }
+    }
+
+    private int getArgumentCount()
+    {
+        if (!this.objectArguments)
+        {
+            return this.primitiveCount;
+        }
+
+        Object[] arguments = getParameters();
+        return arguments != null ? arguments.length : 0;
+    }
+
+    /**
+     * Appends the argument at the given index, either a primitive or an object argument.
+     *
+     * @param index
+     * @param buffer
+     */
+    void appendArgument(int index, LogBuffer buffer)
+    {
+        if (this.objectArguments)
+        {
+            ObjectRenderers.render(getParameters()[index], buffer);
+        }
+        else
+        {
+            appendPrimitiveArgument(index, buffer);
+        }
+    }
+
+    /**
+     * Appends the message of this record to the given buffer.
+     * <p>
+     * If the message is rendered from its arguments and has not been requested as a String yet, the
+     * {@link MessageTemplate} of the format is rendered directly into the buffer, following the same rules as
+     * SLF4J: every "{}" is replaced by the next argument, "\{}" escapes the placeholder and surplus placeholders are
+     * kept as they are.
+     *
+     * @param buffer
+     */
+    public void appendMessage(LogBuffer buffer)
+    {
+        String message = super.getMessage();
+
+        if (message != null || this.format == null)
+        {
+            buffer.append(message);
+            return;
+        }
+
+        MessageTemplate.of(this.format).render(buffer, getArgumentCount(), this);
+    }
+
+    /**
+     * Gets the message of this record, rendering it from the format and arguments if necessary.
+     *
+     * @return
+     */
+    @Override
+    public String getMessage()
+    {
+        String message = super.getMessage();
+
+        if (message == null && this.format != null)
+        {
+            LogBuffer buffer = LogBuffer.acquire();
+
+            try
+            {
+                appendMessage(buffer);
+                message = buffer.toString();
+                setMessage(message);
+            }
+            finally
+            {
+                LogBuffer.release(buffer);
+            }
+        }
+
+        return message;
+    }
+
+    /**
+     * Gets the markers of this record, including the markers that they reference.
+     *
+     * @return The markers or {@link MarkerSet#EMPTY} if there are none.
+     */
+    public MarkerSet getMarkers()
+    {
+        return this.markers == null ? MarkerSet.EMPTY : this.markers;
+    }
+
+    public void setMarkers(MarkerSet markers)
+    {
+        this.markers = markers;
+    }
+
+    public String getThreadName()
+    {
+        return this.threadName;
+    }
+
+    public void setThreadName(String threadName)
+    {
+        this.threadName = threadName;
+    }
+
+    public CallerLocation getCallerLocation()
+    {
+        return this.callerLocation;
+    }
+
+    public void setCallerLocation(CallerLocation callerLocation)
+    {
+        this.callerLocation = callerLocation;
+    }
+
+    public MDCContext getMdcContext()
+    {
+        return this.mdcContext;
+    }
+
+    public void setMdcContext(MDCContext mdcContext)
+    {
+        this.mdcContext = mdcContext;
+    }
+
+    /**
+     * Gets the approximate number of bytes that this record will occupy once it is formatted and encoded.
+     * <p>
+     * The estimate is computed on first use and cached afterwards. It accounts for the message, the prefix
+     * and every stack frame of a logged throwable including its causes, since a single stack trace can easily
+     * be larger than thousands of ordinary log entries.
+     *
+     * @return
+     */
+    public int getEncodedSizeEstimate()
+    {
+        int size = this.encodedSizeEstimate;
+
+        if (size < 0)
+        {
+            size = ESTIMATED_PREFIX_SIZE;
+
+            if (super.getMessage() != null)
+            {
+                size += super.getMessage().length();
+            }
+            else if (this.format != null)
+            {
+                // every primitive argument needs at most 24 characters, object arguments are only estimated
+                size += this.format.length() + getArgumentCount() * 24;
+            }
+
+            if (this.threadName != null)
+            {
+                size += this.threadName.length();
+            }
+
+            for (KeyValuePair pair : getKeyValuePairs())
+            {
+                // the value is estimated, since rendering it would defeat the purpose
+                size += (pair.key != null ? pair.key.length() : 4) + 24;
+            }
+
+            Throwable t = getThrown();
+
+            // the depth limit guards against cyclic cause chains
+            for (int depth = 0; t != null && depth < 32; depth++)
+            {
+                size += ESTIMATED_PREFIX_SIZE + t.getStackTrace().length * ESTIMATED_FRAME_SIZE;
+                t = t.getCause();
+            }
+
+            this.encodedSizeEstimate = size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Appends the encoded entry that was cached for the given format key.
+     *
+     * @param formatKey
+     * @param buffer
+     *
+     * @return true if an entry was cached for the key, false if the record has to be formatted.
+     */
+    boolean appendFormatted(Object formatKey, LogBuffer buffer)
+    {
+        FormattedEntry entry = this.formatted;
+
+        if (entry == null || entry.formatKey != formatKey)
+        {
+            return false;
+        }
+
+        buffer.append(entry.bytes);
+        return true;
+    }
+
+    /**
+     * Caches the encoded entry that was written to the given buffer from the given start for the given format key.
+     *
+     * @param formatKey
+     * @param buffer
+     * @param start
+     */
+    void setFormatted(Object formatKey, LogBuffer buffer, int start)
+    {
+        // the pair is published as a single immutable object, since handlers on different threads might format
+        // the record concurrently
+        this.formatted = new FormattedEntry(formatKey, Arrays.copyOfRange(buffer.array(), start, buffer.length()));
+    }
+
+    private static final class FormattedEntry
+    {
+        private final Object formatKey;
+        private final byte[] bytes;
+
+        private FormattedEntry(Object formatKey, byte[] bytes)
+        {
+            this.formatKey = formatKey;
+            this.bytes = bytes;
+        }
+    }
+}
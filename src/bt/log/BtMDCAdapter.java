@@ -0,0 +1,118 @@
+package bt.log;
+
+import org.slf4j.spi.MDCAdapter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link MDCAdapter} of this logging framework.
+ * <p>
+ * Every thread holds a reference to an immutable {@link MDCContext}, which is replaced on every modification.
+ * Log entries capture the context of the logging thread by reference when they are created, which can then be
+ * printed by the formatters.
+ * <p>
+ * The stacks of values that SLF4J 2 offers via {@link #pushByKey(String, String)} are held separately per thread
+ * and are not part of the logged context.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class BtMDCAdapter implements MDCAdapter
+{
+    private static final ThreadLocal<MDCContext> CONTEXT = ThreadLocal.withInitial(() -> MDCContext.EMPTY);
+    private static final ThreadLocal<Map<String, Deque<String>>> DEQUES = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Gets the context of the current thread.
+     *
+     * @return
+     */
+    public static MDCContext getContext()
+    {
+        return CONTEXT.get();
+    }
+
+    /**
+     * Replaces the context of the current thread.
+     *
+     * @param context
+     *
+     * @return The previous context of the current thread.
+     */
+    public static MDCContext setContext(MDCContext context)
+    {
+        MDCContext previous = CONTEXT.get();
+        CONTEXT.set(context == null ? MDCContext.EMPTY : context);
+        return previous;
+    }
+
+    @Override
+    public void put(String key, String val)
+    {
+        CONTEXT.set(CONTEXT.get().with(key, val));
+    }
+
+    @Override
+    public String get(String key)
+    {
+        return CONTEXT.get().get(key);
+    }
+
+    @Override
+    public void remove(String key)
+    {
+        CONTEXT.set(CONTEXT.get().without(key));
+    }
+
+    @Override
+    public void clear()
+    {
+        CONTEXT.set(MDCContext.EMPTY);
+    }
+
+    @Override
+    public Map<String, String> getCopyOfContextMap()
+    {
+        return CONTEXT.get().toMap();
+    }
+
+    @Override
+    public void setContextMap(Map<String, String> contextMap)
+    {
+        CONTEXT.set(MDCContext.of(contextMap));
+    }
+
+    @Override
+    public void pushByKey(String key, String value)
+    {
+        DEQUES.get().computeIfAbsent(key, k -> new ArrayDeque<>()).push(value);
+    }
+
+    @Override
+    public String popByKey(String key)
+    {
+        Deque<String> deque = DEQUES.get().get(key);
+        return deque == null ? null : deque.poll();
+    }
+
+    @Override
+    public Deque<String> getCopyOfDequeByKey(String key)
+    {
+        Deque<String> deque = DEQUES.get().get(key);
+        return deque == null ? null : new ArrayDeque<>(deque);
+    }
+
+    @Override
+    public void clearDequeByKey(String key)
+    {
+        Deque<String> deque = DEQUES.get().get(key);
+
+        if (deque != null)
+        {
+            deque.clear();
+        }
+    }
+}
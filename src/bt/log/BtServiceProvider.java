@@ -0,0 +1,60 @@
+package bt.log;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.IMarkerFactory;
+import org.slf4j.helpers.BasicMarkerFactory;
+import org.slf4j.spi.MDCAdapter;
+import org.slf4j.spi.SLF4JServiceProvider;
+
+/**
+ * The SLF4J 2 provider of this logging framework, which is found by SLF4J via the service loader.
+ * <p>
+ * Loggers are created by a {@link BtLoggerFactory} and support the fluent API of SLF4J 2, including key value
+ * pairs which are kept as structured data on the log records.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class BtServiceProvider implements SLF4JServiceProvider
+{
+    /**
+     * The SLF4J API version that this provider was built for.
+     */
+    public static final String REQUESTED_API_VERSION = "2.0.99";
+
+    private ILoggerFactory loggerFactory;
+    private IMarkerFactory markerFactory;
+    private MDCAdapter mdcAdapter;
+
+    @Override
+    public ILoggerFactory getLoggerFactory()
+    {
+        return this.loggerFactory;
+    }
+
+    @Override
+    public IMarkerFactory getMarkerFactory()
+    {
+        return this.markerFactory;
+    }
+
+    @Override
+    public MDCAdapter getMDCAdapter()
+    {
+        return this.mdcAdapter;
+    }
+
+    @Override
+    public String getRequestedApiVersion()
+    {
+        return REQUESTED_API_VERSION;
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.loggerFactory = new BtLoggerFactory();
+        this.markerFactory = new BasicMarkerFactory();
+        this.mdcAdapter = new BtMDCAdapter();
+    }
+}
@@ -0,0 +1,238 @@
+package bt.log;
+
+import bt.log.agent.LocationBootstrap;
+
+import java.io.Serializable;
+
+/**
+ * An immutable description of the code location that created a log entry.
+ * <p>
+ * The location is captured on the logging thread, so that log entries can be formatted later on, for example
+ * by an {@link AsyncLoggerHandler}, without walking the stack of a different thread.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public final class CallerLocation implements Serializable
+{
+    private static final long serialVersionUID = 4135683410263466871L;
+
+    /**
+     * Packages of the logging framework itself which are skipped when capturing the caller.
+     */
+    private static final String[] FRAMEWORK_PACKAGES = { "org.slf4j", "bt.log", "java.util.logging" };
+
+    private final String className;
+    private final String methodName;
+    private final String descriptor;
+    private final int lineNumber;
+    private transient String parameterString;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param className  The fully qualified name of the calling class.
+     * @param methodName The name of the calling method.
+     * @param descriptor The JVM method descriptor of the calling method, i.e. (Ljava/lang/String;I)V.
+     * @param lineNumber The line number of the call or a negative value if unknown.
+     */
+    public CallerLocation(String className, String methodName, String descriptor, int lineNumber)
+    {
+        this.className = className;
+        this.methodName = methodName;
+        this.descriptor = descriptor;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Captures the location of the first stack frame outside of the logging framework.
+     *
+     * @return The captured location or null if no such frame exists.
+     */
+    public static CallerLocation capture()
+    {
+        return capture(null);
+    }
+
+    /**
+     * Captures the location of the first stack frame that is neither part of the logging framework nor
+     * belongs to the given class.
+     *
+     * <p>
+     * If the logging call was rewritten by the {@link bt.log.agent.LocationAgent}, its constant location is
+     * returned without walking the stack.
+     *
+     * @param callerFQCN The fully qualified name of an additional class that should be skipped. May be null.
+     *
+     * @return The captured location or null if no such frame exists.
+     */
+    public static CallerLocation capture(String callerFQCN)
+    {
+        CallerLocation injected = LocationBootstrap.current();
+
+        if (injected != null)
+        {
+            return injected;
+        }
+
+        return StackWalker.getInstance()
+                          .walk(stream -> stream.filter(frame -> !isFrameworkClass(frame.getClassName())
+                                                                 && !frame.getClassName().equals(callerFQCN))
+                                                .findFirst())
+                          .map(CallerLocation::of)
+                          .orElse(null);
+    }
+
+    /**
+     * Creates a location from the given stack frame.
+     *
+     * @param frame
+     *
+     * @return
+     */
+    public static CallerLocation of(StackWalker.StackFrame frame)
+    {
+        return new CallerLocation(frame.getClassName(), frame.getMethodName(), frame.getDescriptor(), frame.getLineNumber());
+    }
+
+    /**
+     * Checks whether the given class belongs to the logging framework.
+     *
+     * @param className
+     *
+     * @return
+     */
+    static boolean isFrameworkClass(String className)
+    {
+        for (String pkg : FRAMEWORK_PACKAGES)
+        {
+            if (className.startsWith(pkg))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public String getClassName()
+    {
+        return this.className;
+    }
+
+    public String getMethodName()
+    {
+        return this.methodName;
+    }
+
+    public String getDescriptor()
+    {
+        return this.descriptor;
+    }
+
+    public int getLineNumber()
+    {
+        return this.lineNumber;
+    }
+
+    /**
+     * Gets the simple names of the parameter types of the calling method, separated by ", ".
+     * <p>
+     * The names are parsed from the method descriptor on first use and cached afterwards.
+     *
+     * @return
+     */
+    public String getParameterString()
+    {
+        String params = this.parameterString;
+
+        if (params == null)
+        {
+            params = parseParameterString(this.descriptor);
+            this.parameterString = params;
+        }
+
+        return params;
+    }
+
+    private static String parseParameterString(String descriptor)
+    {
+        if (descriptor == null || descriptor.isEmpty() || descriptor.charAt(0) != '(')
+        {
+            return "";
+        }
+
+        var str = new StringBuilder();
+        int i = 1;
+
+        while (i < descriptor.length() && descriptor.charAt(i) != ')')
+        {
+            int dimensions = 0;
+
+            while (descriptor.charAt(i) == '[')
+            {
+                dimensions++;
+                i++;
+            }
+
+            if (str.length() > 0)
+            {
+                str.append(", ");
+            }
+
+            char c = descriptor.charAt(i);
+
+            if (c == 'L')
+            {
+                int end = descriptor.indexOf(';', i);
+                String name = descriptor.substring(i + 1, end);
+                int start = Math.max(name.lastIndexOf('/'), name.lastIndexOf('$')) + 1;
+                str.append(name, start, name.length());
+                i = end + 1;
+            }
+            else
+            {
+                str.append(primitiveName(c));
+                i++;
+            }
+
+            for (int d = 0; d < dimensions; d++)
+            {
+                str.append("[]");
+            }
+        }
+
+        return str.toString();
+    }
+
+    private static String primitiveName(char c)
+    {
+        switch (c)
+        {
+            case 'Z':
+                return "boolean";
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'S':
+                return "short";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'F':
+                return "float";
+            case 'D':
+                return "double";
+            default:
+                return "void";
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.className + "." + this.methodName + "(" + getParameterString() + ") : " + this.lineNumber;
+    }
+}
@@ -0,0 +1,140 @@
+package bt.log;
+
+import java.util.logging.Handler;
+
+/**
+ * A class holding values to set up a {@link CircuitBreakerHandler}.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class CircuitBreakerConfiguration
+{
+    /**
+     * The time in milliseconds after which a publish call of the target handler is considered too slow.
+     */
+    private long threshold;
+
+    /**
+     * The interval in milliseconds in which an open breaker probes the target handler.
+     */
+    private long probeInterval;
+
+    /**
+     * Where entries are routed while the breaker is open.
+     */
+    private FallbackMode fallback;
+
+    /**
+     * The number of entries that are kept by {@link FallbackMode#MEMORY_RING}.
+     */
+    private int ringCapacity;
+
+    /**
+     * The handler that entries are published to by {@link FallbackMode#ALTERNATE}.
+     */
+    private Handler alternate;
+
+    /**
+     * Creates a new instance.
+     */
+    public CircuitBreakerConfiguration()
+    {
+        this.threshold = 1000;
+        this.probeInterval = 5000;
+        this.fallback = FallbackMode.DROP;
+        this.ringCapacity = 1024;
+    }
+
+    public long getThreshold()
+    {
+        return threshold;
+    }
+
+    public long getProbeInterval()
+    {
+        return probeInterval;
+    }
+
+    public FallbackMode getFallback()
+    {
+        return fallback;
+    }
+
+    public int getRingCapacity()
+    {
+        return ringCapacity;
+    }
+
+    public Handler getAlternate()
+    {
+        return alternate;
+    }
+
+    /**
+     * Sets the time in milliseconds after which a publish call of the target handler is considered too slow, which
+     * opens the breaker.
+     *
+     * @param millis
+     *
+     * @return
+     */
+    public CircuitBreakerConfiguration threshold(long millis)
+    {
+        this.threshold = millis;
+        return this;
+    }
+
+    /**
+     * Sets the interval in milliseconds in which an open breaker probes whether the target handler recovered.
+     *
+     * @param millis
+     *
+     * @return
+     */
+    public CircuitBreakerConfiguration probeInterval(long millis)
+    {
+        this.probeInterval = millis;
+        return this;
+    }
+
+    /**
+     * Sets where entries are routed while the breaker is open.
+     *
+     * @param fallback
+     *
+     * @return
+     */
+    public CircuitBreakerConfiguration fallback(FallbackMode fallback)
+    {
+        this.fallback = fallback;
+        return this;
+    }
+
+    /**
+     * Sets the number of entries that are kept in memory by {@link FallbackMode#MEMORY_RING}.
+     *
+     * @param entries
+     *
+     * @return
+     */
+    public CircuitBreakerConfiguration ringCapacity(int entries)
+    {
+        this.ringCapacity = entries;
+        return this;
+    }
+
+    /**
+     * Sets the handler that entries are published to by {@link FallbackMode#ALTERNATE} and selects that mode.
+     *
+     * @param handler
+     *
+     * @return
+     */
+    public CircuitBreakerConfiguration alternate(Handler handler)
+    {
+        this.alternate = handler;
+        this.fallback = FallbackMode.ALTERNATE;
+        return this;
+    }
+}
@@ -0,0 +1,629 @@
+package bt.log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A handler that protects the logging threads from a target handler which became slow or hangs, for example a
+ * {@link FileLoggerHandler} that writes to an unresponsive network drive.
+ * <p>
+ * The duration of every publish call of the target handler is measured. A watchdog thread additionally checks
+ * whether calls are in progress without any of them completing, which detects a target that hangs forever. Once a
+ * call takes longer than the configured threshold, the breaker opens and all entries are routed to the configured
+ * {@link FallbackMode} instead of the target handler. Threads that are already blocked in the target handler stay
+ * blocked, but no further threads follow them.
+ * <p>
+ * While the breaker is open, the watchdog probes the target handler periodically by flushing it on a separate probe
+ * thread, so that neither the watchdog nor logging threads can get stuck in it. If the probe completes within the
+ * threshold and no publish call is blocked anymore, entries kept by {@link FallbackMode#MEMORY_RING} are published
+ * to the target handler and the breaker closes again.
+ * <p>
+ * Every state transition is counted, see {@link #getTransitionCount(CircuitState)}, and reported as a warning entry
+ * to the target handler or the fallback, depending on which of them receives entries afterwards.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class CircuitBreakerHandler extends Handler
+{
+    /**
+     * The handler that entries are published to while the breaker is closed.
+     */
+    protected final Handler target;
+
+    /**
+     * The configuration of this handler.
+     */
+    protected final CircuitBreakerConfiguration config;
+
+    private final long thresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<BtLogRecord> ring = new ArrayDeque<>();
+    private final long[] transitionCounts = new long[CircuitState.values().length];
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder publishCount = new LongAdder();
+    private final LongAdder publishNanos = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final Thread watchdog;
+    private volatile CircuitState state = CircuitState.CLOSED;
+
+    /**
+     * The time at which the current state was entered, as returned by {@link System#nanoTime()}.
+     */
+    private volatile long stateSince = System.nanoTime();
+
+    /**
+     * The time at which a publish call of the target handler was last started on an idle handler or completed.
+     */
+    private volatile long lastProgress;
+    private volatile long maxPublishNanos;
+    private volatile Thread probe;
+
+    /**
+     * The time at which the probe was started or last published an entry of the memory ring.
+     */
+    private volatile long probeProgress;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance with a default configuration.
+     *
+     * @param target The handler that entries are published to while the breaker is closed.
+     */
+    public CircuitBreakerHandler(Handler target)
+    {
+        this(target, new CircuitBreakerConfiguration());
+    }
+
+    /**
+     * Creates a new instance with the given configuration and starts the watchdog thread.
+     *
+     * @param target The handler that entries are published to while the breaker is closed.
+     * @param config
+     */
+    public CircuitBreakerHandler(Handler target, CircuitBreakerConfiguration config)
+    {
+        super();
+        this.target = target;
+        this.config = config;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getThreshold());
+        setLevel(target.getLevel());
+
+        this.watchdog = new Thread(this::watch, "BtLogging-watchdog");
+        this.watchdog.setDaemon(true);
+        this.watchdog.start();
+    }
+
+    /**
+     * Gets the handler that entries are published to while the breaker is closed.
+     *
+     * @return
+     */
+    public Handler getTarget()
+    {
+        return this.target;
+    }
+
+    public CircuitState getState()
+    {
+        return this.state;
+    }
+
+    /**
+     * Gets the number of times that the breaker entered the given state.
+     *
+     * @param state
+     *
+     * @return
+     */
+    public long getTransitionCount(CircuitState state)
+    {
+        this.lock.lock();
+
+        try
+        {
+            return this.transitionCounts[state.ordinal()];
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of completed publish calls of the target handler.
+     *
+     * @return
+     */
+    public long getPublishCount()
+    {
+        return this.publishCount.sum();
+    }
+
+    /**
+     * Gets the total duration of all completed publish calls of the target handler in nanoseconds.
+     *
+     * @return
+     */
+    public long getTotalPublishNanos()
+    {
+        return this.publishNanos.sum();
+    }
+
+    /**
+     * Gets the duration of the slowest completed publish call of the target handler in nanoseconds.
+     *
+     * @return
+     */
+    public long getMaxPublishNanos()
+    {
+        return this.maxPublishNanos;
+    }
+
+    /**
+     * Gets the number of entries that were dropped by the fallback.
+     *
+     * @return
+     */
+    public long getDroppedCount()
+    {
+        return this.droppedCount.sum();
+    }
+
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (this.closed || !isLoggable(record))
+        {
+            return;
+        }
+
+        if (this.state != CircuitState.CLOSED)
+        {
+            fallback(record);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        if (this.inFlight.getAndIncrement() == 0)
+        {
+            this.lastProgress = start;
+        }
+
+        try
+        {
+            this.target.publish(record);
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to publish log entry", e, ErrorManager.WRITE_FAILURE);
+        }
+        finally
+        {
+            long end = System.nanoTime();
+            this.lastProgress = end;
+            this.inFlight.decrementAndGet();
+            measure(end - start);
+        }
+    }
+
+    private void measure(long nanos)
+    {
+        CircuitState current = this.state;
+
+        this.publishCount.increment();
+        this.publishNanos.add(nanos);
+
+        // a lost update only loses a maximum that was exceeded at the same time
+        if (nanos > this.maxPublishNanos)
+        {
+            this.maxPublishNanos = nanos;
+        }
+
+        if (nanos > this.thresholdNanos)
+        {
+            open(current, "a publish call took " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+        }
+    }
+
+    /**
+     * Routes the given entry to the configured fallback.
+     *
+     * @param record
+     */
+    private void fallback(LogRecord record)
+    {
+        switch (this.config.getFallback())
+        {
+            case ALTERNATE:
+                if (this.config.getAlternate() != null)
+                {
+                    try
+                    {
+                        this.config.getAlternate().publish(record);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        reportError("Failed to publish log entry to the alternate handler", e, ErrorManager.WRITE_FAILURE);
+                    }
+
+                    return;
+                }
+
+                break;
+            case MEMORY_RING:
+                keep(record);
+                return;
+            case DROP:
+            default:
+                break;
+        }
+
+        this.droppedCount.increment();
+    }
+
+    /**
+     * Keeps the given entry in the memory ring, or publishes it to the target handler if the breaker was closed in
+     * the meantime.
+     *
+     * @param record
+     */
+    private void keep(LogRecord record)
+    {
+        // the entry is published later, so the message and the context of the logging thread are captured now
+        BtLogRecord event = BtLogRecord.of(record);
+        event.freeze();
+
+        if (this.target.getFormatter() instanceof DefaultLogFormatter)
+        {
+            ((DefaultLogFormatter)this.target.getFormatter()).captureContext(event);
+        }
+
+        this.lock.lock();
+
+        try
+        {
+            if (this.closed)
+            {
+                this.droppedCount.increment();
+                return;
+            }
+
+            // the ring is only published by the probe while holding the lock, so it can't miss this entry
+            if (this.state != CircuitState.CLOSED)
+            {
+                if (this.ring.size() >= this.config.getRingCapacity())
+                {
+                    this.ring.pollFirst();
+                    this.droppedCount.increment();
+                }
+
+                this.ring.addLast(event);
+                return;
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        publish(event);
+    }
+
+    /**
+     * Opens the breaker if it is in the given state.
+     *
+     * @param from
+     * @param reason
+     */
+    private void open(CircuitState from, String reason)
+    {
+        if (from != CircuitState.OPEN && transition(from, CircuitState.OPEN))
+        {
+            var notice = createNotice("Circuit breaker of " + this.target.getClass().getName()
+                    + " opened, entries are routed to the fallback " + this.config.getFallback() + ": " + reason);
+            fallback(notice);
+        }
+    }
+
+    /**
+     * Changes the state if the breaker is in the given state.
+     *
+     * @param from
+     * @param to
+     *
+     * @return true if the state was changed.
+     */
+    private boolean transition(CircuitState from, CircuitState to)
+    {
+        this.lock.lock();
+
+        try
+        {
+            if (this.state != from)
+            {
+                return false;
+            }
+
+            this.state = to;
+            this.stateSince = System.nanoTime();
+            this.transitionCounts[to.ordinal()]++;
+            return true;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    private BtLogRecord createNotice(String message)
+    {
+        var notice = new BtLogRecord(Level.WARNING, message);
+        notice.setLoggerName(getClass().getName());
+        notice.setCallerLocation(new CallerLocation(getClass().getName(), "createNotice", "(Ljava/lang/String;)Lbt/log/BtLogRecord;", -1));
+        return notice;
+    }
+
+    /**
+     * The loop of the watchdog thread, which opens the breaker if the target handler stopped making progress and
+     * starts probes while the breaker is open.
+     */
+    private void watch()
+    {
+        long interval = Math.max(this.config.getThreshold() / 4, 1);
+        long probeInterval = TimeUnit.MILLISECONDS.toNanos(this.config.getProbeInterval());
+
+        while (!this.closed)
+        {
+            try
+            {
+                Thread.sleep(interval);
+            }
+            catch (InterruptedException e)
+            {
+                break;
+            }
+
+            long now = System.nanoTime();
+
+            switch (this.state)
+            {
+                case CLOSED:
+                    if (this.inFlight.get() > 0 && now - this.lastProgress > this.thresholdNanos)
+                    {
+                        open(CircuitState.CLOSED, "no publish call completed within "
+                                + TimeUnit.NANOSECONDS.toMillis(now - this.lastProgress) + " ms");
+                    }
+
+                    break;
+                case OPEN:
+                    // a probe that is still blocked in the target handler is not joined by another one
+                    if (now - this.stateSince >= probeInterval && (this.probe == null || !this.probe.isAlive())
+                            && transition(CircuitState.OPEN, CircuitState.HALF_OPEN))
+                    {
+                        this.probeProgress = now;
+                        this.probe = new Thread(this::probe, "BtLogging-probe");
+                        this.probe.setDaemon(true);
+                        this.probe.start();
+                    }
+
+                    break;
+                case HALF_OPEN:
+                    if (now - this.probeProgress > this.thresholdNanos)
+                    {
+                        open(CircuitState.HALF_OPEN, "the probe made no progress within "
+                                + this.config.getThreshold() + " ms");
+                    }
+
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Flushes the target handler and closes the breaker if that was fast enough, publishing the entries of the
+     * memory ring first.
+     */
+    private void probe()
+    {
+        try
+        {
+            this.target.flush();
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to flush the target handler", e, ErrorManager.FLUSH_FAILURE);
+            open(CircuitState.HALF_OPEN, "the probe failed");
+            return;
+        }
+
+        if (System.nanoTime() - this.probeProgress > this.thresholdNanos || this.inFlight.get() > 0)
+        {
+            open(CircuitState.HALF_OPEN, "the target handler is still blocked");
+            return;
+        }
+
+        List<BtLogRecord> batch = new ArrayList<>();
+
+        while (this.state == CircuitState.HALF_OPEN)
+        {
+            this.lock.lock();
+
+            try
+            {
+                if (this.ring.isEmpty())
+                {
+                    transition(CircuitState.HALF_OPEN, CircuitState.CLOSED);
+                    break;
+                }
+
+                batch.addAll(this.ring);
+                this.ring.clear();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            for (int i = 0; i < batch.size(); i++)
+            {
+                if (this.state != CircuitState.HALF_OPEN)
+                {
+                    requeue(batch.subList(i, batch.size()));
+                    break;
+                }
+
+                publishMeasured(batch.get(i));
+            }
+
+            batch.clear();
+        }
+
+        if (this.state == CircuitState.CLOSED)
+        {
+            publishMeasured(createNotice("Circuit breaker of " + this.target.getClass().getName() + " closed, "
+                    + getDroppedCount() + " entries were dropped by the fallback so far"));
+        }
+    }
+
+    /**
+     * Puts entries that the probe could not publish back to the front of the memory ring.
+     *
+     * @param events
+     */
+    private void requeue(List<BtLogRecord> events)
+    {
+        this.lock.lock();
+
+        try
+        {
+            // the ring was already drained by close
+            if (this.closed)
+            {
+                this.droppedCount.add(events.size());
+                return;
+            }
+
+            for (int i = events.size() - 1; i >= 0; i--)
+            {
+                this.ring.addFirst(events.get(i));
+            }
+
+            while (this.ring.size() > this.config.getRingCapacity())
+            {
+                this.ring.pollFirst();
+                this.droppedCount.increment();
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes an entry of the memory ring to the target handler while the breaker is half open, reopening it if
+     * that takes too long.
+     *
+     * @param event
+     */
+    private void publishMeasured(BtLogRecord event)
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            this.target.publish(event);
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to publish log entry", e, ErrorManager.WRITE_FAILURE);
+        }
+
+        long end = System.nanoTime();
+        this.probeProgress = end;
+        measure(end - start);
+    }
+
+    @Override
+    public void flush()
+    {
+        if (this.state == CircuitState.CLOSED)
+        {
+            this.target.flush();
+        }
+        else if (this.config.getFallback() == FallbackMode.ALTERNATE && this.config.getAlternate() != null)
+        {
+            this.config.getAlternate().flush();
+        }
+    }
+
+    /**
+     * Stops the watchdog and closes the target handler if the breaker is closed. An open breaker doesn't close
+     * the target handler, since that would block as well. Entries that are still kept in the memory ring are
+     * published to the alternate handler if there is one, otherwise they are counted as dropped. The alternate
+     * handler is closed in any case.
+     */
+    @Override
+    public void close() throws SecurityException
+    {
+        if (this.closed)
+        {
+            return;
+        }
+
+        this.closed = true;
+        this.watchdog.interrupt();
+
+        if (this.state == CircuitState.CLOSED)
+        {
+            this.target.close();
+        }
+
+        List<BtLogRecord> remaining;
+        this.lock.lock();
+
+        try
+        {
+            remaining = new ArrayList<>(this.ring);
+            this.ring.clear();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        Handler alternate = this.config.getAlternate();
+
+        if (alternate == null)
+        {
+            this.droppedCount.add(remaining.size());
+            return;
+        }
+
+        for (BtLogRecord event : remaining)
+        {
+            try
+            {
+                alternate.publish(event);
+            }
+            catch (RuntimeException e)
+            {
+                this.droppedCount.increment();
+                reportError("Failed to publish log entry to the alternate handler", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+
+        alternate.close();
+    }
+}
@@ -0,0 +1,25 @@
+package bt.log;
+
+/**
+ * The states of a {@link CircuitBreakerHandler}.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public enum CircuitState
+{
+    /**
+     * Entries are published to the target handler.
+     */
+    CLOSED,
+
+    /**
+     * The target handler was too slow, entries are routed to the fallback.
+     */
+    OPEN,
+
+    /**
+     * The target handler is probed while entries are still routed to the fallback.
+     */
+    HALF_OPEN
+}
@@ -1,5 +1,10 @@
 package bt.log;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -9,12 +14,38 @@ import java.util.logging.LogRecord;
  * A simple handler that prints given log entries to either System.out or System.err.
  * <p>
  * Log entries with a level of SEVERE or WARNING will be printed to System.err, others to System.out.
+ * <p>
+ * If a flush interval is set, for example via {@link LoggerConfiguration#consoleFlushInterval(long)}, entries are
+ * not printed one by one. Instead they are encoded as UTF-8 and collected in a batch per stream, which is written
+ * to the standard output or error stream of the process in the given interval, once it reaches
+ * {@value #BATCH_SIZE} bytes or right away for SEVERE entries. The batches are written via a
+ * {@link FileOutputStream} on {@link FileDescriptor#out} and {@link FileDescriptor#err}, which bypasses the
+ * synchronized and auto flushing PrintStreams and also any stream that was set via
+ * {@link System#setOut(java.io.PrintStream)}. Unlike a {@link java.nio.channels.FileChannel}, the stream is not
+ * interruptible, so that writing a batch on a thread with its interrupt flag set doesn't close the standard streams
+ * of the whole process. Entries are formatted outside of any lock, only appending the encoded entry to the batch is
+ * synchronized.
  *
  * @author Lukas Hartwig
  * @since 15.12.2021
  */
 public class ConsoleLoggerHandler extends Handler
 {
+    /**
+     * The number of bytes after which a batch is written regardless of the flush interval.
+     */
+    public static final int BATCH_SIZE = 64 * 1024;
+
+    /**
+     * The batches of System.out and System.err, null if entries are printed one by one.
+     */
+    private final Batch out;
+    private final Batch err;
+
+    private final Thread flusher;
+    private final long flushInterval;
+    private volatile boolean closed;
+
     /**
      * Creates a new instance with the given configuration.
      * A {@link DefaultLogFormatter} will be created with the given configuration.
@@ -23,8 +54,7 @@ public class ConsoleLoggerHandler extends Handler
      */
     public ConsoleLoggerHandler(LoggerConfiguration config)
     {
-        super();
-        setFormatter(new DefaultLogFormatter(config));
+        this(new DefaultLogFormatter(config), config.getConsoleFlushInterval());
         setLevel(config.getLevel());
     }
 
@@ -34,10 +64,38 @@ public class ConsoleLoggerHandler extends Handler
      * @param formatter
      */
     public ConsoleLoggerHandler(Formatter formatter)
+    {
+        this(formatter, 0);
+    }
+
+    /**
+     * Creates a new instance with the given formatter, which batches its output if the given interval is positive.
+     *
+     * @param formatter
+     * @param flushInterval The interval in milliseconds in which batched entries are written, 0 to print every
+     *                      entry right away.
+     */
+    public ConsoleLoggerHandler(Formatter formatter, long flushInterval)
     {
         super();
         setFormatter(formatter);
         setLevel(Level.ALL);
+        this.flushInterval = flushInterval;
+
+        if (flushInterval > 0)
+        {
+            this.out = new Batch(StandardStreams.OUT);
+            this.err = new Batch(StandardStreams.ERR);
+            this.flusher = new Thread(this::flushPeriodically, "BtLogging-console");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+        else
+        {
+            this.out = null;
+            this.err = null;
+            this.flusher = null;
+        }
     }
 
     /**
@@ -48,9 +106,7 @@ public class ConsoleLoggerHandler extends Handler
      */
     public ConsoleLoggerHandler()
     {
-        super();
-        setFormatter(new DefaultLogFormatter(new LoggerConfiguration()));
-        setLevel(Level.ALL);
+        this(new DefaultLogFormatter(new LoggerConfiguration()));
     }
 
     @Override
@@ -58,28 +114,183 @@ public class ConsoleLoggerHandler extends Handler
     {
         if (record.getLevel().intValue() >= getLevel().intValue())
         {
-            String text = getFormatter().format(record);
+            boolean error = record.getLevel().equals(Level.SEVERE) || record.getLevel().equals(Level.WARNING);
 
-            if (record.getLevel().equals(Level.SEVERE) || record.getLevel().equals(Level.WARNING))
+            if (this.out == null)
             {
-                System.err.print(text);
+                String text = getFormatter().format(record);
+
+                if (error)
+                {
+                    System.err.print(text);
+                }
+                else
+                {
+                    System.out.print(text);
+                }
+
+                return;
+            }
+
+            publishBatched(record, error);
+        }
+    }
+
+    private void publishBatched(LogRecord record, boolean error)
+    {
+        LogBuffer entry = LogBuffer.acquire();
+
+        try
+        {
+            if (getFormatter() instanceof EncodingFormatter)
+            {
+                ((EncodingFormatter)getFormatter()).format(record, entry);
             }
             else
             {
-                System.out.print(text);
+                entry.append(getFormatter().format(record));
+            }
+
+            (error ? this.err : this.out).append(entry);
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to format log entry", e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        finally
+        {
+            LogBuffer.release(entry);
+        }
+
+        if (record.getLevel().intValue() >= Level.SEVERE.intValue() || this.closed)
+        {
+            // earlier entries on System.out are written first, so that they appear before the error
+            flush();
+        }
+    }
+
+    private void flushPeriodically()
+    {
+        while (!this.closed)
+        {
+            try
+            {
+                Thread.sleep(this.flushInterval);
+            }
+            catch (InterruptedException e)
+            {
+                break;
             }
+
+            flush();
         }
     }
 
     @Override
     public void flush()
     {
-
+        if (this.out != null)
+        {
+            this.out.flush();
+            this.err.flush();
+        }
     }
 
     @Override
     public void close() throws SecurityException
     {
+        this.closed = true;
+        DefaultLogFormatter.release(getFormatter());
+
+        if (this.flusher != null)
+        {
+            this.flusher.interrupt();
+        }
+
+        flush();
+    }
+
+    /**
+     * The standard streams of the process, which are shared by all handlers and never closed.
+     */
+    private static final class StandardStreams
+    {
+        private static final FileOutputStream OUT = new FileOutputStream(FileDescriptor.out);
+        private static final FileOutputStream ERR = new FileOutputStream(FileDescriptor.err);
+    }
+
+    /**
+     * The collected entries of a single stream.
+     * <p>
+     * Entries are appended to the pending buffer. Writing swaps it with the second buffer while holding the lock,
+     * so that the stream is written without blocking threads that append new entries.
+     */
+    private final class Batch
+    {
+        private final FileOutputStream stream;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private LogBuffer pending = new LogBuffer(BATCH_SIZE);
+        private LogBuffer writing = new LogBuffer(BATCH_SIZE);
 
+        private Batch(FileOutputStream stream)
+        {
+            this.stream = stream;
+        }
+
+        private void append(LogBuffer entry)
+        {
+            boolean full;
+            this.lock.lock();
+
+            try
+            {
+                this.pending.append(entry);
+                full = this.pending.length() >= BATCH_SIZE;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            if (full)
+            {
+                flush();
+            }
+        }
+
+        private void flush()
+        {
+            this.writeLock.lock();
+
+            try
+            {
+                this.lock.lock();
+
+                try
+                {
+                    LogBuffer full = this.pending;
+                    this.pending = this.writing;
+                    this.writing = full;
+                }
+                finally
+                {
+                    this.lock.unlock();
+                }
+
+                this.stream.write(this.writing.array(), 0, this.writing.length());
+            }
+            catch (IOException e)
+            {
+                reportError("Failed to write log entries", e, ErrorManager.WRITE_FAILURE);
+            }
+            finally
+            {
+                // a batch that grew for a huge entry is not kept
+                this.writing = this.writing.array().length > 4 * BATCH_SIZE ? new LogBuffer(BATCH_SIZE) : this.writing.reset();
+                this.writeLock.unlock();
+            }
+        }
     }
-}
\ No newline at end of file
+}
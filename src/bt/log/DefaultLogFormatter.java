@@ -1,9 +1,9 @@
 package bt.log;
 
+import org.slf4j.event.KeyValuePair;
+
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
@@ -17,8 +17,25 @@ import java.util.logging.LogRecord;
  * @author Lukas Hartwig
  * @since 15.12.2021
  */
-public class DefaultLogFormatter extends Formatter
+public class DefaultLogFormatter extends Formatter implements EncodingFormatter
 {
+    /**
+     * Appended to messages that were cut off because they exceeded the configured maximum message size.
+     */
+    protected static final String TRUNCATION_MARKER = " [...truncated]";
+
+    /**
+     * The number of characters of a long message that are encoded at once.
+     */
+    private static final int MESSAGE_CHUNK_SIZE = 8192;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The padded level Strings of every SLF4J level, indexed by its ordinal.
+     */
+    private static final String[] LEVEL_STRINGS = createLevelStrings();
+
     /**
      * A list of classes that should be skipped when looking for the caller name.
      * <p>
@@ -40,6 +57,49 @@ public class DefaultLogFormatter extends Formatter
      */
     protected LoggerConfiguration config;
 
+    /**
+     * Renders logged throwables according to the limits of the configuration.
+     */
+    protected ThrowableRenderer throwableRenderer;
+
+    /**
+     * Detects repeated stack traces, null if the deduplication is disabled in the configuration.
+     */
+    protected StackTraceDeduplicator stackTraceDeduplicator;
+
+    /**
+     * The key that this formatter shares with all equivalent formatters, see {@link #getFormatKey()}.
+     */
+    private Object formatKey;
+
+    /**
+     * Indicates whether messages that are rendered from a format are written directly into the buffer, which is
+     * only done if {@link #getMessageText(LogRecord)} is not overridden.
+     */
+    private final boolean directMessages;
+
+    /**
+     * Indicates whether the prefix is appended part by part, which is only done if {@link #getPrefix(LogRecord)} is
+     * not overridden.
+     */
+    private final boolean directPrefix;
+
+    /**
+     * Indicates whether throwables are rendered directly into the buffer, which is only done if
+     * {@link #getThrowableText(Throwable)} is not overridden.
+     */
+    private final boolean directThrowables;
+
+    /**
+     * Indicates whether a subclass still overrides the deprecated {@link #getCallerString()}.
+     */
+    private final boolean legacyCallerString;
+
+    /**
+     * Indicates whether a subclass still overrides the deprecated {@link #getThreadNameString()}.
+     */
+    private final boolean legacyThreadNameString;
+
     /**
      * Creates a new instance with the given configuration.
      *
@@ -52,6 +112,28 @@ public class DefaultLogFormatter extends Formatter
         addInvalidCallerClasses(config.getInvalidCallerClasses());
         this.invalidCallerPackages = initializeInvalidCallerPackages();
         addInvalidCallerPackages(config.getInvalidCallerPackages());
+        this.throwableRenderer = new ThrowableRenderer(config);
+        this.directMessages = !overrides(getClass(), "getMessageText", LogRecord.class);
+        this.directPrefix = !overrides(getClass(), "getPrefix", LogRecord.class);
+        this.directThrowables = !overrides(getClass(), "getThrowableText", Throwable.class);
+        this.legacyCallerString = overrides(getClass(), "getCallerString");
+        this.legacyThreadNameString = overrides(getClass(), "getThreadNameString");
+
+        if (config.getStackTraceDedupWindow() > 0)
+        {
+            this.stackTraceDeduplicator = new StackTraceDeduplicator(config);
+        }
+
+        if (isShareable())
+        {
+            FormatKey key = config.getFormatKey(getClass());
+            key.register();
+            this.formatKey = key;
+        }
+        else
+        {
+            this.formatKey = this;
+        }
     }
 
     /**
@@ -93,6 +175,8 @@ public class DefaultLogFormatter extends Formatter
             {
                 this.invalidCallerClasses.add(cls);
             }
+
+            unshare();
         }
     }
 
@@ -127,9 +211,107 @@ public class DefaultLogFormatter extends Formatter
             {
                 this.invalidCallerPackages.add(pkg);
             }
+
+            unshare();
+        }
+    }
+
+    /**
+     * Checks whether the output of this formatter only depends on its class and its configuration, so that it can
+     * share the output of records with other formatters of the same class and configuration.
+     * <p>
+     * The default implementation returns true for the formatters of this framework. Subclasses which don't change
+     * the output can return true as well.
+     *
+     * @return
+     */
+    protected boolean isShareable()
+    {
+        return getClass() == DefaultLogFormatter.class || getClass() == JsonLogFormatter.class;
+    }
+
+    /**
+     * Checks whether the given class or one of its superclasses below this class overrides the method with the given
+     * name and parameter types.
+     *
+     * @param cls
+     * @param name
+     * @param parameterTypes
+     *
+     * @return
+     */
+    private static boolean overrides(Class<?> cls, String name, Class<?>... parameterTypes)
+    {
+        for (Class<?> current = cls; current != DefaultLogFormatter.class; current = current.getSuperclass())
+        {
+            try
+            {
+                current.getDeclaredMethod(name, parameterTypes);
+                return true;
+            }
+            catch (NoSuchMethodException e)
+            {
+                // not declared by this class
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the message of the given record is rendered directly into the buffer instead of being taken
+     * from {@link #getMessageText(LogRecord)}.
+     *
+     * @param record
+     *
+     * @return
+     */
+    boolean isDirectMessage(LogRecord record)
+    {
+        return this.directMessages && record instanceof BtLogRecord && ((BtLogRecord)record).getFormat() != null;
+    }
+
+    /**
+     * Stops sharing the output with equivalent formatters after this formatter was configured individually or its
+     * handler was closed.
+     */
+    private synchronized void unshare()
+    {
+        // called by the constructor before the key is assigned
+        if (this.formatKey instanceof FormatKey)
+        {
+            ((FormatKey)this.formatKey).unregister();
+            this.formatKey = this;
+        }
+    }
+
+    /**
+     * Stops sharing the output of the given formatter with equivalent formatters, because the handler that owns it
+     * was closed. Does nothing if the formatter is not a {@link DefaultLogFormatter}.
+     *
+     * @param formatter
+     */
+    static void release(Formatter formatter)
+    {
+        if (formatter instanceof DefaultLogFormatter)
+        {
+            ((DefaultLogFormatter)formatter).unshare();
         }
     }
 
+    /**
+     * Gets the key of this formatter, which is shared by all formatters of the same class that use the same
+     * configuration, unless they were configured individually via {@link #addInvalidCallerClasses(Class[])} or
+     * {@link #addInvalidCallerPackages(String...)}.
+     *
+     * @return
+     */
+    @Override
+    public Object getFormatKey()
+    {
+        return this.formatKey;
+    }
+
     /**
      * Checks if the given stack is a valid caller stack by comparing it to the invalid
      * caller classes and invalid caller packages.
@@ -140,8 +322,81 @@ public class DefaultLogFormatter extends Formatter
      */
     protected boolean isCallerStack(StackWalker.StackFrame stk)
     {
-        return !this.invalidCallerClasses.stream().anyMatch(cls -> cls.getName().equals(stk.getClassName()))
-                && !this.invalidCallerPackages.stream().anyMatch(pkg -> stk.getClassName().startsWith(pkg));
+        return isCallerClass(stk.getClassName());
+    }
+
+    /**
+     * Checks if the given class name is a valid caller class by comparing it to the invalid
+     * caller classes and invalid caller packages.
+     *
+     * @param className
+     *
+     * @return true if the class is a valid caller class, false otherwise.
+     */
+    protected boolean isCallerClass(String className)
+    {
+        return !this.invalidCallerClasses.stream().anyMatch(cls -> cls.getName().equals(className))
+                && !this.invalidCallerPackages.stream().anyMatch(pkg -> className.startsWith(pkg));
+    }
+
+    /**
+     * Gets the location of the code that created the given record.
+     * <p>
+     * If the record is a {@link BtLogRecord} that already holds a valid caller location, that location is used.
+     * The same is true for locations inside the logging framework, which are only set for entries created by the
+     * framework itself, and for any location of a record that was created on a different thread, since walking
+     * the stack of the current thread would not lead to its caller. Otherwise the stack of the current thread is
+     * walked to find the first valid caller.
+     *
+     * @param record
+     *
+     * @return The caller location or null if none could be found.
+     */
+    protected CallerLocation getCallerLocation(LogRecord record)
+    {
+        if (record instanceof BtLogRecord)
+        {
+            var btRecord = (BtLogRecord)record;
+            CallerLocation location = btRecord.getCallerLocation();
+
+            if (location != null && (isCallerClass(location.getClassName())
+                    || CallerLocation.isFrameworkClass(location.getClassName())
+                    || !Thread.currentThread().getName().equals(btRecord.getThreadName())))
+            {
+                return location;
+            }
+        }
+
+        return findCallerLocation();
+    }
+
+    /**
+     * Walks the stack of the current thread to find the first valid caller.
+     *
+     * @return The caller location or null if none could be found.
+     */
+    private CallerLocation findCallerLocation()
+    {
+        return StackWalker.getInstance()
+                          .walk(stream -> stream.filter(this::isCallerStack).findFirst())
+                          .map(CallerLocation::of)
+                          .orElse(null);
+    }
+
+    /**
+     * Captures all information of the given record that depends on the logging thread, so that the record
+     * can be formatted later on from a different thread.
+     * <p>
+     * This method has to be called on the thread that created the record.
+     *
+     * @param record
+     */
+    public void captureContext(BtLogRecord record)
+    {
+        if (this.config.isPrintCaller())
+        {
+            record.setCallerLocation(getCallerLocation(record));
+        }
     }
 
     /**
@@ -151,46 +406,56 @@ public class DefaultLogFormatter extends Formatter
      * The default implementation will create a String with the following format:
      * <p>
      * [package.subpackage.class.method(paramType1, paramType2) : lineNumber]
+     * <p>
+     * If a subclass still overrides {@link #getCallerString()}, its result is returned instead.
+     *
+     * @param record The record that is requested to be logged.
      *
      * @return A formatted representation of the log caller.
      */
-    protected String getCallerString()
+    protected String getCallerString(LogRecord record)
     {
-        StackWalker.StackFrame stack = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)
-                                                  .walk(stream -> stream.filter(this::isCallerStack).findFirst())
-                                                  .get();
-
-        String className = stack.getClassName();
-        String methodName = stack.getMethodName();
-        MethodType type = stack.getMethodType();
-
-        var str = new StringBuilder();
-        str.append("[");
-        str.append(className);
-        str.append(".");
-        str.append(methodName);
-        str.append("(");
-
-        for (Class<?> param : type.parameterArray())
+        if (this.legacyCallerString)
         {
-            str.append(param.getSimpleName());
-            str.append(", ");
+            return getCallerString();
         }
 
-        String ret = str.toString();
+        return getCallerString(getCallerLocation(record));
+    }
 
-        if (type.parameterCount() > 0)
+    /**
+     * Formats a String of the caller information from the stack of the current thread.
+     *
+     * @return A formatted representation of the log caller.
+     *
+     * @deprecated The caller of a record that is formatted on a different thread can't be found on the current
+     *             stack. Override {@link #getCallerString(LogRecord)} instead.
+     */
+    @Deprecated
+    protected String getCallerString()
+    {
+        return getCallerString(findCallerLocation());
+    }
+
+    private static String getCallerString(CallerLocation location)
+    {
+        if (location == null)
         {
-            ret = ret.substring(0, ret.length() - 2);
+            return " [unknown]";
         }
 
-        str.setLength(0);
-        str.append(ret);
+        var str = new StringBuilder();
+        str.append(" [");
+        str.append(location.getClassName());
+        str.append(".");
+        str.append(location.getMethodName());
+        str.append("(");
+        str.append(location.getParameterString());
         str.append(") : ");
-        str.append(stack.getLineNumber());
+        str.append(location.getLineNumber());
         str.append("]");
 
-        return " " + str;
+        return str.toString();
     }
 
     /**
@@ -209,6 +474,22 @@ public class DefaultLogFormatter extends Formatter
         return "[" + DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss.SSS").format(LocalDateTime.ofInstant(record.getInstant(), ZoneOffset.UTC)) + "]";
     }
 
+    /**
+     * Formats a String with the sequence number of the log entry.
+     * <p>
+     * The default implementation will create a String with following format:
+     * <p>
+     * [#sequenceNumber]
+     *
+     * @param record
+     *
+     * @return
+     */
+    protected String getSequenceNumberString(LogRecord record)
+    {
+        return " [#" + record.getSequenceNumber() + "]";
+    }
+
     /**
      * Translates JDK log levels to unified SLF4j levels.
      *
@@ -252,7 +533,8 @@ public class DefaultLogFormatter extends Formatter
      * <p>
      * [logLevel]
      * <p>
-     * The log level will be padded to 5 characters.
+     * The log level will be padded to 5 characters. The returned Strings are constants, so that their encoding
+     * is cached by {@link #appendPrefix(LogRecord, LogBuffer)}.
      *
      * @param logLevel
      *
@@ -260,19 +542,7 @@ public class DefaultLogFormatter extends Formatter
      */
     protected String getLogLevelString(Level logLevel)
     {
-        String levelStr = unifyLogLevel(logLevel).toString();
-
-        if (levelStr.length() < 5)
-        {
-            int oldLength = levelStr.length();
-
-            for (int i = 0; i < 5 - oldLength; i++)
-            {
-                levelStr += " ";
-            }
-        }
-
-        return " [" + levelStr + "]";
+        return LEVEL_STRINGS[unifyLogLevel(logLevel).ordinal()];
     }
 
     /**
@@ -281,20 +551,93 @@ public class DefaultLogFormatter extends Formatter
      * The default implementation will create a String with following format:
      * <p>
      * [threadName]
+     * <p>
+     * If a subclass still overrides {@link #getThreadNameString()}, its result is returned instead.
+     *
+     * @param record The record that is requested to be logged.
+     *
+     * @return
+     */
+    protected String getThreadNameString(LogRecord record)
+    {
+        if (this.legacyThreadNameString)
+        {
+            return getThreadNameString();
+        }
+
+        String threadName = record instanceof BtLogRecord ? ((BtLogRecord)record).getThreadName() : null;
+
+        if (threadName == null)
+        {
+            threadName = Thread.currentThread().getName();
+        }
+
+        return " [" + threadName + "]";
+    }
+
+    /**
+     * Formats a String containing the name of the current thread.
      *
      * @return
+     *
+     * @deprecated The thread of a record that is formatted on a different thread is not the current one. Override
+     *             {@link #getThreadNameString(LogRecord)} instead.
      */
+    @Deprecated
     protected String getThreadNameString()
     {
         return " [" + Thread.currentThread().getName() + "]";
     }
 
+    /**
+     * Formats a String containing the configured values of the diagnostic context of the given record.
+     * <p>
+     * The default implementation will create a String with following format, omitting keys without a value:
+     * <p>
+     * [key1=value1, key2=value2]
+     *
+     * @param record The record that is requested to be logged.
+     *
+     * @return The formatted values or an empty String if none of the configured keys has a value.
+     */
+    protected String getMdcString(LogRecord record)
+    {
+        MDCContext context = record instanceof BtLogRecord ? ((BtLogRecord)record).getMdcContext() : MDCContext.current();
+
+        if (context == null || context.isEmpty())
+        {
+            return "";
+        }
+
+        var str = new StringBuilder();
+
+        for (String key : this.config.getMdcKeys())
+        {
+            String value = context.get(key);
+
+            if (value != null)
+            {
+                str.append(str.length() == 0 ? " [" : ", ");
+                str.append(key);
+                str.append("=");
+                str.append(value);
+            }
+        }
+
+        if (str.length() > 0)
+        {
+            str.append("]");
+        }
+
+        return str.toString();
+    }
+
     /**
      * Formats the prefix before the actual log message containing all additionally desired information.
      * <p>
      * The default implementation will create a String with the following format:
      * <p>
-     * timestamp logLevel threadName caller
+     * timestamp sequenceNumber logLevel threadName caller mdc
      * <p>
      * Checking the set configuration for each of these values.
      *
@@ -311,6 +654,11 @@ public class DefaultLogFormatter extends Formatter
             prefix += getTimestampString(record);
         }
 
+        if (this.config.isPrintSequenceNumber())
+        {
+            prefix += getSequenceNumberString(record);
+        }
+
         if (this.config.isPrintLogLevel())
         {
             prefix += getLogLevelString(record.getLevel());
@@ -318,21 +666,79 @@ public class DefaultLogFormatter extends Formatter
 
         if (this.config.isPrintThreadName())
         {
-            prefix += getThreadNameString();
+            prefix += getThreadNameString(record);
         }
 
         if (this.config.isPrintCaller())
         {
-            prefix += getCallerString();
+            prefix += getCallerString(record);
+        }
+
+        if (this.config.getMdcKeys().length > 0)
+        {
+            prefix += getMdcString(record);
         }
 
         return prefix;
     }
 
+    /**
+     * Appends the prefix before the actual log message containing all additionally desired information.
+     * <p>
+     * The default implementation appends the same parts as {@link #getPrefix(LogRecord)}, but writes them directly
+     * into the buffer. The encoding of constant parts, like the level, is cached. If a subclass overrides
+     * {@link #getPrefix(LogRecord)}, its result is appended instead.
+     *
+     * @param record The record that is requested to be logged.
+     * @param buffer
+     */
+    protected void appendPrefix(LogRecord record, LogBuffer buffer)
+    {
+        if (!this.directPrefix)
+        {
+            buffer.append(getPrefix(record));
+            return;
+        }
+
+        if (this.config.isPrintTimestamp())
+        {
+            buffer.append(getTimestampString(record));
+        }
+
+        if (this.config.isPrintSequenceNumber())
+        {
+            buffer.appendAscii(" [#");
+            buffer.append(record.getSequenceNumber());
+            buffer.appendAscii(']');
+        }
+
+        if (this.config.isPrintLogLevel())
+        {
+            EncodedLiterals.append(getLogLevelString(record.getLevel()), buffer);
+        }
+
+        if (this.config.isPrintThreadName())
+        {
+            buffer.append(getThreadNameString(record));
+        }
+
+        if (this.config.isPrintCaller())
+        {
+            buffer.append(getCallerString(record));
+        }
+
+        if (this.config.getMdcKeys().length > 0)
+        {
+            buffer.append(getMdcString(record));
+        }
+    }
+
     /**
      * Formates the text of the given throwable.
      * <p>
-     * The default iplementation will return the stacktrace of the throwable as a String.
+     * The default iplementation will return the stacktrace of the throwable as rendered by the
+     * {@link #throwableRenderer}. Log entries write the stacktrace directly via
+     * {@link #appendThrowable(Throwable, LogBuffer, LogBuffer)} instead, unless a subclass overrides this method.
      *
      * @param t
      *
@@ -342,15 +748,124 @@ public class DefaultLogFormatter extends Formatter
      */
     protected String getThrowableText(Throwable t) throws IOException
     {
-        String trace = null;
+        LogBuffer buffer = LogBuffer.acquire();
+
+        try
+        {
+            this.throwableRenderer.render(t, buffer, null);
+            return buffer.toString();
+        }
+        finally
+        {
+            LogBuffer.release(buffer);
+        }
+    }
+
+    /**
+     * Appends the stacktrace of the given throwable, every line preceded by the given prefix.
+     *
+     * @param t
+     * @param buffer
+     * @param linePrefix
+     */
+    protected void appendThrowable(Throwable t, LogBuffer buffer, LogBuffer linePrefix)
+    {
+        this.throwableRenderer.render(t, buffer, linePrefix);
+    }
+
+    /**
+     * Appends the stacktrace of the throwable of the given record, every line preceded by the given prefix.
+     * <p>
+     * If the deduplication of stack traces is enabled, the first occurrence of a stack trace within the configured
+     * window is printed in full together with its short hash. Later occurrences only print the first line of the
+     * throwable and a reference to that hash.
+     * <p>
+     * If a subclass overrides {@link #getThrowableText(Throwable)}, every line of its result is appended instead.
+     *
+     * @param record
+     * @param buffer
+     * @param linePrefix
+     */
+    protected void appendThrown(LogRecord record, LogBuffer buffer, LogBuffer linePrefix)
+    {
+        Throwable t = record.getThrown();
+
+        if (!this.directThrowables)
+        {
+            appendThrowableText(t, buffer, linePrefix);
+            return;
+        }
+
+        if (this.stackTraceDeduplicator == null)
+        {
+            appendThrowable(t, buffer, linePrefix);
+            return;
+        }
+
+        long fingerprint = StackTraceDeduplicator.fingerprint(t);
+        int repetitions = this.stackTraceDeduplicator.register(fingerprint, record.getMillis());
+        String hash = StackTraceDeduplicator.shortHash(fingerprint);
+
+        if (repetitions == 0)
+        {
+            this.throwableRenderer.render(t, buffer, linePrefix, " [stacktrace " + hash + "]");
+        }
+        else
+        {
+            this.throwableRenderer.renderSummary(t, buffer, linePrefix,
+                                                 " [see stacktrace " + hash + ", repetition " + repetitions + "]");
+        }
+    }
+
+    /**
+     * Appends every line of the text returned by {@link #getThrowableText(Throwable)}, each preceded by the given
+     * prefix.
+     *
+     * @param t
+     * @param buffer
+     * @param linePrefix
+     */
+    private void appendThrowableText(Throwable t, LogBuffer buffer, LogBuffer linePrefix)
+    {
+        String text;
 
-        try (StringWriter sw = new StringWriter(); PrintWriter pw = new PrintWriter(sw))
+        try
         {
-            t.printStackTrace(pw);
-            trace = sw.toString();
+            text = getThrowableText(t);
         }
+        catch (IOException e)
+        {
+            Log.error("Failed to log exception", e);
+            return;
+        }
+
+        if (text == null)
+        {
+            return;
+        }
+
+        int start = 0;
+
+        while (start < text.length())
+        {
+            int end = text.indexOf('\n', start);
+            int next = end < 0 ? text.length() : end + 1;
 
-        return trace;
+            if (end < 0)
+            {
+                end = text.length();
+            }
+
+            if (end > start && text.charAt(end - 1) == '\r')
+            {
+                end--;
+            }
+
+            buffer.append(linePrefix);
+            buffer.append(text, start, end);
+            buffer.append(LINE_SEPARATOR);
+            start = next;
+        }
     }
 
     /**
@@ -367,31 +882,350 @@ public class DefaultLogFormatter extends Formatter
         return record.getMessage();
     }
 
+    /**
+     * Appends the message text of the given record to the given buffer.
+     * <p>
+     * Messages of {@link BtLogRecord}s that are rendered from a format are written directly into the buffer, unless
+     * a subclass overrides {@link #getMessageText(LogRecord)}. All other messages are taken from
+     * {@link #getMessageText(LogRecord)}. Messages that exceed the configured maximum message size are truncated.
+     *
+     * @param record
+     * @param buffer
+     */
+    protected void appendMessageText(LogRecord record, LogBuffer buffer)
+    {
+        if (isDirectMessage(record))
+        {
+            int start = buffer.length();
+            ((BtLogRecord)record).appendMessage(buffer);
+            truncateMessage(buffer, start);
+        }
+        else
+        {
+            appendMessageText(getMessageText(record), buffer);
+        }
+    }
+
+    /**
+     * Appends the given message text, truncated to the configured maximum message size.
+     * <p>
+     * Texts that could exceed the maximum size are encoded chunk by chunk, so that the part beyond the limit is
+     * never encoded and the buffer only grows up to roughly the limit.
+     *
+     * @param text
+     * @param buffer
+     */
+    protected void appendMessageText(CharSequence text, LogBuffer buffer)
+    {
+        int maxSize = this.config.getMaxMessageSize();
+
+        // a char is encoded into at most 3 bytes, surrogate pairs into 4
+        if (text == null || text.length() * 3L <= maxSize)
+        {
+            if (text instanceof String)
+            {
+                // constant messages are appended from their cached encoding
+                EncodedLiterals.append((String)text, buffer);
+            }
+            else
+            {
+                buffer.append(text);
+            }
+
+            return;
+        }
+
+        int start = buffer.length();
+        int length = text.length();
+        int i = 0;
+
+        while (i < length && buffer.length() - start <= maxSize)
+        {
+            int end = Math.min(length, i + MESSAGE_CHUNK_SIZE);
+
+            if (end < length && Character.isHighSurrogate(text.charAt(end - 1)))
+            {
+                end--;
+            }
+
+            buffer.append(text, i, end);
+            i = end;
+        }
+
+        truncateMessage(buffer, start);
+    }
+
+    /**
+     * Cuts off the message that starts at the given position if it exceeds the configured maximum message size and
+     * appends the {@link #TRUNCATION_MARKER}.
+     *
+     * @param buffer
+     * @param start
+     */
+    protected void truncateMessage(LogBuffer buffer, int start)
+    {
+        int maxSize = this.config.getMaxMessageSize();
+
+        if (buffer.length() - start <= maxSize)
+        {
+            return;
+        }
+
+        byte[] bytes = buffer.array();
+        int end = start + maxSize;
+
+        // never cut through the encoding of a character
+        while (end > start && (bytes[end] & 0xC0) == 0x80)
+        {
+            end--;
+        }
+
+        buffer.setLength(end);
+        buffer.appendAscii(TRUNCATION_MARKER);
+    }
+
+    /**
+     * Appends the structured key value pairs of the given record, if it has any.
+     * <p>
+     * The default implementation will append them after the message with the following format:
+     * <p>
+     * [key1=value1, key2=value2]
+     *
+     * @param record
+     * @param buffer
+     */
+    protected void appendKeyValuePairs(LogRecord record, LogBuffer buffer)
+    {
+        if (!(record instanceof BtLogRecord))
+        {
+            return;
+        }
+
+        List<KeyValuePair> pairs = ((BtLogRecord)record).getKeyValuePairs();
+
+        for (int i = 0; i < pairs.size(); i++)
+        {
+            KeyValuePair pair = pairs.get(i);
+
+            buffer.appendAscii(i == 0 ? " [" : ", ");
+            buffer.append(pair.key);
+            buffer.appendAscii('=');
+            appendValue(pair.value, buffer);
+        }
+
+        if (!pairs.isEmpty())
+        {
+            buffer.appendAscii(']');
+        }
+    }
+
+    /**
+     * Appends the given value of a key value pair.
+     * <p>
+     * Numbers and booleans are written directly into the buffer, all other values via the {@link ObjectRenderers}.
+     *
+     * @param value
+     * @param buffer
+     */
+    protected void appendValue(Object value, LogBuffer buffer)
+    {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            buffer.append(((Number)value).longValue());
+        }
+        else if (value instanceof Double || value instanceof Float)
+        {
+            buffer.append(((Number)value).doubleValue());
+        }
+        else if (value instanceof Boolean)
+        {
+            buffer.append(((Boolean)value).booleanValue());
+        }
+        else if (value instanceof CharSequence)
+        {
+            buffer.append((CharSequence)value);
+        }
+        else
+        {
+            ObjectRenderers.render(value, buffer);
+        }
+    }
+
     @Override
     public String format(LogRecord record)
     {
-        String prefix = getPrefix(record);
-        String text = getMessageText(record) + System.lineSeparator();
+        LogBuffer buffer = LogBuffer.acquire();
+
+        try
+        {
+            format(record, buffer);
+            return buffer.toString();
+        }
+        finally
+        {
+            LogBuffer.release(buffer);
+        }
+    }
+
+    /**
+     * Appends the encoded entry of the given record.
+     * <p>
+     * If other formatters share the key of this formatter, the entry of a {@link BtLogRecord} is formatted only once
+     * and kept in the record, so that the other formatters just copy it when the record is published to their
+     * handlers as well.
+     *
+     * @param record
+     * @param buffer
+     */
+    @Override
+    public void format(LogRecord record, LogBuffer buffer)
+    {
+        if (!(record instanceof BtLogRecord) || !(this.formatKey instanceof FormatKey)
+                || !((FormatKey)this.formatKey).isShared())
+        {
+            formatEntry(record, buffer);
+            return;
+        }
+
+        var btRecord = (BtLogRecord)record;
+
+        if (!btRecord.appendFormatted(this.formatKey, buffer))
+        {
+            int start = buffer.length();
+            formatEntry(record, buffer);
+            btRecord.setFormatted(this.formatKey, buffer, start);
+        }
+    }
+
+    /**
+     * Appends the encoded entry of the given record without using the output of equivalent formatters.
+     *
+     * @param record
+     * @param buffer
+     */
+    protected void formatEntry(LogRecord record, LogBuffer buffer)
+    {
+        int lineStart = buffer.length();
+
+        appendPrefix(record, buffer);
+        buffer.appendAscii(' ');
+
+        int messageStart = buffer.length();
+        appendMessageText(record, buffer);
+        appendKeyValuePairs(record, buffer);
+
+        terminateLines(buffer, lineStart, messageStart);
 
         if (record.getThrown() != null)
         {
+            LogBuffer linePrefix = LogBuffer.acquire();
+
             try
             {
-                text += getThrowableText(record.getThrown());
+                linePrefix.append(buffer.array(), lineStart, messageStart - lineStart);
+                appendThrown(record, buffer, linePrefix);
+            }
+            finally
+            {
+                LogBuffer.release(linePrefix);
+            }
+        }
+    }
+
+    private static String[] createLevelStrings()
+    {
+        org.slf4j.event.Level[] levels = org.slf4j.event.Level.values();
+        var strings = new String[levels.length];
+
+        for (org.slf4j.event.Level level : levels)
+        {
+            var str = new StringBuilder(" [");
+            str.append(level.toString());
+
+            while (str.length() < 7)
+            {
+                str.append(' ');
+            }
+
+            strings[level.ordinal()] = str.append(']').toString();
+        }
+
+        return strings;
+    }
+
+    /**
+     * Terminates the message that was appended after the prefix between the given positions.
+     * <p>
+     * Line breaks within the message are replaced by the line separator followed by a copy of the prefix, so that
+     * every line of the message gets its own prefix. The lines are moved within the buffer, starting with the last
+     * one, so that even huge messages are never copied into a separate buffer or String.
+     */
+    private static void terminateLines(LogBuffer buffer, int lineStart, int messageStart)
+    {
+        byte[] bytes = buffer.array();
+        int end = buffer.length();
+        int prefixLength = messageStart - lineStart;
+
+        // a trailing line break ends the last line instead of starting a new one
+        int messageEnd = end;
+
+        if (messageEnd > messageStart && bytes[messageEnd - 1] == '\n')
+        {
+            messageEnd--;
+
+            if (messageEnd > messageStart && bytes[messageEnd - 1] == '\r')
+            {
+                messageEnd--;
             }
-            catch (IOException e)
+        }
+
+        int growth = LINE_SEPARATOR.length;
+
+        for (int i = messageStart; i < messageEnd; i++)
+        {
+            if (bytes[i] == '\n')
             {
-                Log.error("Failed to log exception", e);
+                growth += LINE_SEPARATOR.length + prefixLength - (i > messageStart && bytes[i - 1] == '\r' ? 2 : 1);
             }
         }
 
-        String finalText = "";
+        if (growth == LINE_SEPARATOR.length && messageEnd == end)
+        {
+            // the common case of a single line message
+            buffer.append(LINE_SEPARATOR);
+            return;
+        }
 
-        for (String line : text.split(System.lineSeparator() + "|\n"))
+        int newLength = messageEnd + growth;
+        buffer.ensureCapacity(newLength - end);
+        bytes = buffer.array();
+
+        int write = newLength - LINE_SEPARATOR.length;
+        System.arraycopy(LINE_SEPARATOR, 0, bytes, write, LINE_SEPARATOR.length);
+
+        int lineEnd = messageEnd;
+
+        for (int i = messageEnd - 1; i >= messageStart; i--)
         {
-            finalText += prefix + " " + line + System.lineSeparator();
+            if (bytes[i] == '\n')
+            {
+                int lineLength = lineEnd - (i + 1);
+                write -= lineLength;
+                System.arraycopy(bytes, i + 1, bytes, write, lineLength);
+                write -= prefixLength;
+                System.arraycopy(bytes, lineStart, bytes, write, prefixLength);
+                write -= LINE_SEPARATOR.length;
+                System.arraycopy(LINE_SEPARATOR, 0, bytes, write, LINE_SEPARATOR.length);
+
+                if (i > messageStart && bytes[i - 1] == '\r')
+                {
+                    i--;
+                }
+
+                lineEnd = i;
+            }
         }
 
-        return finalText;
+        buffer.setLength(newLength);
     }
 }
@@ -0,0 +1,42 @@
+package bt.log;
+
+/**
+ * The reasons for which an {@link AsyncLoggerHandler} can drop log entries.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public enum DropReason
+{
+    /**
+     * A new entry was dropped because the queue was full.
+     */
+    QUEUE_FULL("queue full"),
+
+    /**
+     * A queued entry was dropped to make space for a newer one.
+     */
+    OLDEST_EVICTED("oldest evicted"),
+
+    /**
+     * A new entry below the drop level was dropped because the queue was full.
+     */
+    BELOW_LEVEL("below level"),
+
+    /**
+     * A new entry was dropped because no space became available within the block timeout.
+     */
+    BLOCK_TIMEOUT("block timeout");
+
+    private final String description;
+
+    DropReason(String description)
+    {
+        this.description = description;
+    }
+
+    public String getDescription()
+    {
+        return this.description;
+    }
+}
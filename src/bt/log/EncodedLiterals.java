@@ -0,0 +1,86 @@
+package bt.log;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A cache of the UTF-8 encoding of Strings that are logged over and over again, like constant log messages and
+ * prefixes, so that they are appended with a single array copy.
+ * <p>
+ * Strings are cached by identity in a fixed number of slots, since String literals are always the same instance.
+ * A String is only encoded once it is seen for the second time in its slot, so that messages which are built
+ * dynamically for every call neither allocate nor evict anything. Only short Strings are cached.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+final class EncodedLiterals
+{
+    /**
+     * The number of slots of the cache, a power of 2.
+     */
+    static final int CACHE_SIZE = 4096;
+
+    /**
+     * The maximum length of cached Strings, which keeps the memory of the cache bounded.
+     */
+    static final int MAX_LENGTH = 256;
+
+    /**
+     * The last String that was seen in each slot without being cached yet.
+     */
+    private static final String[] SEEN = new String[CACHE_SIZE];
+
+    private static final Encoded[] ENCODED = new Encoded[CACHE_SIZE];
+
+    private EncodedLiterals()
+    {
+    }
+
+    /**
+     * Appends the UTF-8 encoding of the given text, using the cached encoding if there is one.
+     *
+     * @param text
+     * @param buffer
+     */
+    static void append(String text, LogBuffer buffer)
+    {
+        if (text == null || text.length() > MAX_LENGTH)
+        {
+            buffer.append(text);
+            return;
+        }
+
+        int slot = System.identityHashCode(text) & (CACHE_SIZE - 1);
+        Encoded encoded = ENCODED[slot];
+
+        if (encoded != null && encoded.text == text)
+        {
+            buffer.append(encoded.bytes);
+        }
+        else if (SEEN[slot] == text)
+        {
+            // the pair is published as a single immutable object, so that readers never see the bytes of a
+            // different text
+            encoded = new Encoded(text);
+            ENCODED[slot] = encoded;
+            buffer.append(encoded.bytes);
+        }
+        else
+        {
+            SEEN[slot] = text;
+            buffer.append(text);
+        }
+    }
+
+    private static final class Encoded
+    {
+        private final String text;
+        private final byte[] bytes;
+
+        private Encoded(String text)
+        {
+            this.text = text;
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package bt.log;
+
+import java.util.logging.LogRecord;
+
+/**
+ * A formatter that writes the encoded text of log entries directly into a {@link LogBuffer}, instead of creating
+ * a String for every entry.
+ * <p>
+ * Handlers of this framework check whether their formatter implements this interface and use it to avoid the
+ * intermediate String and its encoding.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public interface EncodingFormatter
+{
+    /**
+     * Appends the encoded text of the given record to the given buffer.
+     *
+     * @param record
+     * @param buffer
+     */
+    void format(LogRecord record, LogBuffer buffer);
+
+    /**
+     * Gets a key which is equal for all formatters that produce the same output for the same record, so that a
+     * record which is published to several handlers only has to be formatted once.
+     * <p>
+     * The default implementation returns this formatter itself.
+     *
+     * @return
+     */
+    default Object getFormatKey()
+    {
+        return this;
+    }
+}
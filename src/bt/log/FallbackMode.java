@@ -0,0 +1,26 @@
+package bt.log;
+
+/**
+ * Defines where a {@link CircuitBreakerHandler} routes log entries while its target handler is too slow.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public enum FallbackMode
+{
+    /**
+     * Entries are dropped and counted.
+     */
+    DROP,
+
+    /**
+     * The most recent entries are kept in memory and published to the target handler once it recovered. Older
+     * entries are dropped and counted once the ring is full.
+     */
+    MEMORY_RING,
+
+    /**
+     * Entries are published to an alternate handler, for example a file on a local disk.
+     */
+    ALTERNATE
+}
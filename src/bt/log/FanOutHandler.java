@@ -0,0 +1,338 @@
+package bt.log;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A handler that publishes log entries to several target handlers in parallel, each of them on its own thread.
+ * <p>
+ * A {@link java.util.logging.Logger} calls its handlers one after another on the logging thread, so that a slow
+ * handler delays all others. This handler instead writes every entry once into a ring buffer that is shared by all
+ * targets, and every target has its own consumer thread which reads the ring buffer at its own pace.
+ * <p>
+ * Logging threads never wait for the consumers. If a consumer falls behind by more than the capacity of the ring
+ * buffer, the oldest entries are overwritten before it could read them. The consumer then continues with the
+ * oldest entry that is still available, counts the skipped entries and publishes a summary of them to its target,
+ * so that a stalled target only loses entries itself without holding back the others.
+ * <p>
+ * All information that depends on the logging thread, like the thread name and the caller, is captured
+ * before an entry is written to the ring buffer.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class FanOutHandler extends Handler
+{
+    /**
+     * The default number of entries of the ring buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final AtomicReferenceArray<BtLogRecord> ring;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Consumer[] consumers;
+
+    /**
+     * The number of entries that have been written to the ring buffer, which is also the sequence of the next one.
+     */
+    private volatile long published;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance with a ring buffer of {@value #DEFAULT_CAPACITY} entries and starts a consumer thread
+     * for each of the given handlers.
+     *
+     * @param firstHandler The first target handler.
+     * @param handlers     Additional target handlers.
+     */
+    public FanOutHandler(Handler firstHandler, Handler... handlers)
+    {
+        this(DEFAULT_CAPACITY, firstHandler, handlers);
+    }
+
+    /**
+     * Creates a new instance and starts a consumer thread for each of the given handlers.
+     *
+     * @param capacity     The number of entries of the ring buffer, rounded up to a power of 2.
+     * @param firstHandler The first target handler.
+     * @param handlers     Additional target handlers.
+     */
+    public FanOutHandler(int capacity, Handler firstHandler, Handler... handlers)
+    {
+        super();
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.consumers = new Consumer[handlers.length + 1];
+        this.consumers[0] = new Consumer(firstHandler, 0);
+
+        for (int i = 0; i < handlers.length; i++)
+        {
+            this.consumers[i + 1] = new Consumer(handlers[i], i + 1);
+        }
+
+        setLevel(Level.ALL);
+
+        for (Consumer consumer : this.consumers)
+        {
+            consumer.thread.start();
+        }
+    }
+
+    /**
+     * Gets the number of entries that were skipped by the consumer of the given target handler since it fell
+     * behind.
+     *
+     * @param handler
+     *
+     * @return The number of skipped entries, 0 if the given handler is not a target of this handler.
+     */
+    public long getSkippedCount(Handler handler)
+    {
+        for (Consumer consumer : this.consumers)
+        {
+            if (consumer.target == handler)
+            {
+                return consumer.skipped;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Gets the total number of entries that were skipped by all consumers.
+     *
+     * @return
+     */
+    public long getSkippedCount()
+    {
+        long sum = 0;
+
+        for (Consumer consumer : this.consumers)
+        {
+            sum += consumer.skipped;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (this.closed || !isLoggable(record) || !isLoggableByAnyTarget(record))
+        {
+            return;
+        }
+
+        BtLogRecord event = BtLogRecord.of(record);
+        event.freeze();
+
+        for (Consumer consumer : this.consumers)
+        {
+            if (consumer.target.getFormatter() instanceof DefaultLogFormatter)
+            {
+                ((DefaultLogFormatter)consumer.target.getFormatter()).captureContext(event);
+            }
+        }
+
+        this.lock.lock();
+
+        try
+        {
+            long sequence = this.published;
+            this.ring.set((int)(sequence & this.mask), event);
+            this.published = sequence + 1;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        for (Consumer consumer : this.consumers)
+        {
+            // the sequence is always increased before this flag is read, and a consumer sets the flag before it
+            // checks the sequence, so that it can't miss an entry
+            if (consumer.parked)
+            {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    private boolean isLoggableByAnyTarget(LogRecord record)
+    {
+        for (Consumer consumer : this.consumers)
+        {
+            if (consumer.target.isLoggable(record))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Waits until all consumers have published the entries that were written before this call and then flushes
+     * the target handlers.
+     */
+    @Override
+    public void flush()
+    {
+        long sequence = this.published;
+
+        for (Consumer consumer : this.consumers)
+        {
+            if (Thread.currentThread() != consumer.thread)
+            {
+                while (consumer.cursor < sequence && consumer.thread.isAlive())
+                {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+
+            consumer.target.flush();
+        }
+    }
+
+    /**
+     * Stops accepting new entries, waits until all consumers have published the remaining entries and closes the
+     * target handlers.
+     */
+    @Override
+    public void close() throws SecurityException
+    {
+        if (this.closed)
+        {
+            return;
+        }
+
+        this.closed = true;
+
+        for (Consumer consumer : this.consumers)
+        {
+            LockSupport.unpark(consumer.thread);
+        }
+
+        for (Consumer consumer : this.consumers)
+        {
+            if (Thread.currentThread() != consumer.thread)
+            {
+                try
+                {
+                    consumer.thread.join();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            consumer.target.close();
+        }
+    }
+
+    /**
+     * The reader of a single target handler.
+     */
+    private final class Consumer
+    {
+        private final Handler target;
+        private final Thread thread;
+
+        /**
+         * The sequence of the next entry that this consumer publishes.
+         */
+        private volatile long cursor;
+        private volatile long skipped;
+        private volatile boolean parked;
+
+        private Consumer(Handler target, int index)
+        {
+            this.target = target;
+            this.thread = new Thread(this::consume, "BtLogging-fanout-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void consume()
+        {
+            while (true)
+            {
+                long sequence = this.cursor;
+
+                if (sequence == FanOutHandler.this.published)
+                {
+                    if (FanOutHandler.this.closed)
+                    {
+                        break;
+                    }
+
+                    this.parked = true;
+
+                    if (sequence == FanOutHandler.this.published && !FanOutHandler.this.closed)
+                    {
+                        LockSupport.park(this);
+                    }
+
+                    this.parked = false;
+                    continue;
+                }
+
+                BtLogRecord event = FanOutHandler.this.ring.get((int)(sequence & FanOutHandler.this.mask));
+
+                // the slot of the read entry is overwritten by the entry of the next lap, which can already be in
+                // progress once the previous entry was published, so the read entry is only valid before that
+                long oldest = FanOutHandler.this.published - FanOutHandler.this.ring.length() + 1;
+
+                if (sequence < oldest)
+                {
+                    skipTo(oldest);
+                    continue;
+                }
+
+                this.cursor = sequence + 1;
+                publishToTarget(event);
+            }
+        }
+
+        /**
+         * Continues with the oldest entry that is still available and publishes a summary of the skipped entries.
+         *
+         * @param oldest
+         */
+        private void skipTo(long oldest)
+        {
+            // one more entry is skipped than necessary, which leaves room to read it before it is overwritten again
+            long next = oldest + 1;
+            long count = next - this.cursor;
+            this.skipped += count;
+            this.cursor = next;
+
+            var summary = new BtLogRecord(Level.WARNING, "Skipped " + count + " log entries because the handler "
+                    + this.target.getClass().getName() + " fell behind");
+            summary.setLoggerName(FanOutHandler.class.getName());
+            summary.setCallerLocation(new CallerLocation(FanOutHandler.class.getName(), "skipTo", "(J)V", -1));
+            publishToTarget(summary);
+        }
+
+        private void publishToTarget(BtLogRecord event)
+        {
+            try
+            {
+                this.target.publish(event);
+            }
+            catch (RuntimeException e)
+            {
+                reportError("Failed to publish log entry", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+}
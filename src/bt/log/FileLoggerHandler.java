@@ -1,11 +1,25 @@
 package bt.log;
 
 import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.FileHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 
 /**
+ * A {@link FileHandler} with a {@link DefaultLogFormatter}.
+ * <p>
+ * {@link FileHandler#publish(LogRecord)} writes while holding the monitor of the handler, which pins the carrier of
+ * a virtual thread for the whole write. Entries of virtual threads are therefore handed to a platform thread via a
+ * lock free queue, which is started on the first such entry and writes them to the file in order. Entries of
+ * platform threads are still written right away.
+ *
  * @author Lukas Hartwig
  * @since 15.12.2021
  */
@@ -13,6 +27,30 @@ public class FileLoggerHandler extends FileHandler
 {
     public static final String DEFAULT_FILE_PATTERN = "./logs/default_logfile%u.log";
 
+    /**
+     * The entries of virtual threads which were not written yet.
+     */
+    private final Queue<LogRecord> handoff = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of entries that were added to the handoff queue.
+     */
+    private final AtomicLong handedOff = new AtomicLong();
+
+    /**
+     * The number of handed off entries up to which a flush was requested.
+     */
+    private final AtomicLong flushRequested = new AtomicLong();
+
+    /**
+     * The number of handed off entries that the writer has written and flushed.
+     */
+    private volatile long flushed;
+
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private volatile Thread writer;
+    private volatile boolean closed;
+
     public FileLoggerHandler() throws IOException, SecurityException
     {
         super(DEFAULT_FILE_PATTERN);
@@ -138,4 +176,144 @@ public class FileLoggerHandler extends FileHandler
         setFormatter(formatter);
         setLevel(Level.ALL);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (!VirtualThreads.isCurrentVirtual() || Thread.currentThread() == this.writer)
+        {
+            super.publish(record);
+            return;
+        }
+
+        if (this.closed || !isLoggable(record))
+        {
+            return;
+        }
+
+        // the record is written later, so the message and the context of the logging thread are captured now
+        BtLogRecord event = BtLogRecord.of(record);
+        event.freeze();
+
+        if (getFormatter() instanceof DefaultLogFormatter)
+        {
+            ((DefaultLogFormatter)getFormatter()).captureContext(event);
+        }
+
+        this.handoff.add(event);
+        this.handedOff.incrementAndGet();
+        LockSupport.unpark(startWriter());
+    }
+
+    private Thread startWriter()
+    {
+        Thread thread = this.writer;
+
+        if (thread == null)
+        {
+            this.writerLock.lock();
+
+            try
+            {
+                thread = this.writer;
+
+                if (thread == null)
+                {
+                    thread = new Thread(this::write, "BtLogging-file");
+                    thread.setDaemon(true);
+                    this.writer = thread;
+                    thread.start();
+                }
+            }
+            finally
+            {
+                this.writerLock.unlock();
+            }
+        }
+
+        return thread;
+    }
+
+    private void write()
+    {
+        long written = 0;
+
+        while (true)
+        {
+            LogRecord record = this.handoff.poll();
+
+            if (record != null)
+            {
+                super.publish(record);
+                written++;
+
+                // a requested flush doesn't wait until the queue is empty, which might never happen under load
+                long requested = this.flushRequested.get();
+
+                if (written >= requested && this.flushed < requested)
+                {
+                    super.flush();
+                    this.flushed = written;
+                }
+            }
+            else if (this.closed)
+            {
+                break;
+            }
+            else
+            {
+                super.flush();
+                this.flushed = written;
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        Thread thread = this.writer;
+
+        if (VirtualThreads.isCurrentVirtual() && thread != null)
+        {
+            // the entries are counted once they were added, so all entries up to this count are in the queue
+            long target = this.handedOff.get();
+            this.flushRequested.accumulateAndGet(target, Math::max);
+            LockSupport.unpark(thread);
+
+            // parking only unmounts the virtual thread, so waiting for the writer doesn't pin its carrier
+            while (this.flushed < target && thread.isAlive())
+            {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+
+            return;
+        }
+
+        super.flush();
+    }
+
+    @Override
+    public void close() throws SecurityException
+    {
+        this.closed = true;
+        DefaultLogFormatter.release(getFormatter());
+        Thread thread = this.writer;
+
+        if (thread != null && thread != Thread.currentThread())
+        {
+            LockSupport.unpark(thread);
+
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        super.close();
+    }
+}
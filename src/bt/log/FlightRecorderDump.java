@@ -0,0 +1,60 @@
+package bt.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A command line tool that restores the entries of a {@link FlightRecorderHandler} file as text, for example
+ * after the recording process crashed.
+ * <p>
+ * Usage: {@code java -cp BtLogging.jar bt.log.FlightRecorderDump <recording file> [output file]}
+ * <p>
+ * If no output file is given, the entries are written to System.out.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class FlightRecorderDump
+{
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: java bt.log.FlightRecorderDump <recording file> [output file]");
+            System.exit(1);
+        }
+
+        if (args.length > 1)
+        {
+            try (OutputStream out = Files.newOutputStream(Paths.get(args[1])))
+            {
+                dump(Paths.get(args[0]), out);
+            }
+        }
+        else
+        {
+            dump(Paths.get(args[0]), System.out);
+            System.out.flush();
+        }
+    }
+
+    /**
+     * Writes the text of all intact entries of the given recording file, from oldest to newest, to the given
+     * stream.
+     *
+     * @param recording
+     * @param out
+     *
+     * @return The number of restored entries.
+     *
+     * @throws IOException
+     */
+    public static int dump(Path recording, OutputStream out) throws IOException
+    {
+        return FlightRecorderHandler.writeEntries(ByteBuffer.wrap(Files.readAllBytes(recording)), out);
+    }
+}
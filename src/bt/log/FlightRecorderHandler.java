@@ -0,0 +1,413 @@
+package bt.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.zip.CRC32;
+
+/**
+ * A "black box" handler that writes every log entry into a circular, memory mapped file.
+ * <p>
+ * The file always holds the most recent entries that fit into it, regardless of their level. Since the file is
+ * memory mapped, its content is kept by the operating system even if the JVM dies, and it can be restored
+ * afterwards with {@link FlightRecorderDump}. While the JVM is running, the content can be written as text via
+ * {@link #dump(OutputStream)}. All open recorders are dumped automatically when the uncaught exception handler
+ * installed by {@link Log} is called.
+ * <p>
+ * To receive entries of all levels, the logger that this handler is attached to needs to have the level ALL.
+ * <p>
+ * Every entry is stored as a frame consisting of a marker, the payload length, the CRC32 of the payload and
+ * the formatted text of the entry. Formatters that implement {@link EncodingFormatter} write the text directly
+ * into a reused buffer. The checksum allows to find the oldest intact frame after the file has
+ * wrapped around, and to skip frames that were only partially written.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class FlightRecorderHandler extends Handler
+{
+    public static final String DEFAULT_FILE = "./logs/flight_recorder.dat";
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    static final int FILE_MAGIC = 0x42544652;
+    static final int FILE_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int CAPACITY_OFFSET = 8;
+    static final int WRITE_POSITION_OFFSET = 12;
+    static final short FRAME_MARKER = (short)0xB7F1;
+    static final int FRAME_HEADER_SIZE = Short.BYTES + Integer.BYTES * 2;
+
+    /**
+     * All recorders which have not been closed yet.
+     */
+    private static final List<FlightRecorderHandler> OPEN_RECORDERS = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int writePosition;
+    private boolean closed;
+
+    /**
+     * Creates a new instance which uses {@link #DEFAULT_FILE} with {@link #DEFAULT_CAPACITY}.
+     *
+     * @throws IOException
+     */
+    public FlightRecorderHandler() throws IOException
+    {
+        this(DEFAULT_FILE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance with the given file and capacity.
+     * A {@link DefaultLogFormatter} will be created with a default configuration.
+     *
+     * @param file
+     * @param capacity The size of the file in bytes.
+     *
+     * @throws IOException
+     */
+    public FlightRecorderHandler(String file, int capacity) throws IOException
+    {
+        this(new DefaultLogFormatter(new LoggerConfiguration()), file, capacity);
+    }
+
+    /**
+     * Creates a new instance with the given configuration, file and capacity.
+     * A {@link DefaultLogFormatter} will be created with the given configuration.
+     *
+     * @param config
+     * @param file
+     * @param capacity The size of the file in bytes.
+     *
+     * @throws IOException
+     */
+    public FlightRecorderHandler(LoggerConfiguration config, String file, int capacity) throws IOException
+    {
+        this(new DefaultLogFormatter(config), file, capacity);
+        setLevel(config.getLevel());
+    }
+
+    /**
+     * Creates a new instance with the given formatter, file and capacity.
+     * <p>
+     * If the file already exists with the same capacity, for example after a crash, its content is kept and new
+     * entries are appended after the most recent ones. Otherwise the file is created or reinitialized.
+     *
+     * @param formatter
+     * @param file
+     * @param capacity  The size of the file in bytes.
+     *
+     * @throws IOException
+     */
+    public FlightRecorderHandler(Formatter formatter, String file, int capacity) throws IOException
+    {
+        super();
+        setFormatter(formatter);
+        setLevel(Level.ALL);
+
+        this.path = Paths.get(file);
+        this.capacity = capacity;
+
+        if (this.path.getParent() != null)
+        {
+            Files.createDirectories(this.path.getParent());
+        }
+
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        if (this.buffer.getInt(0) == FILE_MAGIC
+                && this.buffer.getInt(4) == FILE_VERSION
+                && this.buffer.getInt(CAPACITY_OFFSET) == capacity)
+        {
+            this.writePosition = this.buffer.getInt(WRITE_POSITION_OFFSET);
+        }
+        else
+        {
+            this.writePosition = HEADER_SIZE;
+            this.buffer.putInt(0, FILE_MAGIC);
+            this.buffer.putInt(4, FILE_VERSION);
+            this.buffer.putInt(CAPACITY_OFFSET, capacity);
+            this.buffer.putInt(WRITE_POSITION_OFFSET, this.writePosition);
+        }
+
+        OPEN_RECORDERS.add(this);
+    }
+
+    /**
+     * Dumps the content of all open recorders into a text file next to their recording file.
+     * <p>
+     * The text file has the name of the recording file with the additional extension ".txt".
+     */
+    public static void dumpAll()
+    {
+        for (FlightRecorderHandler recorder : OPEN_RECORDERS)
+        {
+            Path target = recorder.path.resolveSibling(recorder.path.getFileName() + ".txt");
+
+            try (OutputStream out = Files.newOutputStream(target))
+            {
+                recorder.dump(out);
+            }
+            catch (IOException e)
+            {
+                recorder.reportError("Failed to dump flight recorder", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Gets the path of the recording file.
+     *
+     * @return
+     */
+    public Path getPath()
+    {
+        return this.path;
+    }
+
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (!isLoggable(record))
+        {
+            return;
+        }
+
+        LogBuffer payload = LogBuffer.acquire();
+
+        try
+        {
+            if (getFormatter() instanceof EncodingFormatter)
+            {
+                ((EncodingFormatter)getFormatter()).format(record, payload);
+            }
+            else
+            {
+                payload.append(getFormatter().format(record));
+            }
+        }
+        catch (RuntimeException e)
+        {
+            reportError("Failed to format log entry", e, ErrorManager.FORMAT_FAILURE);
+            LogBuffer.release(payload);
+            return;
+        }
+
+        try
+        {
+            write(payload);
+        }
+        finally
+        {
+            LogBuffer.release(payload);
+        }
+    }
+
+    private void write(LogBuffer payload)
+    {
+        int frameSize = FRAME_HEADER_SIZE + payload.length();
+
+        if (frameSize > this.capacity - HEADER_SIZE)
+        {
+            reportError("Log entry is larger than the flight recorder", null, ErrorManager.WRITE_FAILURE);
+            return;
+        }
+
+        this.lock.lock();
+
+        try
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            if (this.writePosition + frameSize > this.capacity)
+            {
+                // clear the tail, so that the remains of older frames there can't be mistaken for entries
+                for (int i = this.writePosition; i < this.capacity; i++)
+                {
+                    this.buffer.put(i, (byte)0);
+                }
+
+                this.writePosition = HEADER_SIZE;
+            }
+
+            this.crc.reset();
+            this.crc.update(payload.array(), 0, payload.length());
+
+            this.buffer.position(this.writePosition + FRAME_HEADER_SIZE);
+            this.buffer.put(payload.array(), 0, payload.length());
+            this.buffer.putShort(this.writePosition, FRAME_MARKER);
+            this.buffer.putInt(this.writePosition + Short.BYTES, payload.length());
+            this.buffer.putInt(this.writePosition + Short.BYTES + Integer.BYTES, (int)this.crc.getValue());
+
+            this.writePosition += frameSize;
+            this.buffer.putInt(WRITE_POSITION_OFFSET, this.writePosition);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the text of all recorded entries, from oldest to newest, to the given stream.
+     *
+     * @param out
+     *
+     * @throws IOException
+     */
+    public void dump(OutputStream out) throws IOException
+    {
+        ByteBuffer snapshot;
+
+        this.lock.lock();
+
+        try
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            snapshot = ByteBuffer.allocate(this.capacity);
+            snapshot.put(this.buffer.duplicate().position(0));
+            snapshot.flip();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        writeEntries(snapshot, out);
+    }
+
+    /**
+     * Writes the text of all intact entries in the given recording, from oldest to newest, to the given stream.
+     *
+     * @param recording The complete content of a recording file.
+     * @param out
+     *
+     * @return The number of written entries.
+     *
+     * @throws IOException If the recording has no valid header or the stream could not be written.
+     */
+    static int writeEntries(ByteBuffer recording, OutputStream out) throws IOException
+    {
+        if (recording.limit() < HEADER_SIZE || recording.getInt(0) != FILE_MAGIC)
+        {
+            throw new IOException("Not a flight recorder file");
+        }
+
+        int capacity = Math.min(recording.getInt(CAPACITY_OFFSET), recording.limit());
+        int writePosition = recording.getInt(WRITE_POSITION_OFFSET);
+
+        if (writePosition < HEADER_SIZE || writePosition > capacity)
+        {
+            writePosition = HEADER_SIZE;
+        }
+
+        // the oldest entries are located after the write position, the newest ones before it
+        int count = writeEntries(recording, writePosition, capacity, out);
+        count += writeEntries(recording, HEADER_SIZE, writePosition, out);
+
+        return count;
+    }
+
+    private static int writeEntries(ByteBuffer recording, int start, int end, OutputStream out) throws IOException
+    {
+        var crc = new CRC32();
+        int count = 0;
+        int position = start;
+
+        while (position + FRAME_HEADER_SIZE <= end)
+        {
+            int length = recording.getInt(position + Short.BYTES);
+
+            if (recording.getShort(position) == FRAME_MARKER && length >= 0 && position + FRAME_HEADER_SIZE + length <= end)
+            {
+                crc.reset();
+                crc.update(recording.duplicate().position(position + FRAME_HEADER_SIZE).limit(position + FRAME_HEADER_SIZE + length));
+
+                if ((int)crc.getValue() == recording.getInt(position + Short.BYTES + Integer.BYTES))
+                {
+                    out.write(recording.array(), recording.arrayOffset() + position + FRAME_HEADER_SIZE, length);
+                    position += FRAME_HEADER_SIZE + length;
+                    count++;
+                    continue;
+                }
+            }
+
+            // not an intact frame, resynchronize on the next byte
+            position++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void flush()
+    {
+        this.lock.lock();
+
+        try
+        {
+            if (!this.closed)
+            {
+                this.buffer.force();
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws SecurityException
+    {
+        this.lock.lock();
+
+        try
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            DefaultLogFormatter.release(getFormatter());
+            this.buffer.force();
+            this.closed = true;
+            OPEN_RECORDERS.remove(this);
+            this.channel.close();
+        }
+        catch (IOException e)
+        {
+            reportError("Failed to close flight recorder", e, ErrorManager.CLOSE_FAILURE);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+}
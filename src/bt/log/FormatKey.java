@@ -0,0 +1,39 @@
+package bt.log;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Identifies built-in formatters which produce the same output, because they are of the same class and use the same
+ * {@link LoggerConfiguration}.
+ * <p>
+ * Keys are obtained via {@link LoggerConfiguration#getFormatKey(Class)}, so that equivalent formatters share the
+ * same instance. Every formatter registers itself with its key and unregisters when its handler is closed, which
+ * allows to cache the output of a record only if more than one formatter would produce it.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+final class FormatKey
+{
+    private final AtomicInteger formatters = new AtomicInteger();
+
+    void register()
+    {
+        this.formatters.incrementAndGet();
+    }
+
+    void unregister()
+    {
+        this.formatters.decrementAndGet();
+    }
+
+    /**
+     * Checks whether more than one formatter uses this key.
+     *
+     * @return
+     */
+    boolean isShared()
+    {
+        return this.formatters.get() > 1;
+    }
+}
@@ -1,13 +1,17 @@
 package bt.log;
 
+import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.event.EventConstants;
 import org.slf4j.event.LoggingEvent;
-import org.slf4j.helpers.FormattingTuple;
-import org.slf4j.helpers.MarkerIgnoringBase;
+import org.slf4j.event.SubstituteLoggingEvent;
 import org.slf4j.helpers.MessageFormatter;
 import org.slf4j.spi.LocationAwareLogger;
+import org.slf4j.spi.LoggingEventAware;
 
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.time.Instant;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -17,13 +21,18 @@ import java.util.logging.LogRecord;
  * @author Lukas Hartwig
  * @since 22.01.2022
  */
-public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements LocationAwareLogger
+public final class JDK14LoggerAdapter implements LocationAwareLogger, LoggingEventAware, Serializable
 {
 
     private static final long serialVersionUID = -8053026990503422791L;
     static String SELF = JDK14LoggerAdapter.class.getName();
-    static String SUPER = MarkerIgnoringBase.class.getName();
     transient final java.util.logging.Logger logger;
+    private final String name;
+
+    /**
+     * The handlers of the logger per level, rebuilt once the configuration changed.
+     */
+    private transient volatile RoutingTable routing;
 
     // WARN: JDK14LoggerAdapter constructor should have only package access so
     // that only JDK14LoggerFactory be able to create one.
@@ -33,6 +42,94 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
         this.name = logger.getName();
     }
 
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Replaces this logger with the logger of the same name after deserialization, since the JDK logger is not
+     * serialized.
+     *
+     * @return
+     *
+     * @throws ObjectStreamException
+     */
+    protected Object readResolve() throws ObjectStreamException
+    {
+        return LoggerFactory.getLogger(getName());
+    }
+
+    private RoutingTable getRouting()
+    {
+        RoutingTable table = this.routing;
+
+        if (table == null || !table.isCurrent(this.logger))
+        {
+            table = RoutingTable.build(this.logger);
+            this.routing = table;
+        }
+
+        return table;
+    }
+
+    /**
+     * Checks whether any handler accepts entries of the given level, which is false if the level is disabled for
+     * the logger.
+     *
+     * @param level
+     *
+     * @return
+     */
+    private boolean isRouted(Level level)
+    {
+        return getRouting().isLoggable(this.logger, level);
+    }
+
+    /**
+     * Checks whether any handler accepts entries of the given level with the given markers, see
+     * {@link MarkerFilter}.
+     *
+     * @param level
+     * @param markers
+     *
+     * @return
+     */
+    private boolean isRouted(Level level, MarkerSet markers)
+    {
+        return getRouting().isLoggable(this.logger, level, markers);
+    }
+
+    /**
+     * Resolves the given marker if any handler accepts entries of the given level with it. The level is checked
+     * first, so that disabled statements don't resolve their markers.
+     *
+     * @param level
+     * @param marker
+     *
+     * @return The markers or null if the entry is not logged.
+     */
+    private MarkerSet getRoutedMarkers(Level level, Marker marker)
+    {
+        if (!isRouted(level))
+        {
+            return null;
+        }
+
+        MarkerSet markers = MarkerIds.resolve(marker);
+        return isRouted(level, markers) ? markers : null;
+    }
+
+    /**
+     * Publishes the given record to the handlers that accept its level, see {@link RoutingTable}.
+     *
+     * @param record
+     */
+    private void dispatch(LogRecord record)
+    {
+        getRouting().dispatch(this.logger, record);
+    }
+
     /**
      * Is this logger instance enabled for the FINEST level?
      *
@@ -40,7 +137,7 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      */
     public boolean isTraceEnabled()
     {
-        return logger.isLoggable(Level.FINEST);
+        return isRouted(Level.FINEST);
     }
 
     /**
@@ -50,7 +147,7 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      */
     public void trace(String msg)
     {
-        if (logger.isLoggable(Level.FINEST))
+        if (isRouted(Level.FINEST))
         {
             log(SELF, Level.FINEST, msg, null);
         }
@@ -70,10 +167,9 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      */
     public void trace(String format, Object arg)
     {
-        if (logger.isLoggable(Level.FINEST))
+        if (isRouted(Level.FINEST))
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg);
-            log(SELF, Level.FINEST, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.FINEST, format, new Object[] { arg });
         }
     }
 
@@ -92,10 +188,9 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      */
     public void trace(String format, Object arg1, Object arg2)
     {
-        if (logger.isLoggable(Level.FINEST))
+        if (isRouted(Level.FINEST))
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            log(SELF, Level.FINEST, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.FINEST, format, new Object[] { arg1, arg2 });
         }
     }
 
@@ -113,10 +208,9 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      */
     public void trace(String format, Object... argArray)
     {
-        if (logger.isLoggable(Level.FINEST))
+        if (isRouted(Level.FINEST))
         {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            log(SELF, Level.FINEST, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.FINEST, format, argArray);
         }
     }
 
@@ -126,417 +220,1430 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      * @param msg the message accompanying the exception
      * @param t   the exception (throwable) to log
      */
-    public void trace(String msg, Throwable t)
+    public void trace(String msg, Throwable t)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, msg, t);
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void trace(String format, long arg)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, format, 1, 0, arg, 0);
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void trace(String format, double arg)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, format, 1, 1, Double.doubleToRawLongBits(arg), 0);
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void trace(String format, long arg1, long arg2)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, format, 2, 0, arg1, arg2);
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void trace(String format, long arg1, double arg2)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, format, 2, 2, arg1, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void trace(String format, double arg1, long arg2)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, format, 2, 1, Double.doubleToRawLongBits(arg1), arg2);
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void trace(String format, double arg1, double arg2)
+    {
+        if (isRouted(Level.FINEST))
+        {
+            log(SELF, Level.FINEST, format, 2, 3, Double.doubleToRawLongBits(arg1), Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level FINEST according to the specified format and
+     * argument.
+     * <p>
+     * This overload prevents the character from being widened to a number.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void trace(String format, char arg)
+    {
+        trace(format, (Object)arg);
+    }
+
+    /**
+     * Is this logger instance enabled for the FINEST level for entries with the given marker?
+     *
+     * @param marker The marker data specific to this log statement
+     *
+     * @return True if any handler accepts entries of level FINEST with the given marker, false otherwise.
+     */
+    public boolean isTraceEnabled(Marker marker)
+    {
+        return getRoutedMarkers(Level.FINEST, marker) != null;
+    }
+
+    /**
+     * Log a message with the specific marker at level FINEST.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message object to be logged
+     */
+    public void trace(Marker marker, String msg)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINEST, marker);
+
+        if (markers != null)
+        {
+            log(SELF, Level.FINEST, markers, msg, null);
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level FINEST according to the specified format and argument.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void trace(Marker marker, String format, Object arg)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINEST, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.FINEST, markers, format, new Object[] { arg });
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level FINEST according to the specified format and arguments.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void trace(Marker marker, String format, Object arg1, Object arg2)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINEST, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.FINEST, markers, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level FINEST according to the specified format and arguments.
+     *
+     * @param marker   The marker data specific to this log statement
+     * @param format   the format string
+     * @param argArray an array of arguments
+     */
+    public void trace(Marker marker, String format, Object... argArray)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINEST, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.FINEST, markers, format, argArray);
+        }
+    }
+
+    /**
+     * Log an exception (throwable) with the specific marker at level FINEST with an accompanying message.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message accompanying the exception
+     * @param t      the exception (throwable) to log
+     */
+    public void trace(Marker marker, String msg, Throwable t)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINEST, marker);
+
+        if (markers != null)
+        {
+            log(SELF, Level.FINEST, markers, msg, t);
+        }
+    }
+
+    /**
+     * Is this logger instance enabled for the FINE level?
+     *
+     * @return True if this Logger is enabled for level FINE, false otherwise.
+     */
+    public boolean isDebugEnabled()
+    {
+        return isRouted(Level.FINE);
+    }
+
+    /**
+     * Log a message object at level FINE.
+     *
+     * @param msg - the message object to be logged
+     */
+    public void debug(String msg)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, msg, null);
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and argument.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for level FINE.
+     * </p>
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void debug(String format, Object arg)
+    {
+        if (isRouted(Level.FINE))
+        {
+            logFormat(SELF, Level.FINE, format, new Object[] { arg });
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * arguments.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the FINE level.
+     * </p>
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void debug(String format, Object arg1, Object arg2)
+    {
+        if (isRouted(Level.FINE))
+        {
+            logFormat(SELF, Level.FINE, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * arguments.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the FINE level.
+     * </p>
+     *
+     * @param format   the format string
+     * @param argArray an array of arguments
+     */
+    public void debug(String format, Object... argArray)
+    {
+        if (isRouted(Level.FINE))
+        {
+            logFormat(SELF, Level.FINE, format, argArray);
+        }
+    }
+
+    /**
+     * Log an exception (throwable) at level FINE with an accompanying message.
+     *
+     * @param msg the message accompanying the exception
+     * @param t   the exception (throwable) to log
+     */
+    public void debug(String msg, Throwable t)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, msg, t);
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void debug(String format, long arg)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, format, 1, 0, arg, 0);
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void debug(String format, double arg)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, format, 1, 1, Double.doubleToRawLongBits(arg), 0);
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void debug(String format, long arg1, long arg2)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, format, 2, 0, arg1, arg2);
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void debug(String format, long arg1, double arg2)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, format, 2, 2, arg1, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void debug(String format, double arg1, long arg2)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, format, 2, 1, Double.doubleToRawLongBits(arg1), arg2);
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void debug(String format, double arg1, double arg2)
+    {
+        if (isRouted(Level.FINE))
+        {
+            log(SELF, Level.FINE, format, 2, 3, Double.doubleToRawLongBits(arg1), Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level FINE according to the specified format and
+     * argument.
+     * <p>
+     * This overload prevents the character from being widened to a number.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void debug(String format, char arg)
+    {
+        debug(format, (Object)arg);
+    }
+
+    /**
+     * Is this logger instance enabled for the FINE level for entries with the given marker?
+     *
+     * @param marker The marker data specific to this log statement
+     *
+     * @return True if any handler accepts entries of level FINE with the given marker, false otherwise.
+     */
+    public boolean isDebugEnabled(Marker marker)
+    {
+        return getRoutedMarkers(Level.FINE, marker) != null;
+    }
+
+    /**
+     * Log a message with the specific marker at level FINE.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message object to be logged
+     */
+    public void debug(Marker marker, String msg)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINE, marker);
+
+        if (markers != null)
+        {
+            log(SELF, Level.FINE, markers, msg, null);
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level FINE according to the specified format and argument.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void debug(Marker marker, String format, Object arg)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINE, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.FINE, markers, format, new Object[] { arg });
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level FINE according to the specified format and arguments.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void debug(Marker marker, String format, Object arg1, Object arg2)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINE, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.FINE, markers, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level FINE according to the specified format and arguments.
+     *
+     * @param marker   The marker data specific to this log statement
+     * @param format   the format string
+     * @param argArray an array of arguments
+     */
+    public void debug(Marker marker, String format, Object... argArray)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINE, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.FINE, markers, format, argArray);
+        }
+    }
+
+    /**
+     * Log an exception (throwable) with the specific marker at level FINE with an accompanying message.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message accompanying the exception
+     * @param t      the exception (throwable) to log
+     */
+    public void debug(Marker marker, String msg, Throwable t)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.FINE, marker);
+
+        if (markers != null)
+        {
+            log(SELF, Level.FINE, markers, msg, t);
+        }
+    }
+
+    /**
+     * Is this logger instance enabled for the INFO level?
+     *
+     * @return True if this Logger is enabled for the INFO level, false otherwise.
+     */
+    public boolean isInfoEnabled()
+    {
+        return isRouted(Level.INFO);
+    }
+
+    /**
+     * Log a message object at the INFO level.
+     *
+     * @param msg - the message object to be logged
+     */
+    public void info(String msg)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, msg, null);
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and argument.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the INFO level.
+     * </p>
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void info(String format, Object arg)
+    {
+        if (isRouted(Level.INFO))
+        {
+            logFormat(SELF, Level.INFO, format, new Object[] { arg });
+        }
+    }
+
+    /**
+     * Log a message at the INFO level according to the specified format and
+     * arguments.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the INFO level.
+     * </p>
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void info(String format, Object arg1, Object arg2)
+    {
+        if (isRouted(Level.INFO))
+        {
+            logFormat(SELF, Level.INFO, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * arguments.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the INFO level.
+     * </p>
+     *
+     * @param format   the format string
+     * @param argArray an array of arguments
+     */
+    public void info(String format, Object... argArray)
+    {
+        if (isRouted(Level.INFO))
+        {
+            logFormat(SELF, Level.INFO, format, argArray);
+        }
+    }
+
+    /**
+     * Log an exception (throwable) at the INFO level with an accompanying
+     * message.
+     *
+     * @param msg the message accompanying the exception
+     * @param t   the exception (throwable) to log
+     */
+    public void info(String msg, Throwable t)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, msg, t);
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void info(String format, long arg)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, format, 1, 0, arg, 0);
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void info(String format, double arg)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, format, 1, 1, Double.doubleToRawLongBits(arg), 0);
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void info(String format, long arg1, long arg2)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, format, 2, 0, arg1, arg2);
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void info(String format, long arg1, double arg2)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, format, 2, 2, arg1, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void info(String format, double arg1, long arg2)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, format, 2, 1, Double.doubleToRawLongBits(arg1), arg2);
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void info(String format, double arg1, double arg2)
+    {
+        if (isRouted(Level.INFO))
+        {
+            log(SELF, Level.INFO, format, 2, 3, Double.doubleToRawLongBits(arg1), Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level INFO according to the specified format and
+     * argument.
+     * <p>
+     * This overload prevents the character from being widened to a number.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void info(String format, char arg)
+    {
+        info(format, (Object)arg);
+    }
+
+    /**
+     * Is this logger instance enabled for the INFO level for entries with the given marker?
+     *
+     * @param marker The marker data specific to this log statement
+     *
+     * @return True if any handler accepts entries of level INFO with the given marker, false otherwise.
+     */
+    public boolean isInfoEnabled(Marker marker)
+    {
+        return getRoutedMarkers(Level.INFO, marker) != null;
+    }
+
+    /**
+     * Log a message with the specific marker at level INFO.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message object to be logged
+     */
+    public void info(Marker marker, String msg)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.INFO, marker);
+
+        if (markers != null)
+        {
+            log(SELF, Level.INFO, markers, msg, null);
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level INFO according to the specified format and argument.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void info(Marker marker, String format, Object arg)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.INFO, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.INFO, markers, format, new Object[] { arg });
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level INFO according to the specified format and arguments.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void info(Marker marker, String format, Object arg1, Object arg2)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.INFO, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.INFO, markers, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    /**
+     * Log a message with the specific marker at level INFO according to the specified format and arguments.
+     *
+     * @param marker   The marker data specific to this log statement
+     * @param format   the format string
+     * @param argArray an array of arguments
+     */
+    public void info(Marker marker, String format, Object... argArray)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.INFO, marker);
+
+        if (markers != null)
+        {
+            logFormat(SELF, Level.INFO, markers, format, argArray);
+        }
+    }
+
+    /**
+     * Log an exception (throwable) with the specific marker at level INFO with an accompanying message.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message accompanying the exception
+     * @param t      the exception (throwable) to log
+     */
+    public void info(Marker marker, String msg, Throwable t)
+    {
+        MarkerSet markers = getRoutedMarkers(Level.INFO, marker);
+
+        if (markers != null)
+        {
+            log(SELF, Level.INFO, markers, msg, t);
+        }
+    }
+
+    /**
+     * Is this logger instance enabled for the WARNING level?
+     *
+     * @return True if this Logger is enabled for the WARNING level, false
+     * otherwise.
+     */
+    public boolean isWarnEnabled()
+    {
+        return isRouted(Level.WARNING);
+    }
+
+    /**
+     * Log a message object at the WARNING level.
+     *
+     * @param msg - the message object to be logged
+     */
+    public void warn(String msg)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, msg, null);
+        }
+    }
+
+    /**
+     * Log a message at the WARNING level according to the specified format and
+     * argument.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the WARNING level.
+     * </p>
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void warn(String format, Object arg)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            logFormat(SELF, Level.WARNING, format, new Object[] { arg });
+        }
+    }
+
+    /**
+     * Log a message at the WARNING level according to the specified format and
+     * arguments.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the WARNING level.
+     * </p>
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void warn(String format, Object arg1, Object arg2)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            logFormat(SELF, Level.WARNING, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * arguments.
+     *
+     * <p>
+     * This form avoids superfluous object creation when the logger is disabled
+     * for the WARNING level.
+     * </p>
+     *
+     * @param format   the format string
+     * @param argArray an array of arguments
+     */
+    public void warn(String format, Object... argArray)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            logFormat(SELF, Level.WARNING, format, argArray);
+        }
+    }
+
+    /**
+     * Log an exception (throwable) at the WARNING level with an accompanying
+     * message.
+     *
+     * @param msg the message accompanying the exception
+     * @param t   the exception (throwable) to log
+     */
+    public void warn(String msg, Throwable t)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, msg, t);
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void warn(String format, long arg)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, format, 1, 0, arg, 0);
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * argument, without boxing the argument.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void warn(String format, double arg)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, format, 1, 1, Double.doubleToRawLongBits(arg), 0);
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void warn(String format, long arg1, long arg2)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, format, 2, 0, arg1, arg2);
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void warn(String format, long arg1, double arg2)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, format, 2, 2, arg1, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void warn(String format, double arg1, long arg2)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, format, 2, 1, Double.doubleToRawLongBits(arg1), arg2);
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * arguments, without boxing the arguments.
+     *
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    public void warn(String format, double arg1, double arg2)
+    {
+        if (isRouted(Level.WARNING))
+        {
+            log(SELF, Level.WARNING, format, 2, 3, Double.doubleToRawLongBits(arg1), Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    /**
+     * Log a message at level WARNING according to the specified format and
+     * argument.
+     * <p>
+     * This overload prevents the character from being widened to a number.
+     *
+     * @param format the format string
+     * @param arg    the argument
+     */
+    public void warn(String format, char arg)
     {
-        if (logger.isLoggable(Level.FINEST))
-        {
-            log(SELF, Level.FINEST, msg, t);
-        }
+        warn(format, (Object)arg);
     }
 
     /**
-     * Is this logger instance enabled for the FINE level?
+     * Is this logger instance enabled for the WARNING level for entries with the given marker?
      *
-     * @return True if this Logger is enabled for level FINE, false otherwise.
+     * @param marker The marker data specific to this log statement
+     *
+     * @return True if any handler accepts entries of level WARNING with the given marker, false otherwise.
      */
-    public boolean isDebugEnabled()
+    public boolean isWarnEnabled(Marker marker)
     {
-        return logger.isLoggable(Level.FINE);
+        return getRoutedMarkers(Level.WARNING, marker) != null;
     }
 
     /**
-     * Log a message object at level FINE.
+     * Log a message with the specific marker at level WARNING.
      *
-     * @param msg - the message object to be logged
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message object to be logged
      */
-    public void debug(String msg)
+    public void warn(Marker marker, String msg)
     {
-        if (logger.isLoggable(Level.FINE))
+        MarkerSet markers = getRoutedMarkers(Level.WARNING, marker);
+
+        if (markers != null)
         {
-            log(SELF, Level.FINE, msg, null);
+            log(SELF, Level.WARNING, markers, msg, null);
         }
     }
 
     /**
-     * Log a message at level FINE according to the specified format and argument.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for level FINE.
-     * </p>
+     * Log a message with the specific marker at level WARNING according to the specified format and argument.
      *
+     * @param marker The marker data specific to this log statement
      * @param format the format string
      * @param arg    the argument
      */
-    public void debug(String format, Object arg)
+    public void warn(Marker marker, String format, Object arg)
     {
-        if (logger.isLoggable(Level.FINE))
+        MarkerSet markers = getRoutedMarkers(Level.WARNING, marker);
+
+        if (markers != null)
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg);
-            log(SELF, Level.FINE, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.WARNING, markers, format, new Object[] { arg });
         }
     }
 
     /**
-     * Log a message at level FINE according to the specified format and
-     * arguments.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the FINE level.
-     * </p>
+     * Log a message with the specific marker at level WARNING according to the specified format and arguments.
      *
+     * @param marker The marker data specific to this log statement
      * @param format the format string
      * @param arg1   the first argument
      * @param arg2   the second argument
      */
-    public void debug(String format, Object arg1, Object arg2)
+    public void warn(Marker marker, String format, Object arg1, Object arg2)
     {
-        if (logger.isLoggable(Level.FINE))
+        MarkerSet markers = getRoutedMarkers(Level.WARNING, marker);
+
+        if (markers != null)
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            log(SELF, Level.FINE, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.WARNING, markers, format, new Object[] { arg1, arg2 });
         }
     }
 
     /**
-     * Log a message at level FINE according to the specified format and
-     * arguments.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the FINE level.
-     * </p>
+     * Log a message with the specific marker at level WARNING according to the specified format and arguments.
      *
+     * @param marker   The marker data specific to this log statement
      * @param format   the format string
      * @param argArray an array of arguments
      */
-    public void debug(String format, Object... argArray)
+    public void warn(Marker marker, String format, Object... argArray)
     {
-        if (logger.isLoggable(Level.FINE))
+        MarkerSet markers = getRoutedMarkers(Level.WARNING, marker);
+
+        if (markers != null)
         {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            log(SELF, Level.FINE, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.WARNING, markers, format, argArray);
         }
     }
 
     /**
-     * Log an exception (throwable) at level FINE with an accompanying message.
+     * Log an exception (throwable) with the specific marker at level WARNING with an accompanying message.
      *
-     * @param msg the message accompanying the exception
-     * @param t   the exception (throwable) to log
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message accompanying the exception
+     * @param t      the exception (throwable) to log
      */
-    public void debug(String msg, Throwable t)
+    public void warn(Marker marker, String msg, Throwable t)
     {
-        if (logger.isLoggable(Level.FINE))
+        MarkerSet markers = getRoutedMarkers(Level.WARNING, marker);
+
+        if (markers != null)
         {
-            log(SELF, Level.FINE, msg, t);
+            log(SELF, Level.WARNING, markers, msg, t);
         }
     }
 
     /**
-     * Is this logger instance enabled for the INFO level?
+     * Is this logger instance enabled for level SEVERE?
      *
-     * @return True if this Logger is enabled for the INFO level, false otherwise.
+     * @return True if this Logger is enabled for level SEVERE, false otherwise.
      */
-    public boolean isInfoEnabled()
+    public boolean isErrorEnabled()
     {
-        return logger.isLoggable(Level.INFO);
+        return isRouted(Level.SEVERE);
     }
 
     /**
-     * Log a message object at the INFO level.
+     * Log a message object at the SEVERE level.
      *
      * @param msg - the message object to be logged
      */
-    public void info(String msg)
+    public void error(String msg)
     {
-        if (logger.isLoggable(Level.INFO))
+        if (isRouted(Level.SEVERE))
         {
-            log(SELF, Level.INFO, msg, null);
+            log(SELF, Level.SEVERE, msg, null);
         }
     }
 
     /**
-     * Log a message at level INFO according to the specified format and argument.
+     * Log a message at the SEVERE level according to the specified format and
+     * argument.
      *
      * <p>
      * This form avoids superfluous object creation when the logger is disabled
-     * for the INFO level.
+     * for the SEVERE level.
      * </p>
      *
      * @param format the format string
      * @param arg    the argument
      */
-    public void info(String format, Object arg)
+    public void error(String format, Object arg)
     {
-        if (logger.isLoggable(Level.INFO))
+        if (isRouted(Level.SEVERE))
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg);
-            log(SELF, Level.INFO, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.SEVERE, format, new Object[] { arg });
         }
     }
 
     /**
-     * Log a message at the INFO level according to the specified format and
+     * Log a message at the SEVERE level according to the specified format and
      * arguments.
      *
      * <p>
      * This form avoids superfluous object creation when the logger is disabled
-     * for the INFO level.
+     * for the SEVERE level.
      * </p>
      *
      * @param format the format string
      * @param arg1   the first argument
      * @param arg2   the second argument
      */
-    public void info(String format, Object arg1, Object arg2)
+    public void error(String format, Object arg1, Object arg2)
     {
-        if (logger.isLoggable(Level.INFO))
+        if (isRouted(Level.SEVERE))
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            log(SELF, Level.INFO, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.SEVERE, format, new Object[] { arg1, arg2 });
         }
     }
 
     /**
-     * Log a message at level INFO according to the specified format and
+     * Log a message at level SEVERE according to the specified format and
      * arguments.
      *
      * <p>
      * This form avoids superfluous object creation when the logger is disabled
-     * for the INFO level.
+     * for the SEVERE level.
      * </p>
      *
-     * @param format   the format string
-     * @param argArray an array of arguments
+     * @param format    the format string
+     * @param arguments an array of arguments
      */
-    public void info(String format, Object... argArray)
+    public void error(String format, Object... arguments)
     {
-        if (logger.isLoggable(Level.INFO))
+        if (isRouted(Level.SEVERE))
         {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            log(SELF, Level.INFO, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.SEVERE, format, arguments);
         }
     }
 
     /**
-     * Log an exception (throwable) at the INFO level with an accompanying
+     * Log an exception (throwable) at the SEVERE level with an accompanying
      * message.
      *
      * @param msg the message accompanying the exception
      * @param t   the exception (throwable) to log
      */
-    public void info(String msg, Throwable t)
+    public void error(String msg, Throwable t)
     {
-        if (logger.isLoggable(Level.INFO))
+        if (isRouted(Level.SEVERE))
         {
-            log(SELF, Level.INFO, msg, t);
+            log(SELF, Level.SEVERE, msg, t);
         }
     }
 
     /**
-     * Is this logger instance enabled for the WARNING level?
+     * Log a message at level SEVERE according to the specified format and
+     * argument, without boxing the argument.
      *
-     * @return True if this Logger is enabled for the WARNING level, false
-     * otherwise.
+     * @param format the format string
+     * @param arg    the argument
      */
-    public boolean isWarnEnabled()
+    public void error(String format, long arg)
     {
-        return logger.isLoggable(Level.WARNING);
+        if (isRouted(Level.SEVERE))
+        {
+            log(SELF, Level.SEVERE, format, 1, 0, arg, 0);
+        }
     }
 
     /**
-     * Log a message object at the WARNING level.
+     * Log a message at level SEVERE according to the specified format and
+     * argument, without boxing the argument.
      *
-     * @param msg - the message object to be logged
+     * @param format the format string
+     * @param arg    the argument
      */
-    public void warn(String msg)
+    public void error(String format, double arg)
     {
-        if (logger.isLoggable(Level.WARNING))
+        if (isRouted(Level.SEVERE))
         {
-            log(SELF, Level.WARNING, msg, null);
+            log(SELF, Level.SEVERE, format, 1, 1, Double.doubleToRawLongBits(arg), 0);
         }
     }
 
     /**
-     * Log a message at the WARNING level according to the specified format and
-     * argument.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the WARNING level.
-     * </p>
+     * Log a message at level SEVERE according to the specified format and
+     * arguments, without boxing the arguments.
      *
      * @param format the format string
-     * @param arg    the argument
+     * @param arg1   the first argument
+     * @param arg2   the second argument
      */
-    public void warn(String format, Object arg)
+    public void error(String format, long arg1, long arg2)
     {
-        if (logger.isLoggable(Level.WARNING))
+        if (isRouted(Level.SEVERE))
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg);
-            log(SELF, Level.WARNING, ft.getMessage(), ft.getThrowable());
+            log(SELF, Level.SEVERE, format, 2, 0, arg1, arg2);
         }
     }
 
     /**
-     * Log a message at the WARNING level according to the specified format and
-     * arguments.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the WARNING level.
-     * </p>
+     * Log a message at level SEVERE according to the specified format and
+     * arguments, without boxing the arguments.
      *
      * @param format the format string
      * @param arg1   the first argument
      * @param arg2   the second argument
      */
-    public void warn(String format, Object arg1, Object arg2)
+    public void error(String format, long arg1, double arg2)
     {
-        if (logger.isLoggable(Level.WARNING))
+        if (isRouted(Level.SEVERE))
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            log(SELF, Level.WARNING, ft.getMessage(), ft.getThrowable());
+            log(SELF, Level.SEVERE, format, 2, 2, arg1, Double.doubleToRawLongBits(arg2));
         }
     }
 
     /**
-     * Log a message at level WARNING according to the specified format and
-     * arguments.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the WARNING level.
-     * </p>
+     * Log a message at level SEVERE according to the specified format and
+     * arguments, without boxing the arguments.
      *
-     * @param format   the format string
-     * @param argArray an array of arguments
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
      */
-    public void warn(String format, Object... argArray)
+    public void error(String format, double arg1, long arg2)
     {
-        if (logger.isLoggable(Level.WARNING))
+        if (isRouted(Level.SEVERE))
         {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            log(SELF, Level.WARNING, ft.getMessage(), ft.getThrowable());
+            log(SELF, Level.SEVERE, format, 2, 1, Double.doubleToRawLongBits(arg1), arg2);
         }
     }
 
     /**
-     * Log an exception (throwable) at the WARNING level with an accompanying
-     * message.
+     * Log a message at level SEVERE according to the specified format and
+     * arguments, without boxing the arguments.
      *
-     * @param msg the message accompanying the exception
-     * @param t   the exception (throwable) to log
+     * @param format the format string
+     * @param arg1   the first argument
+     * @param arg2   the second argument
      */
-    public void warn(String msg, Throwable t)
+    public void error(String format, double arg1, double arg2)
     {
-        if (logger.isLoggable(Level.WARNING))
+        if (isRouted(Level.SEVERE))
         {
-            log(SELF, Level.WARNING, msg, t);
+            log(SELF, Level.SEVERE, format, 2, 3, Double.doubleToRawLongBits(arg1), Double.doubleToRawLongBits(arg2));
         }
     }
 
     /**
-     * Is this logger instance enabled for level SEVERE?
+     * Log a message at level SEVERE according to the specified format and
+     * argument.
+     * <p>
+     * This overload prevents the character from being widened to a number.
      *
-     * @return True if this Logger is enabled for level SEVERE, false otherwise.
+     * @param format the format string
+     * @param arg    the argument
      */
-    public boolean isErrorEnabled()
+    public void error(String format, char arg)
     {
-        return logger.isLoggable(Level.SEVERE);
+        error(format, (Object)arg);
     }
 
     /**
-     * Log a message object at the SEVERE level.
+     * Is this logger instance enabled for the SEVERE level for entries with the given marker?
      *
-     * @param msg - the message object to be logged
+     * @param marker The marker data specific to this log statement
+     *
+     * @return True if any handler accepts entries of level SEVERE with the given marker, false otherwise.
      */
-    public void error(String msg)
+    public boolean isErrorEnabled(Marker marker)
+    {
+        return getRoutedMarkers(Level.SEVERE, marker) != null;
+    }
+
+    /**
+     * Log a message with the specific marker at level SEVERE.
+     *
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message object to be logged
+     */
+    public void error(Marker marker, String msg)
     {
-        if (logger.isLoggable(Level.SEVERE))
+        MarkerSet markers = getRoutedMarkers(Level.SEVERE, marker);
+
+        if (markers != null)
         {
-            log(SELF, Level.SEVERE, msg, null);
+            log(SELF, Level.SEVERE, markers, msg, null);
         }
     }
 
     /**
-     * Log a message at the SEVERE level according to the specified format and
-     * argument.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the SEVERE level.
-     * </p>
+     * Log a message with the specific marker at level SEVERE according to the specified format and argument.
      *
+     * @param marker The marker data specific to this log statement
      * @param format the format string
      * @param arg    the argument
      */
-    public void error(String format, Object arg)
+    public void error(Marker marker, String format, Object arg)
     {
-        if (logger.isLoggable(Level.SEVERE))
+        MarkerSet markers = getRoutedMarkers(Level.SEVERE, marker);
+
+        if (markers != null)
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg);
-            log(SELF, Level.SEVERE, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.SEVERE, markers, format, new Object[] { arg });
         }
     }
 
     /**
-     * Log a message at the SEVERE level according to the specified format and
-     * arguments.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the SEVERE level.
-     * </p>
+     * Log a message with the specific marker at level SEVERE according to the specified format and arguments.
      *
+     * @param marker The marker data specific to this log statement
      * @param format the format string
      * @param arg1   the first argument
      * @param arg2   the second argument
      */
-    public void error(String format, Object arg1, Object arg2)
+    public void error(Marker marker, String format, Object arg1, Object arg2)
     {
-        if (logger.isLoggable(Level.SEVERE))
+        MarkerSet markers = getRoutedMarkers(Level.SEVERE, marker);
+
+        if (markers != null)
         {
-            FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            log(SELF, Level.SEVERE, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.SEVERE, markers, format, new Object[] { arg1, arg2 });
         }
     }
 
     /**
-     * Log a message at level SEVERE according to the specified format and
-     * arguments.
-     *
-     * <p>
-     * This form avoids superfluous object creation when the logger is disabled
-     * for the SEVERE level.
-     * </p>
+     * Log a message with the specific marker at level SEVERE according to the specified format and arguments.
      *
-     * @param format    the format string
-     * @param arguments an array of arguments
+     * @param marker   The marker data specific to this log statement
+     * @param format   the format string
+     * @param argArray an array of arguments
      */
-    public void error(String format, Object... arguments)
+    public void error(Marker marker, String format, Object... argArray)
     {
-        if (logger.isLoggable(Level.SEVERE))
+        MarkerSet markers = getRoutedMarkers(Level.SEVERE, marker);
+
+        if (markers != null)
         {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, arguments);
-            log(SELF, Level.SEVERE, ft.getMessage(), ft.getThrowable());
+            logFormat(SELF, Level.SEVERE, markers, format, argArray);
         }
     }
 
     /**
-     * Log an exception (throwable) at the SEVERE level with an accompanying
-     * message.
+     * Log an exception (throwable) with the specific marker at level SEVERE with an accompanying message.
      *
-     * @param msg the message accompanying the exception
-     * @param t   the exception (throwable) to log
+     * @param marker The marker data specific to this log statement
+     * @param msg    the message accompanying the exception
+     * @param t      the exception (throwable) to log
      */
-    public void error(String msg, Throwable t)
+    public void error(Marker marker, String msg, Throwable t)
     {
-        if (logger.isLoggable(Level.SEVERE))
+        MarkerSet markers = getRoutedMarkers(Level.SEVERE, marker);
+
+        if (markers != null)
         {
-            log(SELF, Level.SEVERE, msg, t);
+            log(SELF, Level.SEVERE, markers, msg, t);
         }
     }
 
@@ -553,68 +1660,99 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
      */
     private void log(String callerFQCN, Level level, String msg, Throwable t)
     {
-        // millis and thread are filled by the constructor
-        LogRecord record = new LogRecord(level, msg);
+        log(callerFQCN, level, null, msg, t);
+    }
+
+    private void log(String callerFQCN, Level level, MarkerSet markers, String msg, Throwable t)
+    {
+        log(callerFQCN, level, markers, msg, t, null);
+    }
+
+    private void logFormat(String callerFQCN, Level level, String format, Object[] arguments)
+    {
+        logFormat(callerFQCN, level, null, format, arguments);
+    }
+
+    private void logFormat(String callerFQCN, Level level, MarkerSet markers, String format, Object[] arguments)
+    {
+        // a trailing throwable is logged as such instead of being used as an argument, just like SLF4J does
+        Throwable t = MessageFormatter.getThrowableCandidate(arguments);
+
+        if (t != null)
+        {
+            arguments = MessageFormatter.trimmedCopy(arguments);
+        }
+
+        // the message is rendered from the format and the arguments via the
+        // ObjectRenderers once a formatter requests it
+        BtLogRecord record = new BtLogRecord(level, null);
+        record.setLoggerName(getName());
+        record.setThrown(t);
+        record.setObjectArguments(format, arguments);
+        record.setMarkers(markers);
+        fillCallerData(callerFQCN, record);
+        dispatch(record);
+    }
+
+    private void log(String callerFQCN, Level level, String format, int count, int doubleMask, long bits0, long bits1)
+    {
+        // the message is rendered from the format and the unboxed arguments
+        // once a formatter requests it
+        BtLogRecord record = new BtLogRecord(level, null);
+        record.setLoggerName(getName());
+        record.setPrimitiveArguments(format, count, doubleMask, bits0, bits1);
+        fillCallerData(callerFQCN, record);
+        dispatch(record);
+    }
+
+    private void log(String callerFQCN, Level level, MarkerSet markers, String msg, Throwable t, Object[] arguments)
+    {
+        // millis, thread and thread name are filled by the constructor
+        BtLogRecord record = new BtLogRecord(level, msg);
         record.setLoggerName(getName());
         record.setThrown(t);
-        // Note: parameters in record are not set because SLF4J only
-        // supports a single formatting style
+        // Note: the message is already formatted, the arguments are only kept
+        // for formatters that output them separately, like the JsonLogFormatter
+        record.setParameters(arguments);
+        record.setMarkers(markers);
         fillCallerData(callerFQCN, record);
-        logger.log(record);
+        dispatch(record);
     }
 
     /**
      * Fill in caller data if possible.
+     * <p>
+     * The caller location is captured with a single stack walk and kept on the record, so that formatters
+     * don't need to walk the stack again and records can be formatted on other threads.
      *
      * @param record The record to update
      */
-    final private void fillCallerData(String callerFQCN, LogRecord record)
+    final private void fillCallerData(String callerFQCN, BtLogRecord record)
     {
-        StackTraceElement[] steArray = new Throwable().getStackTrace();
-
-        int selfIndex = -1;
-        for (int i = 0; i < steArray.length; i++)
-        {
-            final String className = steArray[i].getClassName();
-            if (className.equals(callerFQCN) || className.equals(SUPER))
-            {
-                selfIndex = i;
-                break;
-            }
-        }
-
-        int found = -1;
-        for (int i = selfIndex + 1; i < steArray.length; i++)
-        {
-            final String className = steArray[i].getClassName();
-            if (!(className.equals(callerFQCN) || className.equals(SUPER)))
-            {
-                found = i;
-                break;
-            }
-        }
+        CallerLocation location = CallerLocation.capture(callerFQCN);
 
-        if (found != -1)
+        if (location != null)
         {
-            StackTraceElement ste = steArray[found];
+            record.setCallerLocation(location);
             // setting the class name has the side effect of setting
             // the needToInferCaller variable to false.
-            record.setSourceClassName(ste.getClassName());
-            record.setSourceMethodName(ste.getMethodName());
+            record.setSourceClassName(location.getClassName());
+            record.setSourceMethodName(location.getMethodName());
         }
     }
 
     public void log(Marker marker, String callerFQCN, int level, String message, Object[] argArray, Throwable t)
     {
         Level julLevel = slf4jLevelIntToJULLevel(level);
-        // the logger.isLoggable check avoids the unconditional
+        MarkerSet markers = getRoutedMarkers(julLevel, marker);
+        // the routing check avoids the unconditional
         // construction of location data for disabled log
         // statements. As of 2008-07-31, callers of this method
         // do not perform this check. See also
         // http://jira.qos.ch/browse/SLF4J-81
-        if (logger.isLoggable(julLevel))
+        if (markers != null)
         {
-            log(callerFQCN, julLevel, message, t);
+            log(callerFQCN, julLevel, markers, message, t);
         }
     }
 
@@ -645,42 +1783,68 @@ public final class JDK14LoggerAdapter extends MarkerIgnoringBase implements Loca
     }
 
     /**
+     * Logs an event of the fluent API of SLF4J 2, or an event that was recorded during the initialization of SLF4J.
+     * <p>
+     * The key value pairs of the event are kept as structured data on the record, the formatters decide how they
+     * are written.
+     *
      * @since 1.7.15
      */
+    @Override
     public void log(LoggingEvent event)
     {
         Level julLevel = slf4jLevelIntToJULLevel(event.getLevel().toInt());
-        if (logger.isLoggable(julLevel))
+        if (!isRouted(julLevel))
+        {
+            return;
+        }
+
+        MarkerSet markers = MarkerIds.resolve(event.getMarkers());
+        if (isRouted(julLevel, markers))
         {
-            LogRecord record = eventToRecord(event, julLevel);
-            logger.log(record);
+            LogRecord record = eventToRecord(event, julLevel, markers);
+            dispatch(record);
         }
     }
 
-    private LogRecord eventToRecord(LoggingEvent event, Level julLevel)
+    private LogRecord eventToRecord(LoggingEvent event, Level julLevel, MarkerSet markers)
     {
         String format = event.getMessage();
         Object[] arguments = event.getArgumentArray();
-        FormattingTuple ft = MessageFormatter.arrayFormat(format, arguments);
-        if (ft.getThrowable() != null && event.getThrowable() != null)
+        Throwable candidate = MessageFormatter.getThrowableCandidate(arguments);
+
+        if (candidate != null)
         {
-            throw new IllegalArgumentException("both last element in argument array and last argument are of type Throwable");
+            arguments = MessageFormatter.trimmedCopy(arguments);
         }
 
-        Throwable t = event.getThrowable();
-        if (ft.getThrowable() != null)
+        // an explicitly set cause takes precedence over a trailing throwable argument
+        Throwable t = event.getThrowable() != null ? event.getThrowable() : candidate;
+
+        BtLogRecord record = new BtLogRecord(julLevel, null);
+        record.setLoggerName(event.getLoggerName());
+        record.setObjectArguments(format, arguments);
+        record.setKeyValuePairs(event.getKeyValuePairs());
+        record.setMarkers(markers);
+        record.setThrown(t);
+
+        if (event.getTimeStamp() > 0)
         {
-            t = ft.getThrowable();
-            throw new IllegalStateException("fix above code");
+            record.setInstant(Instant.ofEpochMilli(event.getTimeStamp()));
         }
 
-        LogRecord record = new LogRecord(julLevel, ft.getMessage());
-        record.setLoggerName(event.getLoggerName());
-        record.setMillis(event.getTimeStamp());
-        record.setSourceClassName(EventConstants.NA_SUBST);
-        record.setSourceMethodName(EventConstants.NA_SUBST);
+        if (event instanceof SubstituteLoggingEvent)
+        {
+            // recorded events are replayed from a different stack and possibly a different thread
+            record.setThreadName(event.getThreadName());
+            record.setSourceClassName(EventConstants.NA_SUBST);
+            record.setSourceMethodName(EventConstants.NA_SUBST);
+        }
+        else
+        {
+            fillCallerData(event.getCallerBoundary() != null ? event.getCallerBoundary() : SELF, record);
+        }
 
-        record.setThrown(t);
         return record;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,638 @@
+package bt.log;
+
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.logging.LogRecord;
+
+/**
+ * A formatter that writes every log entry as a single line JSON object, for example for log shippers.
+ * <p>
+ * The object has the following fields, fields without a value are omitted:
+ * <ul>
+ * <li>timestamp - ISO-8601 in UTC with millisecond precision</li>
+ * <li>sequence - the sequence number of the record</li>
+ * <li>level - the unified SLF4J level</li>
+ * <li>thread - the name of the logging thread</li>
+ * <li>logger - the name of the logger</li>
+ * <li>markers - an array with the names of the markers, including the markers they reference</li>
+ * <li>caller - an object with the class, method and line of the caller, if enabled in the configuration</li>
+ * <li>mdc - an object with the diagnostic context, limited to the configured keys if there are any</li>
+ * <li>message - the formatted message</li>
+ * <li>arguments - the arguments of the message, numbers and booleans are written as JSON values</li>
+ * <li>keyValues - an object with the key value pairs that were added via the fluent API of SLF4J</li>
+ * <li>throwable - an object with the class, message, stack frames and cause of the logged throwable, limited to
+ * the configured number of frames and causes</li>
+ * <li>stacktrace - the short hash of the stack trace, if the deduplication of stack traces is enabled. The frames
+ * of a repeated stack trace are omitted, its throwable object only contains the class, message and the number of
+ * repetitions instead</li>
+ * </ul>
+ * <p>
+ * The entry is encoded directly into a {@link LogBuffer}. Apart from logged throwables, formatting into a reused
+ * buffer does not allocate any objects.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class JsonLogFormatter extends DefaultLogFormatter
+{
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Creates a new instance with the given configuration.
+     *
+     * @param config
+     */
+    public JsonLogFormatter(LoggerConfiguration config)
+    {
+        super(config);
+    }
+
+    /**
+     * Creates a new instance with a default configuration.
+     */
+    public JsonLogFormatter()
+    {
+        this(new LoggerConfiguration());
+    }
+
+    @Override
+    public String format(LogRecord record)
+    {
+        LogBuffer buffer = LogBuffer.acquire();
+
+        try
+        {
+            format(record, buffer);
+            return buffer.toString();
+        }
+        finally
+        {
+            LogBuffer.release(buffer);
+        }
+    }
+
+    @Override
+    protected void formatEntry(LogRecord record, LogBuffer buffer)
+    {
+        buffer.appendAscii("{\"timestamp\":\"");
+        appendTimestamp(record.getInstant(), buffer);
+        buffer.appendAscii("\",\"sequence\":");
+        buffer.append(record.getSequenceNumber());
+        buffer.appendAscii(",\"level\":\"");
+        buffer.appendAscii(unifyLogLevel(record.getLevel()).name());
+        buffer.appendAscii("\",\"thread\":");
+        appendString(getThreadName(record), buffer);
+
+        if (record.getLoggerName() != null)
+        {
+            buffer.appendAscii(",\"logger\":");
+            appendString(record.getLoggerName(), buffer);
+        }
+
+        appendMarkers(record, buffer);
+
+        if (this.config.isPrintCaller())
+        {
+            appendCaller(getCallerLocation(record), buffer);
+        }
+
+        appendMdc(record, buffer);
+
+        buffer.appendAscii(",\"message\":");
+        appendMessage(record, buffer);
+
+        Object[] arguments = record.getParameters();
+
+        if (record instanceof BtLogRecord && ((BtLogRecord)record).getPrimitiveArgumentCount() > 0)
+        {
+            appendPrimitiveArguments((BtLogRecord)record, buffer);
+        }
+        else if (arguments != null && arguments.length > 0)
+        {
+            buffer.appendAscii(",\"arguments\":[");
+
+            for (int i = 0; i < arguments.length; i++)
+            {
+                if (i > 0)
+                {
+                    buffer.appendAscii(',');
+                }
+
+                appendValue(arguments[i], buffer);
+            }
+
+            buffer.appendAscii(']');
+        }
+
+        appendKeyValuePairs(record, buffer);
+
+        if (record.getThrown() != null)
+        {
+            appendThrown(record, buffer);
+        }
+
+        buffer.appendAscii("}\n");
+    }
+
+    private void appendMessage(LogRecord record, LogBuffer buffer)
+    {
+        if (isDirectMessage(record))
+        {
+            LogBuffer message = LogBuffer.acquire();
+
+            try
+            {
+                appendMessageText(record, message);
+                appendString(message, buffer);
+            }
+            finally
+            {
+                LogBuffer.release(message);
+            }
+        }
+        else
+        {
+            String text = getMessageText(record);
+
+            if (text == null || text.length() * 3L <= this.config.getMaxMessageSize())
+            {
+                appendString(text, buffer);
+                return;
+            }
+
+            // the message might exceed the maximum size, it is truncated before it is escaped
+            LogBuffer message = LogBuffer.acquire();
+
+            try
+            {
+                appendMessageText(text, message);
+                appendString(message, buffer);
+            }
+            finally
+            {
+                LogBuffer.release(message);
+            }
+        }
+    }
+
+    private void appendPrimitiveArguments(BtLogRecord record, LogBuffer buffer)
+    {
+        buffer.appendAscii(",\"arguments\":[");
+
+        for (int i = 0; i < record.getPrimitiveArgumentCount(); i++)
+        {
+            if (i > 0)
+            {
+                buffer.appendAscii(',');
+            }
+
+            if (record.isDoubleArgument(i) && !Double.isFinite(Double.longBitsToDouble(record.getArgumentBits(i))))
+            {
+                // JSON has no representation for NaN and infinity
+                buffer.appendAscii('"');
+                record.appendPrimitiveArgument(i, buffer);
+                buffer.appendAscii('"');
+            }
+            else
+            {
+                record.appendPrimitiveArgument(i, buffer);
+            }
+        }
+
+        buffer.appendAscii(']');
+    }
+
+    /**
+     * Appends the structured key value pairs of the given record as the object "keyValues", if it has any.
+     *
+     * @param record
+     * @param buffer
+     */
+    @Override
+    protected void appendKeyValuePairs(LogRecord record, LogBuffer buffer)
+    {
+        if (!(record instanceof BtLogRecord))
+        {
+            return;
+        }
+
+        List<KeyValuePair> pairs = ((BtLogRecord)record).getKeyValuePairs();
+
+        for (int i = 0; i < pairs.size(); i++)
+        {
+            KeyValuePair pair = pairs.get(i);
+
+            buffer.appendAscii(i == 0 ? ",\"keyValues\":{" : ",");
+            appendString(String.valueOf(pair.key), buffer);
+            buffer.appendAscii(':');
+            appendValue(pair.value, buffer);
+        }
+
+        if (!pairs.isEmpty())
+        {
+            buffer.appendAscii('}');
+        }
+    }
+
+    /**
+     * Appends the names of the markers of the given record as the array "markers", if it has any.
+     *
+     * @param record
+     * @param buffer
+     */
+    protected void appendMarkers(LogRecord record, LogBuffer buffer)
+    {
+        if (!(record instanceof BtLogRecord))
+        {
+            return;
+        }
+
+        MarkerSet markers = ((BtLogRecord)record).getMarkers();
+        int first = markers.nextId(0);
+
+        for (int id = first; id >= 0; id = markers.nextId(id + 1))
+        {
+            buffer.appendAscii(id == first ? ",\"markers\":[" : ",");
+            appendString(MarkerIds.nameOf(id), buffer);
+        }
+
+        if (!markers.isEmpty())
+        {
+            buffer.appendAscii(']');
+        }
+    }
+
+    private String getThreadName(LogRecord record)
+    {
+        String threadName = record instanceof BtLogRecord ? ((BtLogRecord)record).getThreadName() : null;
+        return threadName != null ? threadName : Thread.currentThread().getName();
+    }
+
+    /**
+     * Appends the given instant in the format yyyy-MM-ddTHH:mm:ss.SSSZ.
+     * <p>
+     * The date is computed arithmetically instead of via java.time, so that no objects are allocated.
+     *
+     * @param instant
+     * @param buffer
+     */
+    protected void appendTimestamp(Instant instant, LogBuffer buffer)
+    {
+        long epochSecond = instant.getEpochSecond();
+        long days = Math.floorDiv(epochSecond, 86400);
+        long secondOfDay = Math.floorMod(epochSecond, 86400);
+
+        // converts the days since the epoch into a civil date, based on eras of 400 years starting in March
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        buffer.appendPadded(year, 4);
+        buffer.appendAscii('-');
+        buffer.appendPadded(month, 2);
+        buffer.appendAscii('-');
+        buffer.appendPadded(day, 2);
+        buffer.appendAscii('T');
+        buffer.appendPadded(secondOfDay / 3600, 2);
+        buffer.appendAscii(':');
+        buffer.appendPadded(secondOfDay / 60 % 60, 2);
+        buffer.appendAscii(':');
+        buffer.appendPadded(secondOfDay % 60, 2);
+        buffer.appendAscii('.');
+        buffer.appendPadded(instant.getNano() / 1000000, 3);
+        buffer.appendAscii('Z');
+    }
+
+    private void appendCaller(CallerLocation location, LogBuffer buffer)
+    {
+        if (location == null)
+        {
+            return;
+        }
+
+        buffer.appendAscii(",\"caller\":{\"class\":");
+        appendString(location.getClassName(), buffer);
+        buffer.appendAscii(",\"method\":");
+        appendString(location.getMethodName(), buffer);
+        buffer.appendAscii(",\"line\":");
+        buffer.append(location.getLineNumber());
+        buffer.appendAscii('}');
+    }
+
+    private void appendMdc(LogRecord record, LogBuffer buffer)
+    {
+        MDCContext context = record instanceof BtLogRecord ? ((BtLogRecord)record).getMdcContext() : MDCContext.current();
+
+        if (context == null || context.isEmpty())
+        {
+            return;
+        }
+
+        String[] mdcKeys = this.config.getMdcKeys();
+        boolean first = true;
+
+        if (mdcKeys.length == 0)
+        {
+            for (int i = 0; i < context.size(); i++)
+            {
+                first = appendMdcEntry(context.getKey(i), context.getValue(i), first, buffer);
+            }
+        }
+        else
+        {
+            for (String key : mdcKeys)
+            {
+                String value = context.get(key);
+
+                if (value != null)
+                {
+                    first = appendMdcEntry(key, value, first, buffer);
+                }
+            }
+        }
+
+        if (!first)
+        {
+            buffer.appendAscii('}');
+        }
+    }
+
+    private boolean appendMdcEntry(String key, String value, boolean first, LogBuffer buffer)
+    {
+        buffer.appendAscii(first ? ",\"mdc\":{" : ",");
+        appendString(key, buffer);
+        buffer.appendAscii(':');
+        appendString(value, buffer);
+        return false;
+    }
+
+    /**
+     * Appends the given value as a JSON number or boolean if possible, otherwise as a JSON string of its
+     * representation by the {@link ObjectRenderers}.
+     *
+     * @param value
+     * @param buffer
+     */
+    @Override
+    protected void appendValue(Object value, LogBuffer buffer)
+    {
+        if (value == null)
+        {
+            buffer.appendAscii("null");
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            buffer.append(((Number)value).longValue());
+        }
+        else if ((value instanceof Double || value instanceof Float) && Double.isFinite(((Number)value).doubleValue()))
+        {
+            buffer.append(((Number)value).doubleValue());
+        }
+        else if (value instanceof Boolean)
+        {
+            buffer.append(((Boolean)value).booleanValue());
+        }
+        else if (value instanceof CharSequence)
+        {
+            appendString((CharSequence)value, buffer);
+        }
+        else
+        {
+            LogBuffer rendered = LogBuffer.acquire();
+
+            try
+            {
+                ObjectRenderers.render(value, rendered);
+                appendString(rendered, buffer);
+            }
+            finally
+            {
+                LogBuffer.release(rendered);
+            }
+        }
+    }
+
+    private void appendThrown(LogRecord record, LogBuffer buffer)
+    {
+        Throwable t = record.getThrown();
+        buffer.appendAscii(",\"throwable\":");
+
+        if (this.stackTraceDeduplicator == null)
+        {
+            appendThrowable(t, buffer, 0);
+            return;
+        }
+
+        long fingerprint = StackTraceDeduplicator.fingerprint(t);
+        int repetitions = this.stackTraceDeduplicator.register(fingerprint, record.getMillis());
+
+        if (repetitions == 0)
+        {
+            appendThrowable(t, buffer, 0);
+        }
+        else
+        {
+            // the frames were already written by the first occurrence
+            appendThrowableHeader(t, buffer);
+            buffer.appendAscii(",\"repeated\":");
+            buffer.append(repetitions);
+            buffer.appendAscii('}');
+        }
+
+        buffer.appendAscii(",\"stacktrace\":");
+        appendString(StackTraceDeduplicator.shortHash(fingerprint), buffer);
+    }
+
+    private void appendThrowableHeader(Throwable t, LogBuffer buffer)
+    {
+        String className = t instanceof RecordedThrowable ? ((RecordedThrowable)t).getClassName() : t.getClass().getName();
+
+        buffer.appendAscii("{\"class\":");
+        appendString(className, buffer);
+
+        if (t.getMessage() != null)
+        {
+            buffer.appendAscii(",\"message\":");
+            appendString(t.getMessage(), buffer);
+        }
+    }
+
+    private void appendThrowable(Throwable t, LogBuffer buffer, int depth)
+    {
+        appendThrowableHeader(t, buffer);
+        buffer.appendAscii(",\"frames\":[");
+
+        StackTraceElement[] frames = t.getStackTrace();
+        int frameCount = Math.min(frames.length, this.config.getMaxStackFrames());
+
+        for (int i = 0; i < frameCount; i++)
+        {
+            StackTraceElement frame = frames[i];
+
+            buffer.appendAscii(i > 0 ? ",{\"class\":" : "{\"class\":");
+            appendString(frame.getClassName(), buffer);
+            buffer.appendAscii(",\"method\":");
+            appendString(frame.getMethodName(), buffer);
+
+            if (frame.getFileName() != null)
+            {
+                buffer.appendAscii(",\"file\":");
+                appendString(frame.getFileName(), buffer);
+            }
+
+            buffer.appendAscii(",\"line\":");
+            buffer.append(frame.getLineNumber());
+            buffer.appendAscii('}');
+        }
+
+        buffer.appendAscii(']');
+
+        Throwable cause = t.getCause();
+
+        if (cause != null && cause != t && depth < this.config.getMaxCauseDepth())
+        {
+            buffer.appendAscii(",\"cause\":");
+            appendThrowable(cause, buffer, depth + 1);
+        }
+
+        buffer.appendAscii('}');
+    }
+
+    /**
+     * Appends the UTF-8 encoded text of the given buffer as a quoted and escaped JSON string.
+     *
+     * @param text
+     * @param buffer
+     */
+    protected static void appendString(LogBuffer text, LogBuffer buffer)
+    {
+        byte[] b = text.array();
+        int count = text.length();
+
+        buffer.ensureCapacity(count + 2);
+        buffer.appendAscii('"');
+
+        for (int i = 0; i < count; i++)
+        {
+            byte c = b[i];
+
+            // bytes of multi byte characters are negative and can be copied as they are
+            if (c < 0 || (c >= 0x20 && c != '"' && c != '\\'))
+            {
+                buffer.append(c);
+            }
+            else
+            {
+                appendEscaped((char)c, buffer);
+            }
+        }
+
+        buffer.appendAscii('"');
+    }
+
+    private static void appendEscaped(char c, LogBuffer buffer)
+    {
+        switch (c)
+        {
+            case '"':
+                buffer.appendAscii("\\\"");
+                break;
+            case '\\':
+                buffer.appendAscii("\\\\");
+                break;
+            case '\n':
+                buffer.appendAscii("\\n");
+                break;
+            case '\r':
+                buffer.appendAscii("\\r");
+                break;
+            case '\t':
+                buffer.appendAscii("\\t");
+                break;
+            case '\b':
+                buffer.appendAscii("\\b");
+                break;
+            case '\f':
+                buffer.appendAscii("\\f");
+                break;
+            default:
+                buffer.appendAscii("\\u00");
+                buffer.append(HEX_DIGITS[c >> 4]);
+                buffer.append(HEX_DIGITS[c & 0xF]);
+        }
+    }
+
+    /**
+     * Appends the given text as a quoted and escaped JSON string, or null if the text is null.
+     *
+     * @param s
+     * @param buffer
+     */
+    protected static void appendString(CharSequence s, LogBuffer buffer)
+    {
+        if (s == null)
+        {
+            buffer.appendAscii("null");
+            return;
+        }
+
+        int count = s.length();
+        buffer.ensureCapacity(count + 2);
+
+        byte[] b = buffer.array();
+        int pos = buffer.length();
+        int i = 0;
+
+        b[pos++] = '"';
+
+        // fast path for ASCII text without any characters that need to be escaped
+        while (i < count)
+        {
+            char c = s.charAt(i);
+
+            if (c >= 0x80 || c < 0x20 || c == '"' || c == '\\')
+            {
+                break;
+            }
+
+            b[pos++] = (byte)c;
+            i++;
+        }
+
+        buffer.setLength(pos);
+
+        for (; i < count; i++)
+        {
+            char c = s.charAt(i);
+
+            if (c < 0x20 || c == '"' || c == '\\')
+            {
+                appendEscaped(c, buffer);
+            }
+            else if (c < 0x80)
+            {
+                buffer.append((byte)c);
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < count)
+            {
+                buffer.append(s, i, i + 2);
+                i++;
+            }
+            else
+            {
+                buffer.append(s, i, i + 1);
+            }
+        }
+
+        buffer.appendAscii('"');
+    }
+}
@@ -3,12 +3,13 @@ package bt.log;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
+import org.slf4j.spi.LoggingEventBuilder;
 
 import java.io.File;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Arrays;
+import java.util.function.Supplier;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
@@ -18,6 +19,13 @@ import java.util.logging.LogManager;
  * <p>
  * Any logging calls made to this class will be forwarded to the logger implementation with the name GLOBAL.
  * <p>
+ * Every level also offers overloads that take {@link Supplier}s, which are only evaluated if the level is enabled,
+ * for example {@code Log.debug("Cache size: {}", Cache::size)}. Non capturing lambdas and method references should
+ * be preferred for those, since they don't create a new object on every call.
+ * <p>
+ * Numeric arguments are passed on without boxing them through the overloads for one or two long and double
+ * arguments, for example {@code Log.info("Processed {} entries in {} ms", count, millis)}.
+ * <p>
  * This class also offers some additional configuration methods to setup the default JDK logging framwork if
  * no other implementation should be used.
  *
@@ -28,6 +36,12 @@ public class Log
 {
     private static final String GLOBAL_LOGGER_NAME = "GLOBAL";
     private static final Logger GLOBAL_LOGGER = LoggerFactory.getLogger(GLOBAL_LOGGER_NAME);
+
+    /**
+     * The global logger if it is provided by this framework, which allows to log primitive arguments without
+     * boxing them. Null if another SLF4J binding is used.
+     */
+    private static final JDK14LoggerAdapter GLOBAL_ADAPTER = GLOBAL_LOGGER instanceof JDK14LoggerAdapter ? (JDK14LoggerAdapter)GLOBAL_LOGGER : null;
     private static final String DEFAULT_LOG_FOLDER = "./logs";
 
     static
@@ -37,6 +51,7 @@ public class Log
             public void uncaughtException(Thread t, Throwable e)
             {
                 Log.error("Uncaught exception on thread " + t.getName(), e);
+                FlightRecorderHandler.dumpAll();
             }
         });
     }
@@ -128,68 +143,92 @@ public class Log
         {
             globalJdkLogger.addHandler(handler);
         }
+
+        RoutingTable.invalidateAll();
     }
 
-    private static String valueToString(Object value)
+    /**
+     * Recomputes which handlers receive the entries of each level.
+     * <p>
+     * The loggers of this framework only dispatch entries to the handlers that accept their level, which are
+     * computed once per logger. This has to be called after levels or handlers of JDK loggers were changed
+     * directly instead of via the configuration methods of this class.
+     */
+    public static void refreshRouting()
+    {
+        RoutingTable.invalidateAll();
+    }
+
+    /**
+     * Configures the JDK global logger with the given logger handlers and log level ALL, publishing to each of the
+     * handlers on its own thread via a {@link FanOutHandler}.
+     *
+     * @param firstHandler The first logger handler.
+     * @param handlers     Additional logger handlers.
+     */
+    public static void configureFanOutJDKLogger(Handler firstHandler, Handler... handlers)
+    {
+        configureFanOutJDKLogger(Level.ALL, firstHandler, handlers);
+    }
+
+    /**
+     * Configures the JDK global logger with the given logger handlers and log level, publishing to each of the
+     * handlers on its own thread via a {@link FanOutHandler}.
+     * <p>
+     * Unlike {@link #configureDefaultJDKLogger(Level, Handler, Handler...)}, a slow handler does neither delay the
+     * logging threads nor the other handlers.
+     *
+     * @param logLevel     The log level of the logger.
+     * @param firstHandler The first logger handler.
+     * @param handlers     Additional logger handlers.
+     */
+    public static void configureFanOutJDKLogger(Level logLevel, Handler firstHandler, Handler... handlers)
+    {
+        configureDefaultJDKLogger(logLevel, new FanOutHandler(firstHandler, handlers));
+    }
+
+    /**
+     * Publishes the backlog of the current thread of all {@link BacklogLoggerHandler}s.
+     * <p>
+     * This is done automatically whenever the current thread logs an error, but can be used to get the context
+     * of other failures as well.
+     */
+    public static void flushBacklog()
+    {
+        BacklogLoggerHandler.flushAll();
+    }
+
+    /**
+     * Discards the backlog of the current thread of all {@link BacklogLoggerHandler}s.
+     * <p>
+     * This should be called whenever a thread starts working on an unrelated task, for example at the start of
+     * a request, so that a later error does not publish entries of a previous task.
+     */
+    public static void clearBacklog()
     {
-        String ret = "";
+        BacklogLoggerHandler.clearAll();
+    }
 
-        if (value != null)
+    private static String valueToString(Object value)
+    {
+        if (value instanceof String)
         {
-            if (value.getClass().isArray())
-            {
-                if (value.getClass() == boolean[].class)
-                {
-                    ret += Arrays.toString((boolean[])value);
-                }
-                else if (value.getClass() == byte[].class)
-                {
-                    ret += Arrays.toString((byte[])value);
-                }
-                else if (value.getClass() == short[].class)
-                {
-                    ret += Arrays.toString((short[])value);
-                }
-                else if (value.getClass() == int[].class)
-                {
-                    ret += Arrays.toString((int[])value);
-                }
-                else if (value.getClass() == long[].class)
-                {
-                    ret += Arrays.toString((long[])value);
-                }
-                else if (value.getClass() == float[].class)
-                {
-                    ret += Arrays.toString((float[])value);
-                }
-                else if (value.getClass() == double[].class)
-                {
-                    ret += Arrays.toString((double[])value);
-                }
-                else if (value.getClass() == char[].class)
-                {
-                    ret += Arrays.toString((char[])value);
-                }
-                else
-                {
-                    ret += Arrays.toString((Object[])value);
-                }
-            }
-            else if (value instanceof String)
-            {
-                ret += "\"" + value + "\"";
-            }
-            else
-            {
-                ret += value;
-            }
+            return "\"" + value + "\"";
         }
-        else
+
+        return ObjectRenderers.toString(value);
+    }
+
+    private static Object[] getAll(Supplier<?>... suppliers)
+    {
+        var values = new Object[suppliers.length];
+
+        for (int i = 0; i < suppliers.length; i++)
         {
-            ret = "null";
+            values[i] = suppliers[i].get();
         }
 
-        return ret;
+        return values;
     }
 
     private static String formatParameterValues(Object... values)
@@ -352,6 +391,14 @@ public class Log
         return GLOBAL_LOGGER.isTraceEnabled();
     }
 
+    /**
+     * @see Logger#atTrace()
+     */
+    public static LoggingEventBuilder atTrace()
+    {
+        return GLOBAL_LOGGER.atTrace();
+    }
+
     /**
      * @see Logger#trace(String)
      */
@@ -392,6 +439,140 @@ public class Log
         GLOBAL_LOGGER.trace(s, throwable);
     }
 
+    /**
+     * @see JDK14LoggerAdapter#trace(String, long)
+     */
+    public static void trace(String format, long arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#trace(String, double)
+     */
+    public static void trace(String format, double arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#trace(String, char)
+     */
+    public static void trace(String format, char arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, (Object)arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#trace(String, long, long)
+     */
+    public static void trace(String format, long arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#trace(String, long, double)
+     */
+    public static void trace(String format, long arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#trace(String, double, long)
+     */
+    public static void trace(String format, double arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#trace(String, double, double)
+     */
+    public static void trace(String format, double arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.trace(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.trace(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs the message of the given supplier at the TRACE level. The supplier is only called if that level is
+     * enabled.
+     *
+     * @param messageSupplier
+     */
+    public static void trace(Supplier<String> messageSupplier)
+    {
+        if (GLOBAL_LOGGER.isTraceEnabled())
+        {
+            GLOBAL_LOGGER.trace(messageSupplier.get());
+        }
+    }
+
+    /**
+     * Logs the given format at the TRACE level with the values of the given suppliers as arguments. The suppliers
+     * are only called if that level is enabled.
+     *
+     * @param format
+     * @param argSuppliers
+     */
+    public static void trace(String format, Supplier<?>... argSuppliers)
+    {
+        if (GLOBAL_LOGGER.isTraceEnabled())
+        {
+            GLOBAL_LOGGER.trace(format, getAll(argSuppliers));
+        }
+    }
+
     /**
      * @see Logger#isTraceEnabled(Marker)
      */
@@ -448,6 +629,14 @@ public class Log
         return GLOBAL_LOGGER.isDebugEnabled();
     }
 
+    /**
+     * @see Logger#atDebug()
+     */
+    public static LoggingEventBuilder atDebug()
+    {
+        return GLOBAL_LOGGER.atDebug();
+    }
+
     /**
      * @see Logger#debug(String)
      */
@@ -489,99 +678,375 @@ public class Log
     }
 
     /**
-     * @see Logger#isDebugEnabled(Marker)
+     * @see JDK14LoggerAdapter#debug(String, long)
      */
-    public static boolean isDebugEnabled(Marker marker)
+    public static void debug(String format, long arg)
     {
-        return GLOBAL_LOGGER.isDebugEnabled(marker);
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, arg);
+        }
     }
 
     /**
-     * @see Logger#debug(Marker, String)
+     * @see JDK14LoggerAdapter#debug(String, double)
      */
-    public static void debug(Marker marker, String s)
+    public static void debug(String format, double arg)
     {
-        GLOBAL_LOGGER.debug(marker, s);
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, arg);
+        }
     }
 
     /**
-     * @see Logger#debug(Marker, String, Object)
+     * @see JDK14LoggerAdapter#debug(String, char)
      */
-    public static void debug(Marker marker, String s, Object o)
+    public static void debug(String format, char arg)
     {
-        GLOBAL_LOGGER.debug(marker, s, o);
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, (Object)arg);
+        }
     }
 
     /**
-     * @see Logger#debug(Marker, String, Object, Object)
+     * @see JDK14LoggerAdapter#debug(String, long, long)
      */
-    public static void debug(Marker marker, String s, Object o, Object o1)
+    public static void debug(String format, long arg1, long arg2)
     {
-        GLOBAL_LOGGER.debug(marker, s, o, o1);
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, arg1, arg2);
+        }
     }
 
     /**
-     * @see Logger#debug(Marker, String, Object...)
+     * @see JDK14LoggerAdapter#debug(String, long, double)
      */
-    public static void debug(Marker marker, String s, Object... objects)
+    public static void debug(String format, long arg1, double arg2)
     {
-        GLOBAL_LOGGER.debug(marker, s, objects);
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, arg1, arg2);
+        }
     }
 
     /**
-     * @see Logger#debug(Marker, String, Throwable)
+     * @see JDK14LoggerAdapter#debug(String, double, long)
      */
-    public static void debug(Marker marker, String s, Throwable throwable)
+    public static void debug(String format, double arg1, long arg2)
     {
-        GLOBAL_LOGGER.debug(marker, s, throwable);
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, arg1, arg2);
+        }
     }
 
     /**
-     * @see Logger#isInfoEnabled()
+     * @see JDK14LoggerAdapter#debug(String, double, double)
      */
-    public static boolean isInfoEnabled()
+    public static void debug(String format, double arg1, double arg2)
     {
-        return GLOBAL_LOGGER.isInfoEnabled();
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.debug(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.debug(format, arg1, arg2);
+        }
     }
 
     /**
-     * @see Logger#info(String)
+     * Logs the message of the given supplier at the DEBUG level. The supplier is only called if that level is
+     * enabled.
+     *
+     * @param messageSupplier
      */
-    public static void info(String s)
+    public static void debug(Supplier<String> messageSupplier)
     {
-        GLOBAL_LOGGER.info(s);
+        if (GLOBAL_LOGGER.isDebugEnabled())
+        {
+            GLOBAL_LOGGER.debug(messageSupplier.get());
+        }
     }
 
     /**
-     * @see Logger#info(String, Object)
+     * Logs the given format at the DEBUG level with the values of the given suppliers as arguments. The suppliers
+     * are only called if that level is enabled.
+     *
+     * @param format
+     * @param argSuppliers
      */
-    public static void info(String s, Object o)
+    public static void debug(String format, Supplier<?>... argSuppliers)
     {
-        GLOBAL_LOGGER.info(s, o);
+        if (GLOBAL_LOGGER.isDebugEnabled())
+        {
+            GLOBAL_LOGGER.debug(format, getAll(argSuppliers));
+        }
     }
 
     /**
-     * @see Logger#info(String, Object, Object)
+     * @see Logger#isDebugEnabled(Marker)
      */
-    public static void info(String s, Object o, Object o1)
+    public static boolean isDebugEnabled(Marker marker)
     {
-        GLOBAL_LOGGER.info(s, o, o1);
+        return GLOBAL_LOGGER.isDebugEnabled(marker);
     }
 
     /**
-     * @see Logger#info(String, Object...)
+     * @see Logger#debug(Marker, String)
      */
-    public static void info(String s, Object... objects)
+    public static void debug(Marker marker, String s)
     {
-        GLOBAL_LOGGER.info(s, objects);
+        GLOBAL_LOGGER.debug(marker, s);
     }
 
     /**
-     * @see Logger#info(String, Throwable)
+     * @see Logger#debug(Marker, String, Object)
      */
-    public static void info(String s, Throwable throwable)
+    public static void debug(Marker marker, String s, Object o)
     {
-        GLOBAL_LOGGER.info(s, throwable);
+        GLOBAL_LOGGER.debug(marker, s, o);
+    }
+
+    /**
+     * @see Logger#debug(Marker, String, Object, Object)
+     */
+    public static void debug(Marker marker, String s, Object o, Object o1)
+    {
+        GLOBAL_LOGGER.debug(marker, s, o, o1);
+    }
+
+    /**
+     * @see Logger#debug(Marker, String, Object...)
+     */
+    public static void debug(Marker marker, String s, Object... objects)
+    {
+        GLOBAL_LOGGER.debug(marker, s, objects);
+    }
+
+    /**
+     * @see Logger#debug(Marker, String, Throwable)
+     */
+    public static void debug(Marker marker, String s, Throwable throwable)
+    {
+        GLOBAL_LOGGER.debug(marker, s, throwable);
+    }
+
+    /**
+     * @see Logger#isInfoEnabled()
+     */
+    public static boolean isInfoEnabled()
+    {
+        return GLOBAL_LOGGER.isInfoEnabled();
+    }
+
+    /**
+     * @see Logger#atInfo()
+     */
+    public static LoggingEventBuilder atInfo()
+    {
+        return GLOBAL_LOGGER.atInfo();
+    }
+
+    /**
+     * @see Logger#info(String)
+     */
+    public static void info(String s)
+    {
+        GLOBAL_LOGGER.info(s);
+    }
+
+    /**
+     * @see Logger#info(String, Object)
+     */
+    public static void info(String s, Object o)
+    {
+        GLOBAL_LOGGER.info(s, o);
+    }
+
+    /**
+     * @see Logger#info(String, Object, Object)
+     */
+    public static void info(String s, Object o, Object o1)
+    {
+        GLOBAL_LOGGER.info(s, o, o1);
+    }
+
+    /**
+     * @see Logger#info(String, Object...)
+     */
+    public static void info(String s, Object... objects)
+    {
+        GLOBAL_LOGGER.info(s, objects);
+    }
+
+    /**
+     * @see Logger#info(String, Throwable)
+     */
+    public static void info(String s, Throwable throwable)
+    {
+        GLOBAL_LOGGER.info(s, throwable);
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, long)
+     */
+    public static void info(String format, long arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, double)
+     */
+    public static void info(String format, double arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, char)
+     */
+    public static void info(String format, char arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, (Object)arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, long, long)
+     */
+    public static void info(String format, long arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, long, double)
+     */
+    public static void info(String format, long arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, double, long)
+     */
+    public static void info(String format, double arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#info(String, double, double)
+     */
+    public static void info(String format, double arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.info(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.info(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs the message of the given supplier at the INFO level. The supplier is only called if that level is
+     * enabled.
+     *
+     * @param messageSupplier
+     */
+    public static void info(Supplier<String> messageSupplier)
+    {
+        if (GLOBAL_LOGGER.isInfoEnabled())
+        {
+            GLOBAL_LOGGER.info(messageSupplier.get());
+        }
+    }
+
+    /**
+     * Logs the given format at the INFO level with the values of the given suppliers as arguments. The suppliers
+     * are only called if that level is enabled.
+     *
+     * @param format
+     * @param argSuppliers
+     */
+    public static void info(String format, Supplier<?>... argSuppliers)
+    {
+        if (GLOBAL_LOGGER.isInfoEnabled())
+        {
+            GLOBAL_LOGGER.info(format, getAll(argSuppliers));
+        }
     }
 
     /**
@@ -640,6 +1105,14 @@ public class Log
         return GLOBAL_LOGGER.isWarnEnabled();
     }
 
+    /**
+     * @see Logger#atWarn()
+     */
+    public static LoggingEventBuilder atWarn()
+    {
+        return GLOBAL_LOGGER.atWarn();
+    }
+
     /**
      * @see Logger#warn(String)
      */
@@ -680,6 +1153,140 @@ public class Log
         GLOBAL_LOGGER.warn(s, throwable);
     }
 
+    /**
+     * @see JDK14LoggerAdapter#warn(String, long)
+     */
+    public static void warn(String format, long arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#warn(String, double)
+     */
+    public static void warn(String format, double arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#warn(String, char)
+     */
+    public static void warn(String format, char arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, (Object)arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#warn(String, long, long)
+     */
+    public static void warn(String format, long arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#warn(String, long, double)
+     */
+    public static void warn(String format, long arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#warn(String, double, long)
+     */
+    public static void warn(String format, double arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#warn(String, double, double)
+     */
+    public static void warn(String format, double arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.warn(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.warn(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs the message of the given supplier at the WARN level. The supplier is only called if that level is
+     * enabled.
+     *
+     * @param messageSupplier
+     */
+    public static void warn(Supplier<String> messageSupplier)
+    {
+        if (GLOBAL_LOGGER.isWarnEnabled())
+        {
+            GLOBAL_LOGGER.warn(messageSupplier.get());
+        }
+    }
+
+    /**
+     * Logs the given format at the WARN level with the values of the given suppliers as arguments. The suppliers
+     * are only called if that level is enabled.
+     *
+     * @param format
+     * @param argSuppliers
+     */
+    public static void warn(String format, Supplier<?>... argSuppliers)
+    {
+        if (GLOBAL_LOGGER.isWarnEnabled())
+        {
+            GLOBAL_LOGGER.warn(format, getAll(argSuppliers));
+        }
+    }
+
     /**
      * @see Logger#isWarnEnabled(Marker)
      */
@@ -736,6 +1343,14 @@ public class Log
         return GLOBAL_LOGGER.isErrorEnabled();
     }
 
+    /**
+     * @see Logger#atError()
+     */
+    public static LoggingEventBuilder atError()
+    {
+        return GLOBAL_LOGGER.atError();
+    }
+
     /**
      * @see Logger#error(String)
      */
@@ -776,6 +1391,140 @@ public class Log
         GLOBAL_LOGGER.error(s, throwable);
     }
 
+    /**
+     * @see JDK14LoggerAdapter#error(String, long)
+     */
+    public static void error(String format, long arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#error(String, double)
+     */
+    public static void error(String format, double arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#error(String, char)
+     */
+    public static void error(String format, char arg)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, (Object)arg);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#error(String, long, long)
+     */
+    public static void error(String format, long arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#error(String, long, double)
+     */
+    public static void error(String format, long arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#error(String, double, long)
+     */
+    public static void error(String format, double arg1, long arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * @see JDK14LoggerAdapter#error(String, double, double)
+     */
+    public static void error(String format, double arg1, double arg2)
+    {
+        if (GLOBAL_ADAPTER != null)
+        {
+            GLOBAL_ADAPTER.error(format, arg1, arg2);
+        }
+        else
+        {
+            GLOBAL_LOGGER.error(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs the message of the given supplier at the ERROR level. The supplier is only called if that level is
+     * enabled.
+     *
+     * @param messageSupplier
+     */
+    public static void error(Supplier<String> messageSupplier)
+    {
+        if (GLOBAL_LOGGER.isErrorEnabled())
+        {
+            GLOBAL_LOGGER.error(messageSupplier.get());
+        }
+    }
+
+    /**
+     * Logs the given format at the ERROR level with the values of the given suppliers as arguments. The suppliers
+     * are only called if that level is enabled.
+     *
+     * @param format
+     * @param argSuppliers
+     */
+    public static void error(String format, Supplier<?>... argSuppliers)
+    {
+        if (GLOBAL_LOGGER.isErrorEnabled())
+        {
+            GLOBAL_LOGGER.error(format, getAll(argSuppliers));
+        }
+    }
+
     /**
      * @see Logger#isErrorEnabled(Marker)
      */
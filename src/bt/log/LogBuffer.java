@@ -0,0 +1,599 @@
+package bt.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A growable buffer of UTF-8 encoded bytes that log entries are formatted into.
+ * <p>
+ * Text is encoded while it is appended, with a fast path for ASCII characters, and numbers are written digit by
+ * digit, so that formatting into a reused buffer does not allocate any objects.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class LogBuffer
+{
+    private static final byte[] MIN_LONG = "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9 };
+    private static final long[] LONG_POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+                                                       100000000L, 1000000000L };
+
+    /**
+     * Doubles are only written digit by digit if their scaled value stays below this limit, so that it is exactly
+     * representable.
+     */
+    private static final double MAX_EXACT_DOUBLE = 9.0e15;
+
+    /**
+     * Buffers larger than this are not kept for reuse, so that a single huge entry doesn't occupy memory forever.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    /**
+     * The maximum number of unused buffers that are kept per thread.
+     */
+    private static final int MAX_FREE_BUFFERS = 4;
+
+    /**
+     * The buffers of each thread which are currently not in use.
+     */
+    private static final ThreadLocal<LogBuffer[]> FREE_BUFFERS = ThreadLocal.withInitial(() -> new LogBuffer[MAX_FREE_BUFFERS]);
+
+    /**
+     * The number of slots of the pool that is shared by virtual threads, a power of 2.
+     */
+    private static final int SHARED_BUFFERS = 64;
+
+    /**
+     * The unused buffers of virtual threads. Virtual threads are usually short lived and numerous, so a buffer per
+     * virtual thread would hardly ever be reused, while its thread local map would keep the memory until the thread
+     * ends.
+     */
+    private static final AtomicReferenceArray<LogBuffer> SHARED_FREE_BUFFERS = new AtomicReferenceArray<>(SHARED_BUFFERS);
+
+    private byte[] bytes;
+    private int length;
+
+    /**
+     * Creates a new instance with an initial capacity of 512 bytes.
+     */
+    public LogBuffer()
+    {
+        this(512);
+    }
+
+    /**
+     * Creates a new instance with the given initial capacity.
+     *
+     * @param capacity
+     */
+    public LogBuffer(int capacity)
+    {
+        this.bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Gets an empty buffer for the current thread, which should be handed back via {@link #release(LogBuffer)}
+     * once it is not needed anymore.
+     * <p>
+     * Every thread keeps a few released buffers for reuse, so that nested formatting steps, for example a
+     * formatter that renders a part of an entry into a separate buffer, don't allocate new buffers either. Virtual
+     * threads take their buffers from a lock free pool that is shared by all virtual threads instead.
+     *
+     * @return
+     */
+    public static LogBuffer acquire()
+    {
+        if (VirtualThreads.isCurrentVirtual())
+        {
+            return acquireShared();
+        }
+
+        LogBuffer[] free = FREE_BUFFERS.get();
+
+        for (int i = free.length - 1; i >= 0; i--)
+        {
+            LogBuffer buffer = free[i];
+
+            if (buffer != null)
+            {
+                free[i] = null;
+                return buffer.reset();
+            }
+        }
+
+        return new LogBuffer();
+    }
+
+    /**
+     * Hands back a buffer that was obtained via {@link #acquire()}, so that the current thread can reuse it.
+     *
+     * @param buffer
+     */
+    public static void release(LogBuffer buffer)
+    {
+        if (buffer.bytes.length > MAX_RETAINED_CAPACITY)
+        {
+            return;
+        }
+
+        if (VirtualThreads.isCurrentVirtual())
+        {
+            releaseShared(buffer);
+            return;
+        }
+
+        LogBuffer[] free = FREE_BUFFERS.get();
+
+        for (int i = 0; i < free.length; i++)
+        {
+            if (free[i] == null)
+            {
+                free[i] = buffer;
+                return;
+            }
+        }
+    }
+
+    private static LogBuffer acquireShared()
+    {
+        int start = sharedSlot();
+
+        for (int i = 0; i < SHARED_BUFFERS; i++)
+        {
+            int slot = (start + i) & (SHARED_BUFFERS - 1);
+            LogBuffer buffer = SHARED_FREE_BUFFERS.get(slot);
+
+            if (buffer != null && SHARED_FREE_BUFFERS.compareAndSet(slot, buffer, null))
+            {
+                return buffer.reset();
+            }
+        }
+
+        return new LogBuffer();
+    }
+
+    private static void releaseShared(LogBuffer buffer)
+    {
+        int start = sharedSlot();
+
+        for (int i = 0; i < SHARED_BUFFERS; i++)
+        {
+            int slot = (start + i) & (SHARED_BUFFERS - 1);
+
+            if (SHARED_FREE_BUFFERS.get(slot) == null && SHARED_FREE_BUFFERS.compareAndSet(slot, null, buffer))
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the slot at which the current thread starts to search the shared pool, so that concurrent threads
+     * rarely compete for the same slots.
+     */
+    private static int sharedSlot()
+    {
+        long id = Thread.currentThread().getId();
+        return (int)(id ^ (id >>> 16)) * 0x9E3779B9 >>> 26;
+    }
+
+    /**
+     * Gets the number of bytes in this buffer.
+     *
+     * @return
+     */
+    public int length()
+    {
+        return this.length;
+    }
+
+    /**
+     * Sets the number of bytes in this buffer, discarding any bytes after the given length.
+     *
+     * @param length
+     */
+    public void setLength(int length)
+    {
+        this.length = length;
+    }
+
+    /**
+     * Removes all bytes from this buffer without releasing its memory.
+     *
+     * @return this instance.
+     */
+    public LogBuffer reset()
+    {
+        this.length = 0;
+        return this;
+    }
+
+    /**
+     * Gets the backing array of this buffer. Only the first {@link #length()} bytes are valid.
+     *
+     * @return
+     */
+    public byte[] array()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * Makes sure that the given number of bytes can be appended without growing the buffer again.
+     *
+     * @param additional
+     */
+    public void ensureCapacity(int additional)
+    {
+        int required = this.length + additional;
+
+        if (required > this.bytes.length)
+        {
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(required, this.bytes.length * 2));
+        }
+    }
+
+    public LogBuffer append(byte b)
+    {
+        ensureCapacity(1);
+        this.bytes[this.length++] = b;
+        return this;
+    }
+
+    public LogBuffer append(byte[] data)
+    {
+        return append(data, 0, data.length);
+    }
+
+    public LogBuffer append(byte[] data, int offset, int count)
+    {
+        ensureCapacity(count);
+        System.arraycopy(data, offset, this.bytes, this.length, count);
+        this.length += count;
+        return this;
+    }
+
+    /**
+     * Appends the content of the given buffer.
+     *
+     * @param other
+     *
+     * @return
+     */
+    public LogBuffer append(LogBuffer other)
+    {
+        return append(other.bytes, 0, other.length);
+    }
+
+    /**
+     * Appends the UTF-8 encoding of a single character.
+     *
+     * @param c
+     *
+     * @return
+     */
+    public LogBuffer append(char c)
+    {
+        if (c < 0x80)
+        {
+            return append((byte)c);
+        }
+
+        appendUtf8(String.valueOf(c), 0, 1);
+        return this;
+    }
+
+    /**
+     * Appends a single character, which has to be an ASCII character.
+     *
+     * @param c
+     *
+     * @return
+     */
+    public LogBuffer appendAscii(char c)
+    {
+        return append((byte)c);
+    }
+
+    /**
+     * Appends the given text, which must only contain ASCII characters.
+     *
+     * @param s
+     *
+     * @return
+     */
+    public LogBuffer appendAscii(String s)
+    {
+        int count = s.length();
+        ensureCapacity(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            this.bytes[this.length++] = (byte)s.charAt(i);
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the UTF-8 encoding of the given text, or "null" if it is null.
+     *
+     * @param s
+     *
+     * @return
+     */
+    public LogBuffer append(CharSequence s)
+    {
+        if (s == null)
+        {
+            return appendAscii("null");
+        }
+
+        return append(s, 0, s.length());
+    }
+
+    /**
+     * Appends the UTF-8 encoding of the given range of characters.
+     *
+     * @param s
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     *
+     * @return
+     */
+    public LogBuffer append(CharSequence s, int start, int end)
+    {
+        ensureCapacity(end - start);
+
+        byte[] b = this.bytes;
+        int pos = this.length;
+        int i = start;
+
+        // fast path for ASCII text, which doesn't need any capacity checks
+        while (i < end)
+        {
+            char c = s.charAt(i);
+
+            if (c >= 0x80)
+            {
+                break;
+            }
+
+            b[pos++] = (byte)c;
+            i++;
+        }
+
+        this.length = pos;
+
+        if (i < end)
+        {
+            appendUtf8(s, i, end);
+        }
+
+        return this;
+    }
+
+    private void appendUtf8(CharSequence s, int start, int end)
+    {
+        ensureCapacity((end - start) * 3);
+
+        byte[] b = this.bytes;
+        int pos = this.length;
+
+        for (int i = start; i < end; i++)
+        {
+            char c = s.charAt(i);
+
+            if (c < 0x80)
+            {
+                b[pos++] = (byte)c;
+            }
+            else if (c < 0x800)
+            {
+                b[pos++] = (byte)(0xC0 | (c >> 6));
+                b[pos++] = (byte)(0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1)))
+            {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[pos++] = (byte)(0xF0 | (cp >> 18));
+                b[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+                b[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+                b[pos++] = (byte)(0x80 | (cp & 0x3F));
+            }
+            else if (Character.isSurrogate(c))
+            {
+                // unpaired surrogates can't be encoded, the same replacement as String.getBytes is used
+                b[pos++] = (byte)'?';
+            }
+            else
+            {
+                b[pos++] = (byte)(0xE0 | (c >> 12));
+                b[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                b[pos++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+
+        this.length = pos;
+    }
+
+    public LogBuffer append(boolean value)
+    {
+        return appendAscii(value ? "true" : "false");
+    }
+
+    public LogBuffer append(int value)
+    {
+        return append((long)value);
+    }
+
+    /**
+     * Appends the decimal digits of the given value.
+     *
+     * @param value
+     *
+     * @return
+     */
+    public LogBuffer append(long value)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            return append(MIN_LONG);
+        }
+
+        ensureCapacity(20);
+
+        if (value < 0)
+        {
+            this.bytes[this.length++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+
+        for (long v = value; v >= 10; v /= 10)
+        {
+            digits++;
+        }
+
+        int pos = this.length + digits;
+        this.length = pos;
+
+        do
+        {
+            this.bytes[--pos] = (byte)('0' + value % 10);
+            value /= 10;
+        }
+        while (value > 0);
+
+        return this;
+    }
+
+    /**
+     * Appends the given value, padded with leading zeros to the given number of digits.
+     *
+     * @param value A non negative value.
+     * @param width
+     *
+     * @return
+     */
+    public LogBuffer appendPadded(long value, int width)
+    {
+        ensureCapacity(width);
+
+        int digits = 1;
+
+        for (long v = value; v >= 10; v /= 10)
+        {
+            digits++;
+        }
+
+        for (int i = digits; i < width; i++)
+        {
+            this.bytes[this.length++] = '0';
+        }
+
+        return append(value);
+    }
+
+    /**
+     * Appends the given value like {@link Double#toString(double)} would.
+     * <p>
+     * Values in the range in which {@link Double#toString(double)} doesn't use the scientific notation are written
+     * digit by digit with the shortest number of fraction digits that still identifies the value. All other values
+     * fall back to {@link Double#toString(double)}.
+     *
+     * @param value
+     *
+     * @return
+     */
+    public LogBuffer append(double value)
+    {
+        if (value == 0)
+        {
+            return appendAscii(Double.doubleToRawLongBits(value) < 0 ? "-0.0" : "0.0");
+        }
+
+        double abs = Math.abs(value);
+
+        if (abs >= 1e-3 && abs < 1e7)
+        {
+            for (int precision = 1; precision < POWERS_OF_TEN.length; precision++)
+            {
+                double scale = POWERS_OF_TEN[precision];
+
+                if (abs * scale >= MAX_EXACT_DOUBLE)
+                {
+                    break;
+                }
+
+                long scaled = Math.round(abs * scale);
+
+                // both operands are exact, so the division is correctly rounded and matches only if the digits
+                // identify the value
+                if (scaled / scale == abs)
+                {
+                    long fraction = scaled % LONG_POWERS_OF_TEN[precision];
+                    int fractionDigits = precision;
+
+                    while (fractionDigits > 1 && fraction % 10 == 0)
+                    {
+                        fraction /= 10;
+                        fractionDigits--;
+                    }
+
+                    if (value < 0)
+                    {
+                        append((byte)'-');
+                    }
+
+                    append(scaled / LONG_POWERS_OF_TEN[precision]);
+                    append((byte)'.');
+                    return appendPadded(fraction, fractionDigits);
+                }
+            }
+        }
+
+        return appendAscii(Double.toString(value));
+    }
+
+    /**
+     * Writes the content of this buffer to the given stream.
+     *
+     * @param out
+     *
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException
+    {
+        out.write(this.bytes, 0, this.length);
+    }
+
+    /**
+     * Creates a copy of the content of this buffer.
+     *
+     * @return
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf(this.bytes, this.length);
+    }
+
+    /**
+     * Decodes the content of this buffer.
+     *
+     * @return
+     */
+    @Override
+    public String toString()
+    {
+        return new String(this.bytes, 0, this.length, StandardCharsets.UTF_8);
+    }
+}
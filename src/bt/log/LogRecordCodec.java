@@ -0,0 +1,442 @@
+package bt.log;
+
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Encodes {@link BtLogRecord}s into a compact binary form and restores them again.
+ * <p>
+ * Numbers are written as variable length integers and strings as UTF-8. The already formatted message is kept,
+ * parameters, key value pairs and markers of a record are encoded for formatters that output them separately.
+ * Numbers and booleans keep their value, all other values are restored as their String representation. Logged
+ * throwables are restored as {@link RecordedThrowable}s.
+ * <p>
+ * Instances reuse an internal buffer and are therefore not thread safe.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public final class LogRecordCodec
+{
+    /**
+     * The maximum number of encoded causes of a throwable, which guards against cyclic cause chains.
+     */
+    private static final int MAX_CAUSE_DEPTH = 32;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_INTEGRAL = 1;
+    private static final int VALUE_DECIMAL = 2;
+    private static final int VALUE_BOOLEAN = 3;
+    private static final int VALUE_STRING = 4;
+
+    private byte[] buffer = new byte[256];
+    private int position;
+    private byte[] input;
+    private int inputPosition;
+
+    /**
+     * Encodes the given record.
+     *
+     * @param record
+     *
+     * @return A new array holding the encoded record.
+     */
+    @SuppressWarnings("deprecation")
+    public byte[] encode(BtLogRecord record)
+    {
+        this.position = 0;
+
+        writeVarLong(record.getSequenceNumber());
+        writeVarLong(record.getInstant().getEpochSecond());
+        writeVarLong(record.getInstant().getNano());
+        writeVarLong(record.getLevel().intValue());
+        writeVarLong(record.getThreadID());
+        writeString(record.getLoggerName());
+        writeString(record.getThreadName());
+        writeString(record.getSourceClassName());
+        writeString(record.getSourceMethodName());
+        // messages with primitive arguments are restored from their format instead, messages with object
+        // arguments are rendered, since the arguments themselves are only encoded as values
+        String primitiveFormat = record.hasObjectArguments() ? null : record.getFormat();
+        writeString(primitiveFormat != null ? null : record.getMessage());
+
+        CallerLocation location = record.getCallerLocation();
+        writeBoolean(location != null);
+
+        if (location != null)
+        {
+            writeString(location.getClassName());
+            writeString(location.getMethodName());
+            writeString(location.getDescriptor());
+            writeVarLong(location.getLineNumber() + 2L);
+        }
+
+        MDCContext context = record.getMdcContext() != null ? record.getMdcContext() : MDCContext.EMPTY;
+        writeVarLong(context.size());
+
+        for (int i = 0; i < context.size(); i++)
+        {
+            writeString(context.getKey(i));
+            writeString(context.getValue(i));
+        }
+
+        writeParameters(record.getParameters());
+        writeString(primitiveFormat);
+
+        if (primitiveFormat != null)
+        {
+            writeVarLong(record.getPrimitiveArgumentCount());
+            writeVarLong(record.getDoubleMask());
+            writeVarLong(record.getArgumentBits(0));
+            writeVarLong(record.getArgumentBits(1));
+        }
+
+        List<KeyValuePair> pairs = record.getKeyValuePairs();
+        writeVarLong(pairs.size());
+
+        for (KeyValuePair pair : pairs)
+        {
+            writeString(pair.key);
+            writeValue(pair.value);
+        }
+
+        // markers are written by name, since their ids are only valid within the current process
+        MarkerSet markers = record.getMarkers();
+
+        for (int id = markers.nextId(0); id >= 0; id = markers.nextId(id + 1))
+        {
+            writeString(MarkerIds.nameOf(id));
+        }
+
+        writeString(null);
+        writeThrowable(record.getThrown(), 0);
+
+        return Arrays.copyOf(this.buffer, this.position);
+    }
+
+    /**
+     * Restores a record from the given encoded form.
+     *
+     * @param data
+     *
+     * @return
+     */
+    @SuppressWarnings("deprecation")
+    public BtLogRecord decode(byte[] data)
+    {
+        this.input = data;
+        this.inputPosition = 0;
+
+        try
+        {
+            long sequence = readVarLong();
+            Instant instant = Instant.ofEpochSecond(readVarLong(), readVarLong());
+            Level level = Level.parse(String.valueOf(readVarLong()));
+            int threadId = (int)readVarLong();
+            String loggerName = readString();
+            String threadName = readString();
+            String sourceClass = readString();
+            String sourceMethod = readString();
+
+            var record = new BtLogRecord(level, readString());
+            record.setSequenceNumber(sequence);
+            record.setInstant(instant);
+            record.setThreadID(threadId);
+            record.setLoggerName(loggerName);
+            record.setThreadName(threadName);
+            record.setSourceClassName(sourceClass);
+            record.setSourceMethodName(sourceMethod);
+
+            if (readBoolean())
+            {
+                record.setCallerLocation(new CallerLocation(readString(), readString(), readString(), (int)(readVarLong() - 2)));
+            }
+
+            int contextSize = (int)readVarLong();
+            var keys = new String[contextSize];
+            var values = new String[contextSize];
+
+            for (int i = 0; i < contextSize; i++)
+            {
+                keys[i] = readString();
+                values[i] = readString();
+            }
+
+            record.setMdcContext(contextSize == 0 ? MDCContext.EMPTY : new MDCContext(keys, values));
+            record.setParameters(readParameters());
+
+            String format = readString();
+
+            if (format != null)
+            {
+                record.setPrimitiveArguments(format, (int)readVarLong(), (int)readVarLong(), readVarLong(), readVarLong());
+            }
+
+            int pairCount = (int)readVarLong();
+
+            if (pairCount > 0)
+            {
+                var pairs = new ArrayList<KeyValuePair>(pairCount);
+
+                for (int i = 0; i < pairCount; i++)
+                {
+                    pairs.add(new KeyValuePair(readString(), readValue()));
+                }
+
+                record.setKeyValuePairs(pairs);
+            }
+
+            MarkerSet markers = MarkerSet.EMPTY;
+
+            for (String marker = readString(); marker != null; marker = readString())
+            {
+                markers = markers.with(MarkerIds.idOf(marker));
+            }
+
+            record.setMarkers(markers);
+            record.setThrown(readThrowable());
+
+            return record;
+        }
+        finally
+        {
+            this.input = null;
+        }
+    }
+
+    /**
+     * Reads the sequence number of an encoded record without decoding the rest of it.
+     *
+     * @param data
+     *
+     * @return
+     */
+    public static long readSequenceNumber(byte[] data)
+    {
+        long value = 0;
+
+        for (int i = 0, shift = 0; i < data.length; i++, shift += 7)
+        {
+            value |= (long)(data[i] & 0x7F) << shift;
+
+            if ((data[i] & 0x80) == 0)
+            {
+                break;
+            }
+        }
+
+        return value;
+    }
+
+    private void writeParameters(Object[] parameters)
+    {
+        if (parameters == null)
+        {
+            writeVarLong(0);
+            return;
+        }
+
+        writeVarLong(parameters.length + 1L);
+
+        for (Object parameter : parameters)
+        {
+            writeValue(parameter);
+        }
+    }
+
+    private void writeValue(Object value)
+    {
+        if (value == null)
+        {
+            writeVarLong(VALUE_NULL);
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            writeVarLong(VALUE_INTEGRAL);
+            long integral = ((Number)value).longValue();
+            // zigzag encoding keeps small negative values short
+            writeVarLong((integral << 1) ^ (integral >> 63));
+        }
+        else if (value instanceof Double || value instanceof Float)
+        {
+            writeVarLong(VALUE_DECIMAL);
+            writeVarLong(Double.doubleToRawLongBits(((Number)value).doubleValue()));
+        }
+        else if (value instanceof Boolean)
+        {
+            writeVarLong(VALUE_BOOLEAN);
+            writeBoolean((Boolean)value);
+        }
+        else
+        {
+            writeVarLong(VALUE_STRING);
+            writeString(ObjectRenderers.toString(value));
+        }
+    }
+
+    private Object[] readParameters()
+    {
+        int count = (int)readVarLong() - 1;
+
+        if (count < 0)
+        {
+            return null;
+        }
+
+        var parameters = new Object[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            parameters[i] = readValue();
+        }
+
+        return parameters;
+    }
+
+    private Object readValue()
+    {
+        switch ((int)readVarLong())
+        {
+            case VALUE_INTEGRAL:
+                long value = readVarLong();
+                return (value >>> 1) ^ -(value & 1);
+            case VALUE_DECIMAL:
+                return Double.longBitsToDouble(readVarLong());
+            case VALUE_BOOLEAN:
+                return readBoolean();
+            case VALUE_STRING:
+                return readString();
+            default:
+                return null;
+        }
+    }
+
+    private void writeThrowable(Throwable t, int depth)
+    {
+        writeBoolean(t != null && depth < MAX_CAUSE_DEPTH);
+
+        if (t == null || depth >= MAX_CAUSE_DEPTH)
+        {
+            return;
+        }
+
+        writeString(t instanceof RecordedThrowable ? ((RecordedThrowable)t).getClassName() : t.getClass().getName());
+        writeString(t.getMessage());
+
+        StackTraceElement[] frames = t.getStackTrace();
+        writeVarLong(frames.length);
+
+        for (StackTraceElement frame : frames)
+        {
+            writeString(frame.getClassName());
+            writeString(frame.getMethodName());
+            writeString(frame.getFileName());
+            writeVarLong(frame.getLineNumber() + 2L);
+        }
+
+        writeThrowable(t.getCause() == t ? null : t.getCause(), depth + 1);
+    }
+
+    private Throwable readThrowable()
+    {
+        if (!readBoolean())
+        {
+            return null;
+        }
+
+        String className = readString();
+        String message = readString();
+        var frames = new StackTraceElement[(int)readVarLong()];
+
+        for (int i = 0; i < frames.length; i++)
+        {
+            frames[i] = new StackTraceElement(readString(), readString(), readString(), (int)(readVarLong() - 2));
+        }
+
+        return new RecordedThrowable(className, message, frames, readThrowable());
+    }
+
+    private void ensureCapacity(int additional)
+    {
+        if (this.position + additional > this.buffer.length)
+        {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.position + additional));
+        }
+    }
+
+    private void writeBoolean(boolean value)
+    {
+        ensureCapacity(1);
+        this.buffer[this.position++] = (byte)(value ? 1 : 0);
+    }
+
+    private void writeVarLong(long value)
+    {
+        ensureCapacity(10);
+
+        while ((value & ~0x7FL) != 0)
+        {
+            this.buffer[this.position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.buffer[this.position++] = (byte)value;
+    }
+
+    private void writeString(String value)
+    {
+        if (value == null)
+        {
+            writeVarLong(0);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+        this.position += bytes.length;
+    }
+
+    private boolean readBoolean()
+    {
+        return this.input[this.inputPosition++] != 0;
+    }
+
+    private long readVarLong()
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+
+        do
+        {
+            b = this.input[this.inputPosition++];
+            value |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    private String readString()
+    {
+        int length = (int)readVarLong() - 1;
+
+        if (length < 0)
+        {
+            return null;
+        }
+
+        String value = new String(this.input, this.inputPosition, length, StandardCharsets.UTF_8);
+        this.inputPosition += length;
+        return value;
+    }
+}
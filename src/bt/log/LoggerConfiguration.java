@@ -1,5 +1,7 @@
 package bt.log;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
@@ -45,6 +47,56 @@ public class LoggerConfiguration
      */
     private boolean printLogLevel = true;
 
+    /**
+     * Indicates whether log entries should contain the sequence number of the record.
+     */
+    private boolean printSequenceNumber;
+
+    /**
+     * The keys of the diagnostic context values which should be contained in log entries.
+     */
+    private String[] mdcKeys;
+
+    /**
+     * The maximum number of stack frames which are printed per logged throwable.
+     */
+    private int maxStackFrames = Integer.MAX_VALUE;
+
+    /**
+     * The maximum number of causes and suppressed throwables which are printed below a logged throwable.
+     */
+    private int maxCauseDepth = 32;
+
+    /**
+     * A list of packages whose consecutive stack frames are collapsed into a single line.
+     */
+    private String[] collapsedFramePackages;
+
+    /**
+     * The maximum number of UTF-8 encoded bytes of a log message, longer messages are truncated.
+     */
+    private int maxMessageSize = Integer.MAX_VALUE;
+
+    /**
+     * The interval in milliseconds in which batched console output is flushed, 0 if console output is not batched.
+     */
+    private long consoleFlushInterval;
+
+    /**
+     * The time in milliseconds during which a repeated stack trace is only referenced instead of printed in full.
+     */
+    private long stackTraceDedupWindow;
+
+    /**
+     * The maximum number of stack traces which are tracked to detect repetitions.
+     */
+    private int stackTraceDedupEntries = 1024;
+
+    /**
+     * The keys of the built-in formatters which use this configuration, one per formatter class.
+     */
+    private final Map<Class<?>, FormatKey> formatKeys = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance.
      */
@@ -53,6 +105,8 @@ public class LoggerConfiguration
         this.level = Level.ALL;
         this.invalidCallerClasses = new Class<?>[0];
         this.invalidCallerPackages = new String[0];
+        this.mdcKeys = new String[0];
+        this.collapsedFramePackages = new String[0];
     }
 
     public Level getLevel()
@@ -90,6 +144,51 @@ public class LoggerConfiguration
         return printLogLevel;
     }
 
+    public boolean isPrintSequenceNumber()
+    {
+        return printSequenceNumber;
+    }
+
+    public String[] getMdcKeys()
+    {
+        return mdcKeys;
+    }
+
+    public int getMaxStackFrames()
+    {
+        return maxStackFrames;
+    }
+
+    public int getMaxCauseDepth()
+    {
+        return maxCauseDepth;
+    }
+
+    public String[] getCollapsedFramePackages()
+    {
+        return collapsedFramePackages;
+    }
+
+    public int getMaxMessageSize()
+    {
+        return maxMessageSize;
+    }
+
+    public long getConsoleFlushInterval()
+    {
+        return consoleFlushInterval;
+    }
+
+    public long getStackTraceDedupWindow()
+    {
+        return stackTraceDedupWindow;
+    }
+
+    public int getStackTraceDedupEntries()
+    {
+        return stackTraceDedupEntries;
+    }
+
     /**
      * Sets the loglevel of this configuration.
      *
@@ -180,4 +279,144 @@ public class LoggerConfiguration
         this.printLogLevel = value;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the flag for the sequence number in the log entries of this configuration.
+     * <p>
+     * Sequence numbers show the order in which entries were logged, even if an {@link AsyncLoggerHandler} published
+     * them in a different order, for example entries of its priority lane.
+     *
+     * @param value
+     *
+     * @return
+     */
+    public LoggerConfiguration printSequenceNumber(boolean value)
+    {
+        this.printSequenceNumber = value;
+        return this;
+    }
+
+    /**
+     * Sets the keys of the diagnostic context values that should be contained in the log entries of this
+     * configuration.
+     *
+     * @param keys
+     *
+     * @return
+     */
+    public LoggerConfiguration mdcKeys(String... keys)
+    {
+        this.mdcKeys = keys;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of stack frames which are printed per logged throwable.
+     *
+     * @param maxFrames
+     *
+     * @return
+     */
+    public LoggerConfiguration maxStackFrames(int maxFrames)
+    {
+        this.maxStackFrames = maxFrames;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of causes and suppressed throwables which are printed below a logged throwable.
+     *
+     * @param maxDepth
+     *
+     * @return
+     */
+    public LoggerConfiguration maxCauseDepth(int maxDepth)
+    {
+        this.maxCauseDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Sets the packages whose consecutive stack frames are collapsed into a single line, for example
+     * "jdk.internal.reflect" and "com.sun.proxy".
+     *
+     * @param packages
+     *
+     * @return
+     */
+    public LoggerConfiguration collapsedFramePackages(String... packages)
+    {
+        this.collapsedFramePackages = packages;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of UTF-8 encoded bytes of a log message. Longer messages are cut off and marked as
+     * truncated, the stack trace of a logged throwable is not affected.
+     *
+     * @param bytes
+     *
+     * @return
+     */
+    public LoggerConfiguration maxMessageSize(int bytes)
+    {
+        this.maxMessageSize = bytes;
+        return this;
+    }
+
+    /**
+     * Enables batched console output for {@link ConsoleLoggerHandler}s. Entries are collected and written to the
+     * standard output and error streams of the process in the given interval, SEVERE entries are written
+     * immediately. An interval of 0 prints every entry via System.out or System.err instead.
+     *
+     * @param millis
+     *
+     * @return
+     */
+    public LoggerConfiguration consoleFlushInterval(long millis)
+    {
+        this.consoleFlushInterval = millis;
+        return this;
+    }
+
+    /**
+     * Enables the deduplication of repeated stack traces. The first occurrence of a stack trace within the given
+     * window is printed in full together with a short hash, later occurrences only print the throwable and a
+     * reference to that hash. A window of 0 disables the deduplication.
+     *
+     * @param millis
+     *
+     * @return
+     */
+    public LoggerConfiguration stackTraceDedupWindow(long millis)
+    {
+        this.stackTraceDedupWindow = millis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of stack traces which are tracked to detect repetitions. If more distinct stack
+     * traces are logged, the least recently logged ones are forgotten.
+     *
+     * @param entries
+     *
+     * @return
+     */
+    public LoggerConfiguration stackTraceDedupEntries(int entries)
+    {
+        this.stackTraceDedupEntries = entries;
+        return this;
+    }
+
+    /**
+     * Gets the key that is shared by all formatters of the given class which use this configuration.
+     *
+     * @param formatterClass
+     *
+     * @return
+     */
+    FormatKey getFormatKey(Class<?> formatterClass)
+    {
+        return this.formatKeys.computeIfAbsent(formatterClass, cls -> new FormatKey());
+    }
+}
@@ -0,0 +1,264 @@
+package bt.log;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * An immutable map of diagnostic context values, as used by {@link BtMDCAdapter}.
+ * <p>
+ * Every modification creates a new context and leaves the original one untouched, so a context can be captured
+ * by simply keeping a reference to it. This makes it cheap to attach the context to every log entry and safe
+ * to read it from other threads, for example from the consumer of an {@link AsyncLoggerHandler}.
+ * <p>
+ * Keys are kept sorted in an array, since diagnostic contexts usually only contain a handful of values.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public final class MDCContext implements Serializable
+{
+    private static final long serialVersionUID = -3129873514823609384L;
+
+    /**
+     * The context without any values.
+     */
+    public static final MDCContext EMPTY = new MDCContext(new String[0], new String[0]);
+
+    private final String[] keys;
+    private final String[] values;
+
+    /**
+     * Creates a new instance which takes ownership of the given arrays.
+     *
+     * @param keys   The keys in ascending order.
+     * @param values The values in the order of their keys.
+     */
+    MDCContext(String[] keys, String[] values)
+    {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Creates a context holding all values of the given map.
+     *
+     * @param map
+     *
+     * @return
+     */
+    public static MDCContext of(Map<String, String> map)
+    {
+        if (map == null || map.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        var sorted = new TreeMap<>(map);
+        sorted.remove(null);
+
+        return new MDCContext(sorted.keySet().toArray(new String[0]), sorted.values().toArray(new String[0]));
+    }
+
+    /**
+     * Gets the context of the current thread.
+     *
+     * @return
+     */
+    public static MDCContext current()
+    {
+        return BtMDCAdapter.getContext();
+    }
+
+    /**
+     * Wraps the given task so that it runs with the context of the current thread, regardless of the thread that
+     * executes it. The previous context of the executing thread is restored afterwards.
+     *
+     * @param task
+     *
+     * @return
+     */
+    public static Runnable wrap(Runnable task)
+    {
+        MDCContext context = current();
+
+        return () ->
+        {
+            MDCContext previous = BtMDCAdapter.setContext(context);
+
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                BtMDCAdapter.setContext(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps the given task so that it runs with the context of the current thread, regardless of the thread that
+     * executes it. The previous context of the executing thread is restored afterwards.
+     *
+     * @param task
+     *
+     * @return
+     */
+    public static <T> Callable<T> wrap(Callable<T> task)
+    {
+        MDCContext context = current();
+
+        return () ->
+        {
+            MDCContext previous = BtMDCAdapter.setContext(context);
+
+            try
+            {
+                return task.call();
+            }
+            finally
+            {
+                BtMDCAdapter.setContext(previous);
+            }
+        };
+    }
+
+    /**
+     * Gets the value of the given key.
+     *
+     * @param key
+     *
+     * @return The value or null if this context does not contain the key.
+     */
+    public String get(String key)
+    {
+        int index = key == null ? -1 : Arrays.binarySearch(this.keys, key);
+        return index >= 0 ? this.values[index] : null;
+    }
+
+    /**
+     * Creates a context that holds all values of this context and the given value.
+     *
+     * @param key
+     * @param value
+     *
+     * @return
+     */
+    public MDCContext with(String key, String value)
+    {
+        int index = Arrays.binarySearch(this.keys, key);
+
+        if (index >= 0)
+        {
+            String[] newValues = this.values.clone();
+            newValues[index] = value;
+            return new MDCContext(this.keys, newValues);
+        }
+
+        int insert = -index - 1;
+        var newKeys = new String[this.keys.length + 1];
+        var newValues = new String[this.values.length + 1];
+
+        System.arraycopy(this.keys, 0, newKeys, 0, insert);
+        System.arraycopy(this.values, 0, newValues, 0, insert);
+        newKeys[insert] = key;
+        newValues[insert] = value;
+        System.arraycopy(this.keys, insert, newKeys, insert + 1, this.keys.length - insert);
+        System.arraycopy(this.values, insert, newValues, insert + 1, this.values.length - insert);
+
+        return new MDCContext(newKeys, newValues);
+    }
+
+    /**
+     * Creates a context that holds all values of this context except the one of the given key.
+     *
+     * @param key
+     *
+     * @return
+     */
+    public MDCContext without(String key)
+    {
+        int index = key == null ? -1 : Arrays.binarySearch(this.keys, key);
+
+        if (index < 0)
+        {
+            return this;
+        }
+
+        if (this.keys.length == 1)
+        {
+            return EMPTY;
+        }
+
+        var newKeys = new String[this.keys.length - 1];
+        var newValues = new String[this.values.length - 1];
+
+        System.arraycopy(this.keys, 0, newKeys, 0, index);
+        System.arraycopy(this.values, 0, newValues, 0, index);
+        System.arraycopy(this.keys, index + 1, newKeys, index, newKeys.length - index);
+        System.arraycopy(this.values, index + 1, newValues, index, newValues.length - index);
+
+        return new MDCContext(newKeys, newValues);
+    }
+
+    public int size()
+    {
+        return this.keys.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.keys.length == 0;
+    }
+
+    /**
+     * Gets the key at the given index. Keys are sorted in ascending order.
+     *
+     * @param index
+     *
+     * @return
+     */
+    public String getKey(int index)
+    {
+        return this.keys[index];
+    }
+
+    /**
+     * Gets the value of the key at the given index.
+     *
+     * @param index
+     *
+     * @return
+     */
+    public String getValue(int index)
+    {
+        return this.values[index];
+    }
+
+    /**
+     * Creates a mutable copy of this context.
+     *
+     * @return
+     */
+    public Map<String, String> toMap()
+    {
+        var map = new TreeMap<String, String>();
+
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            map.put(this.keys[i], this.values[i]);
+        }
+
+        return map;
+    }
+
+    @Override
+    public String toString()
+    {
+        return isEmpty() ? Collections.emptyMap().toString() : toMap().toString();
+    }
+}
@@ -0,0 +1,94 @@
+package bt.log;
+
+import java.util.logging.Filter;
+import java.util.logging.LogRecord;
+
+/**
+ * A filter that accepts or rejects log entries by their markers.
+ * <p>
+ * Handlers with this filter are also skipped by the {@link RoutingTable} of the loggers of this framework, which only
+ * tests the {@link MarkerSet} of an entry against the sets of this filter. For example, entries marked as AUDIT can be
+ * published to a dedicated handler and kept out of all others:
+ * <pre>
+ * auditHandler.setFilter(MarkerFilter.accept("AUDIT"));
+ * consoleHandler.setFilter(MarkerFilter.deny("AUDIT"));
+ * Log.refreshRouting();
+ * </pre>
+ * Records that were not created by this framework don't have any markers.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public final class MarkerFilter implements Filter
+{
+    /**
+     * The markers of which an entry needs at least one, null if unmarked entries are accepted as well.
+     */
+    private final MarkerSet accepted;
+
+    /**
+     * The markers of which an entry must not have any.
+     */
+    private final MarkerSet denied;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param accepted The markers of which an entry needs at least one. Null to accept entries without markers.
+     * @param denied   The markers of which an entry must not have any.
+     */
+    public MarkerFilter(MarkerSet accepted, MarkerSet denied)
+    {
+        this.accepted = accepted;
+        this.denied = denied != null ? denied : MarkerSet.EMPTY;
+    }
+
+    /**
+     * Creates a filter that only accepts entries with at least one of the given markers, including markers that
+     * reference them.
+     *
+     * @param markers
+     *
+     * @return
+     */
+    public static MarkerFilter accept(String... markers)
+    {
+        return new MarkerFilter(MarkerSet.of(markers), null);
+    }
+
+    /**
+     * Creates a filter that accepts all entries except those with any of the given markers, including markers that
+     * reference them.
+     *
+     * @param markers
+     *
+     * @return
+     */
+    public static MarkerFilter deny(String... markers)
+    {
+        return new MarkerFilter(null, MarkerSet.of(markers));
+    }
+
+    /**
+     * Checks whether entries with the given markers are accepted.
+     *
+     * @param markers
+     *
+     * @return
+     */
+    public boolean accepts(MarkerSet markers)
+    {
+        if (markers.intersects(this.denied))
+        {
+            return false;
+        }
+
+        return this.accepted == null || markers.intersects(this.accepted);
+    }
+
+    @Override
+    public boolean isLoggable(LogRecord record)
+    {
+        return accepts(record instanceof BtLogRecord ? ((BtLogRecord)record).getMarkers() : MarkerSet.EMPTY);
+    }
+}
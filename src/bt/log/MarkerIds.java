@@ -0,0 +1,182 @@
+package bt.log;
+
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assigns small integer ids to marker names, so that the markers of log entries can be kept and tested as a
+ * {@link MarkerSet}.
+ * <p>
+ * Ids are assigned in the order in which marker names are first seen and never change while the JVM is running.
+ * Markers without references are cached by identity, since markers are usually constants, so that resolving them
+ * doesn't even look up their name.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public final class MarkerIds
+{
+    /**
+     * The number of slots of the marker cache, a power of 2.
+     */
+    static final int CACHE_SIZE = 256;
+
+    /**
+     * The maximum depth of marker references that are resolved, which guards against cyclic references.
+     */
+    static final int MAX_REFERENCE_DEPTH = 16;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static final Resolved[] CACHE = new Resolved[CACHE_SIZE];
+    private static volatile String[] names = new String[0];
+
+    private MarkerIds()
+    {
+    }
+
+    /**
+     * Gets the id of the marker with the given name, assigning a new id if the name wasn't seen before.
+     *
+     * @param name
+     *
+     * @return
+     */
+    public static int idOf(String name)
+    {
+        Integer id = IDS.get(name);
+
+        if (id != null)
+        {
+            return id;
+        }
+
+        LOCK.lock();
+
+        try
+        {
+            id = IDS.get(name);
+
+            if (id == null)
+            {
+                id = names.length;
+                String[] newNames = Arrays.copyOf(names, id + 1);
+                newNames[id] = name;
+                names = newNames;
+                IDS.put(name, id);
+            }
+
+            return id;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Gets the name of the marker with the given id.
+     *
+     * @param id
+     *
+     * @return The name or null if the id was not assigned.
+     */
+    public static String nameOf(int id)
+    {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * Gets the set of the given marker and all markers that it references, directly or indirectly.
+     *
+     * @param marker The marker. May be null.
+     *
+     * @return The set, {@link MarkerSet#EMPTY} if the marker is null.
+     */
+    public static MarkerSet resolve(Marker marker)
+    {
+        if (marker == null)
+        {
+            return MarkerSet.EMPTY;
+        }
+
+        // references can be added at any time, so only markers without them are cached
+        if (marker.hasReferences())
+        {
+            return resolve(marker, MarkerSet.EMPTY, 0);
+        }
+
+        int slot = System.identityHashCode(marker) & (CACHE_SIZE - 1);
+        Resolved resolved = CACHE[slot];
+
+        if (resolved == null || resolved.marker != marker)
+        {
+            resolved = new Resolved(marker, MarkerSet.EMPTY.with(idOf(marker.getName())));
+            CACHE[slot] = resolved;
+        }
+
+        return resolved.markers;
+    }
+
+    /**
+     * Resolves the given markers, including their references.
+     *
+     * @param markers The markers. May be null.
+     *
+     * @return
+     */
+    public static MarkerSet resolve(Iterable<Marker> markers)
+    {
+        MarkerSet set = MarkerSet.EMPTY;
+
+        if (markers != null)
+        {
+            for (Marker marker : markers)
+            {
+                set = resolve(marker, set, 0);
+            }
+        }
+
+        return set;
+    }
+
+    private static MarkerSet resolve(Marker marker, MarkerSet set, int depth)
+    {
+        int id = idOf(marker.getName());
+
+        if (set.contains(id) || depth > MAX_REFERENCE_DEPTH)
+        {
+            return set;
+        }
+
+        set = set.with(id);
+
+        for (Iterator<Marker> references = marker.iterator(); references.hasNext(); )
+        {
+            set = resolve(references.next(), set, depth + 1);
+        }
+
+        return set;
+    }
+
+    /**
+     * A marker and its set, published as a single immutable object.
+     */
+    private static final class Resolved
+    {
+        private final Marker marker;
+        private final MarkerSet markers;
+
+        private Resolved(Marker marker, MarkerSet markers)
+        {
+            this.marker = marker;
+            this.markers = markers;
+        }
+    }
+}
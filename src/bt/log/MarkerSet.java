@@ -0,0 +1,204 @@
+package bt.log;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of markers, stored as a bitset of their ids as assigned by {@link MarkerIds}.
+ * <p>
+ * Membership and intersection tests only compare the bits of the sets, which is a single long comparison as long as
+ * less than 64 different markers are used.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public final class MarkerSet
+{
+    /**
+     * The set without any markers, which is the set of all unmarked entries.
+     */
+    public static final MarkerSet EMPTY = new MarkerSet(new long[0]);
+
+    private final long[] words;
+
+    private MarkerSet(long[] words)
+    {
+        this.words = words;
+    }
+
+    /**
+     * Gets the set of the markers with the given names. References between markers are not resolved, see
+     * {@link MarkerIds#resolve(org.slf4j.Marker)} for that.
+     *
+     * @param names
+     *
+     * @return
+     */
+    public static MarkerSet of(String... names)
+    {
+        MarkerSet set = EMPTY;
+
+        for (String name : names)
+        {
+            set = set.with(MarkerIds.idOf(name));
+        }
+
+        return set;
+    }
+
+    /**
+     * Gets a set which additionally contains the marker with the given id.
+     *
+     * @param id
+     *
+     * @return This set if it already contains the marker.
+     */
+    public MarkerSet with(int id)
+    {
+        if (contains(id))
+        {
+            return this;
+        }
+
+        long[] words = Arrays.copyOf(this.words, Math.max(this.words.length, (id >>> 6) + 1));
+        words[id >>> 6] |= 1L << id;
+        return new MarkerSet(words);
+    }
+
+    /**
+     * Checks whether this set contains the marker with the given id.
+     *
+     * @param id
+     *
+     * @return
+     */
+    public boolean contains(int id)
+    {
+        int word = id >>> 6;
+        return word < this.words.length && (this.words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * Checks whether this set contains the marker with the given name.
+     *
+     * @param name
+     *
+     * @return
+     */
+    public boolean contains(String name)
+    {
+        return contains(MarkerIds.idOf(name));
+    }
+
+    /**
+     * Checks whether this set and the given set have at least one marker in common.
+     *
+     * @param other
+     *
+     * @return
+     */
+    public boolean intersects(MarkerSet other)
+    {
+        int length = Math.min(this.words.length, other.words.length);
+
+        for (int i = 0; i < length; i++)
+        {
+            if ((this.words[i] & other.words[i]) != 0)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isEmpty()
+    {
+        for (long word : this.words)
+        {
+            if (word != 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the smallest id of this set which is greater than or equal to the given id.
+     *
+     * @param from
+     *
+     * @return The id or -1 if there is none.
+     */
+    public int nextId(int from)
+    {
+        for (int word = from >>> 6; word < this.words.length; word++)
+        {
+            long bits = word == from >>> 6 ? this.words[word] & (-1L << from) : this.words[word];
+
+            if (bits != 0)
+            {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+
+        if (!(o instanceof MarkerSet))
+        {
+            return false;
+        }
+
+        var other = (MarkerSet)o;
+        int length = Math.max(this.words.length, other.words.length);
+
+        for (int i = 0; i < length; i++)
+        {
+            long a = i < this.words.length ? this.words[i] : 0;
+            long b = i < other.words.length ? other.words[i] : 0;
+
+            if (a != b)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        long hash = 0;
+
+        for (int i = 0; i < this.words.length; i++)
+        {
+            hash ^= this.words[i] * (i + 1);
+        }
+
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString()
+    {
+        var str = new StringBuilder("[");
+
+        for (int id = nextId(0); id >= 0; id = nextId(id + 1))
+        {
+            str.append(str.length() > 1 ? ", " : "").append(MarkerIds.nameOf(id));
+        }
+
+        return str.append(']').toString();
+    }
+}
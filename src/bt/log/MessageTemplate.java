@@ -0,0 +1,198 @@
+package bt.log;
+
+/**
+ * A message format that was parsed into its literal segments and placeholders, so that messages can be rendered
+ * without scanning the format again.
+ * <p>
+ * Templates are obtained via {@link #of(String)}, which caches them by the identity of the format String. Since
+ * formats are usually String literals, every log statement parses its format only once. The cache has a fixed
+ * number of slots and simply replaces the template of a slot on a collision.
+ * <p>
+ * Rendering follows the same rules as the MessageFormatter of SLF4J: every "{}" is replaced by the next argument,
+ * "\{}" escapes the placeholder, "\\{}" is an escaped backslash followed by a placeholder, and once all arguments
+ * are used up, the rest of the format is written as it is, including any escapes.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public final class MessageTemplate
+{
+    /**
+     * The number of slots of the template cache, a power of 2.
+     */
+    public static final int CACHE_SIZE = 4096;
+
+    private static final MessageTemplate[] CACHE = new MessageTemplate[CACHE_SIZE];
+
+    private static final byte PLACEHOLDER = 0;
+    private static final byte ESCAPED_PLACEHOLDER = 1;
+    private static final byte ESCAPED_BACKSLASH = 2;
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final byte[] NO_KINDS = new byte[0];
+
+    private final String format;
+
+    /**
+     * The positions of every "{}" in the format.
+     */
+    private final int[] positions;
+
+    /**
+     * The kind of every "{}" in the format.
+     */
+    private final byte[] kinds;
+
+    private final int placeholderCount;
+
+    private MessageTemplate(String format)
+    {
+        this.format = format;
+
+        int count = 0;
+
+        for (int i = format.indexOf("{}"); i >= 0; i = format.indexOf("{}", i + 2))
+        {
+            count++;
+        }
+
+        this.positions = count == 0 ? NO_POSITIONS : new int[count];
+        this.kinds = count == 0 ? NO_KINDS : new byte[count];
+
+        int site = 0;
+        int placeholders = 0;
+
+        for (int i = format.indexOf("{}"); i >= 0; i = format.indexOf("{}", i + 2))
+        {
+            byte kind;
+
+            if (i > 0 && format.charAt(i - 1) == '\\')
+            {
+                kind = i > 1 && format.charAt(i - 2) == '\\' ? ESCAPED_BACKSLASH : ESCAPED_PLACEHOLDER;
+            }
+            else
+            {
+                kind = PLACEHOLDER;
+            }
+
+            if (kind != ESCAPED_PLACEHOLDER)
+            {
+                placeholders++;
+            }
+
+            this.positions[site] = i;
+            this.kinds[site++] = kind;
+        }
+
+        this.placeholderCount = placeholders;
+    }
+
+    /**
+     * Gets the template of the given format, parsing it only if it is not cached yet.
+     *
+     * @param format
+     *
+     * @return
+     */
+    public static MessageTemplate of(String format)
+    {
+        int slot = System.identityHashCode(format) & (CACHE_SIZE - 1);
+        MessageTemplate template = CACHE[slot];
+
+        if (template == null || template.format != format)
+        {
+            // templates are immutable, so a racing thread can at worst replace an equal template
+            template = new MessageTemplate(format);
+            CACHE[slot] = template;
+        }
+
+        return template;
+    }
+
+    public String getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Gets the number of placeholders that consume an argument.
+     *
+     * @return
+     */
+    public int getPlaceholderCount()
+    {
+        return this.placeholderCount;
+    }
+
+    /**
+     * Renders the message with the given arguments, which are written via the {@link ObjectRenderers}.
+     *
+     * @param buffer
+     * @param arguments The arguments. May be null.
+     */
+    public void render(LogBuffer buffer, Object[] arguments)
+    {
+        render(buffer, arguments != null ? arguments.length : 0, null, arguments);
+    }
+
+    /**
+     * Renders the message with the arguments of the given record.
+     *
+     * @param buffer
+     * @param count  The number of arguments of the record.
+     * @param record
+     */
+    void render(LogBuffer buffer, int count, BtLogRecord record)
+    {
+        render(buffer, count, record, null);
+    }
+
+    private void render(LogBuffer buffer, int count, BtLogRecord record, Object[] arguments)
+    {
+        String format = this.format;
+        int start = 0;
+        int argument = 0;
+
+        for (int site = 0; site < this.positions.length && argument < count; site++)
+        {
+            int position = this.positions[site];
+
+            switch (this.kinds[site])
+            {
+                case PLACEHOLDER:
+                    buffer.append(format, start, position);
+                    appendArgument(buffer, argument++, record, arguments);
+                    start = position + 2;
+                    break;
+
+                case ESCAPED_PLACEHOLDER:
+                    // the backslash is dropped, the placeholder is written as it is
+                    buffer.append(format, start, position - 1);
+                    buffer.appendAscii('{');
+                    start = position + 1;
+                    break;
+
+                default:
+                    // one of the two backslashes is dropped
+                    buffer.append(format, start, position - 1);
+                    appendArgument(buffer, argument++, record, arguments);
+                    start = position + 2;
+                    break;
+            }
+        }
+
+        buffer.append(format, start, format.length());
+    }
+
+    private static void appendArgument(LogBuffer buffer, int index, BtLogRecord record, Object[] arguments)
+    {
+        if (record != null)
+        {
+            record.appendArgument(index, buffer);
+        }
+        else
+        {
+            ObjectRenderers.render(arguments[index], buffer);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package bt.log;
+
+/**
+ * Renders objects of a specific type into a {@link LogBuffer} when they are logged as arguments.
+ * <p>
+ * Renderers are registered via {@link ObjectRenderers#register(Class, ObjectRenderer)}, for example to write a
+ * compact representation of a domain type instead of its potentially huge {@link Object#toString()}. Nested values
+ * should be rendered via {@link ObjectRenderers#render(Object, LogBuffer)}, so that the limits for arrays and
+ * collections apply to them as well.
+ *
+ * @param <T> The type of the rendered objects.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+@FunctionalInterface
+public interface ObjectRenderer<T>
+{
+    /**
+     * Appends a representation of the given value.
+     *
+     * @param value  The value, never null.
+     * @param buffer
+     */
+    void render(T value, LogBuffer buffer);
+}
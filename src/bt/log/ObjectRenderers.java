@@ -0,0 +1,477 @@
+package bt.log;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of {@link ObjectRenderer}s that are used to render logged arguments.
+ * <p>
+ * The renderer of a class is resolved once and cached via a {@link ClassValue}. A renderer that was registered for
+ * the class itself is preferred, followed by renderers of its superclasses and then of its interfaces. Classes
+ * without a registered renderer use the built-in renderers:
+ * <ul>
+ * <li>arrays, collections and maps are rendered element by element like {@link java.util.Arrays#toString(Object[])}
+ * and {@link java.util.AbstractCollection#toString()} would, but with at most {@link #getMaxElements()} elements
+ * and about {@link #getMaxSize()} bytes</li>
+ * <li>strings and integral numbers are written directly into the buffer</li>
+ * <li>all other objects are rendered via {@link String#valueOf(Object)}</li>
+ * </ul>
+ * Nested arrays and collections are rendered up to a depth of {@value #MAX_DEPTH}.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public final class ObjectRenderers
+{
+    /**
+     * The maximum depth of nested arrays, collections and maps that are rendered element by element.
+     */
+    public static final int MAX_DEPTH = 8;
+
+    private static final Map<Class<?>, ObjectRenderer<?>> REGISTERED = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Nesting> NESTING = ThreadLocal.withInitial(Nesting::new);
+
+    /**
+     * The resolved renderers, replaced whenever the registered renderers change.
+     */
+    private static volatile ClassValue<ObjectRenderer<Object>> resolved = createCache();
+
+    private static volatile int maxElements = 100;
+    private static volatile int maxSize = 8192;
+
+    private ObjectRenderers()
+    {
+    }
+
+    /**
+     * Registers a renderer for the given type and its subtypes, replacing any renderer that was previously
+     * registered for the same type.
+     *
+     * @param type
+     * @param renderer
+     * @param <T>
+     */
+    public static <T> void register(Class<T> type, ObjectRenderer<? super T> renderer)
+    {
+        REGISTERED.put(type, renderer);
+        resolved = createCache();
+    }
+
+    /**
+     * Removes the renderer that was registered for the given type.
+     *
+     * @param type
+     */
+    public static void unregister(Class<?> type)
+    {
+        if (REGISTERED.remove(type) != null)
+        {
+            resolved = createCache();
+        }
+    }
+
+    public static int getMaxElements()
+    {
+        return maxElements;
+    }
+
+    /**
+     * Sets the maximum number of elements that are rendered per array, collection or map. Further elements are
+     * only counted.
+     *
+     * @param elements
+     */
+    public static void setMaxElements(int elements)
+    {
+        maxElements = elements;
+    }
+
+    public static int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets the approximate maximum number of bytes of a rendered array, collection or map including all of its
+     * nested values. Once the limit is exceeded, no further elements are rendered.
+     *
+     * @param bytes
+     */
+    public static void setMaxSize(int bytes)
+    {
+        maxSize = bytes;
+    }
+
+    /**
+     * Appends the given value with the renderer that is registered for its class.
+     * <p>
+     * Exceptions thrown while rendering are not propagated, the value is marked as failed instead, just like
+     * SLF4J does for failing {@link Object#toString()} calls.
+     *
+     * @param value
+     * @param buffer
+     */
+    public static void render(Object value, LogBuffer buffer)
+    {
+        if (value == null)
+        {
+            buffer.appendAscii("null");
+            return;
+        }
+
+        int start = buffer.length();
+
+        try
+        {
+            resolved.get(value.getClass()).render(value, buffer);
+        }
+        catch (RuntimeException e)
+        {
+            buffer.setLength(start);
+            buffer.appendAscii("[FAILED toString()]");
+        }
+    }
+
+    /**
+     * Renders the given value into a String.
+     *
+     * @param value
+     *
+     * @return
+     */
+    public static String toString(Object value)
+    {
+        LogBuffer buffer = LogBuffer.acquire();
+
+        try
+        {
+            render(value, buffer);
+            return buffer.toString();
+        }
+        finally
+        {
+            LogBuffer.release(buffer);
+        }
+    }
+
+    private static ClassValue<ObjectRenderer<Object>> createCache()
+    {
+        return new ClassValue<>()
+        {
+            @Override
+            protected ObjectRenderer<Object> computeValue(Class<?> type)
+            {
+                return resolve(type);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectRenderer<Object> resolve(Class<?> type)
+    {
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass())
+        {
+            ObjectRenderer<?> renderer = REGISTERED.get(cls);
+
+            if (renderer != null)
+            {
+                return (ObjectRenderer<Object>)renderer;
+            }
+        }
+
+        // interfaces are searched breadth first, so that the most specific interfaces are found first
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass())
+        {
+            for (Class<?> itf : cls.getInterfaces())
+            {
+                interfaces.add(itf);
+            }
+        }
+
+        while (!interfaces.isEmpty())
+        {
+            Class<?> itf = interfaces.poll();
+            ObjectRenderer<?> renderer = REGISTERED.get(itf);
+
+            if (renderer != null)
+            {
+                return (ObjectRenderer<Object>)renderer;
+            }
+
+            for (Class<?> superInterface : itf.getInterfaces())
+            {
+                interfaces.add(superInterface);
+            }
+        }
+
+        return builtIn(type);
+    }
+
+    private static ObjectRenderer<Object> builtIn(Class<?> type)
+    {
+        if (type.isArray())
+        {
+            return ObjectRenderers::renderArray;
+        }
+        else if (Collection.class.isAssignableFrom(type))
+        {
+            return (value, buffer) -> renderCollection((Collection<?>)value, buffer);
+        }
+        else if (Map.class.isAssignableFrom(type))
+        {
+            return (value, buffer) -> renderMap((Map<?, ?>)value, buffer);
+        }
+        else if (type == String.class || type == StringBuilder.class)
+        {
+            return (value, buffer) -> buffer.append((CharSequence)value);
+        }
+        else if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class)
+        {
+            return (value, buffer) -> buffer.append(((Number)value).longValue());
+        }
+        else if (type == Double.class)
+        {
+            return (value, buffer) -> buffer.append(((Double)value).doubleValue());
+        }
+        else if (type == Boolean.class)
+        {
+            return (value, buffer) -> buffer.append(((Boolean)value).booleanValue());
+        }
+
+        return (value, buffer) -> buffer.append(String.valueOf(value));
+    }
+
+    private static void renderArray(Object array, LogBuffer buffer)
+    {
+        int length = Array.getLength(array);
+        Nesting nesting = enter(buffer);
+
+        try
+        {
+            if (nesting.depth > MAX_DEPTH)
+            {
+                buffer.appendAscii("[...]");
+                return;
+            }
+
+            buffer.appendAscii('[');
+
+            for (int i = 0; i < length; i++)
+            {
+                if (i > 0)
+                {
+                    buffer.appendAscii(", ");
+                }
+
+                if (i == maxElements || buffer.length() > nesting.limit)
+                {
+                    appendOmitted(length - i, buffer);
+                    break;
+                }
+
+                appendElement(array, i, buffer);
+            }
+
+            buffer.appendAscii(']');
+        }
+        finally
+        {
+            nesting.depth--;
+        }
+    }
+
+    private static void appendElement(Object array, int index, LogBuffer buffer)
+    {
+        if (array instanceof Object[])
+        {
+            Object element = ((Object[])array)[index];
+
+            // the same replacement as SLF4J uses for self references
+            if (element == array)
+            {
+                buffer.appendAscii("[...]");
+            }
+            else
+            {
+                render(element, buffer);
+            }
+        }
+        else if (array instanceof int[])
+        {
+            buffer.append(((int[])array)[index]);
+        }
+        else if (array instanceof long[])
+        {
+            buffer.append(((long[])array)[index]);
+        }
+        else if (array instanceof byte[])
+        {
+            buffer.append((long)((byte[])array)[index]);
+        }
+        else if (array instanceof short[])
+        {
+            buffer.append(((short[])array)[index]);
+        }
+        else if (array instanceof double[])
+        {
+            buffer.append(((double[])array)[index]);
+        }
+        else if (array instanceof char[])
+        {
+            buffer.append(((char[])array)[index]);
+        }
+        else if (array instanceof boolean[])
+        {
+            buffer.append(((boolean[])array)[index]);
+        }
+        else
+        {
+            buffer.append(String.valueOf(((float[])array)[index]));
+        }
+    }
+
+    private static void renderCollection(Collection<?> collection, LogBuffer buffer)
+    {
+        Nesting nesting = enter(buffer);
+
+        try
+        {
+            if (nesting.depth > MAX_DEPTH)
+            {
+                buffer.appendAscii("[...]");
+                return;
+            }
+
+            buffer.appendAscii('[');
+            int i = 0;
+
+            for (Object element : collection)
+            {
+                if (i > 0)
+                {
+                    buffer.appendAscii(", ");
+                }
+
+                if (i == maxElements || buffer.length() > nesting.limit)
+                {
+                    appendOmitted(collection.size() - i, buffer);
+                    break;
+                }
+
+                if (element == collection)
+                {
+                    buffer.appendAscii("(this Collection)");
+                }
+                else
+                {
+                    render(element, buffer);
+                }
+
+                i++;
+            }
+
+            buffer.appendAscii(']');
+        }
+        finally
+        {
+            nesting.depth--;
+        }
+    }
+
+    private static void renderMap(Map<?, ?> map, LogBuffer buffer)
+    {
+        Nesting nesting = enter(buffer);
+
+        try
+        {
+            if (nesting.depth > MAX_DEPTH)
+            {
+                buffer.appendAscii("{...}");
+                return;
+            }
+
+            buffer.appendAscii('{');
+            int i = 0;
+
+            for (Map.Entry<?, ?> entry : map.entrySet())
+            {
+                if (i > 0)
+                {
+                    buffer.appendAscii(", ");
+                }
+
+                if (i == maxElements || buffer.length() > nesting.limit)
+                {
+                    appendOmitted(map.size() - i, buffer);
+                    break;
+                }
+
+                if (entry.getKey() == map)
+                {
+                    buffer.appendAscii("(this Map)");
+                }
+                else
+                {
+                    render(entry.getKey(), buffer);
+                }
+
+                buffer.appendAscii('=');
+
+                if (entry.getValue() == map)
+                {
+                    buffer.appendAscii("(this Map)");
+                }
+                else
+                {
+                    render(entry.getValue(), buffer);
+                }
+
+                i++;
+            }
+
+            buffer.appendAscii('}');
+        }
+        finally
+        {
+            nesting.depth--;
+        }
+    }
+
+    private static void appendOmitted(int count, LogBuffer buffer)
+    {
+        buffer.appendAscii("... ");
+        buffer.append(count);
+        buffer.appendAscii(" more");
+    }
+
+    /**
+     * Enters a nested array, collection or map. The outermost one defines the size limit for all nested values.
+     */
+    private static Nesting enter(LogBuffer buffer)
+    {
+        Nesting nesting = NESTING.get();
+
+        if (nesting.depth++ == 0)
+        {
+            nesting.limit = buffer.length() + maxSize;
+        }
+
+        return nesting;
+    }
+
+    /**
+     * The nesting of the arrays, collections and maps that are currently rendered by a thread.
+     */
+    private static final class Nesting
+    {
+        private int depth;
+        private int limit;
+    }
+}
@@ -0,0 +1,20 @@
+package bt.log;
+
+/**
+ * Defines the unit in which the capacity of an {@link AsyncLoggerHandler} queue is measured.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public enum QueueLimit
+{
+    /**
+     * The capacity is the maximum number of queued log entries.
+     */
+    EVENTS,
+
+    /**
+     * The capacity is the maximum number of queued bytes, based on {@link BtLogRecord#getEncodedSizeEstimate()}.
+     */
+    BYTES
+}
@@ -0,0 +1,64 @@
+package bt.log;
+
+/**
+ * A throwable that was restored from its encoded form, for example after being spilled to disk by an
+ * {@link AsyncLoggerHandler}.
+ * <p>
+ * The original throwable class is not instantiated. Instead this class keeps its name and prints itself
+ * exactly like the original throwable would have, including the stack trace and all causes.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+public class RecordedThrowable extends Throwable
+{
+    private static final long serialVersionUID = 6790356458102346235L;
+
+    /**
+     * The fully qualified class name of the original throwable.
+     */
+    private final String className;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param className  The fully qualified class name of the original throwable.
+     * @param message    The message of the original throwable.
+     * @param stackTrace The stack trace of the original throwable.
+     * @param cause      The restored cause of the original throwable or null.
+     */
+    public RecordedThrowable(String className, String message, StackTraceElement[] stackTrace, Throwable cause)
+    {
+        super(message, cause, false, true);
+        this.className = className;
+        setStackTrace(stackTrace);
+    }
+
+    /**
+     * Gets the fully qualified class name of the original throwable.
+     *
+     * @return
+     */
+    public String getClassName()
+    {
+        return this.className;
+    }
+
+    /**
+     * Does nothing, since the stack trace is set from the original throwable.
+     *
+     * @return this instance.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        String message = getLocalizedMessage();
+        return message != null ? this.className + ": " + message : this.className;
+    }
+}
@@ -0,0 +1,428 @@
+package bt.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Filter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * The handlers that accept entries of each SLF4J level for a specific JDK logger, computed once from the level of
+ * the logger, its handlers and the handlers of its parents.
+ * <p>
+ * {@link Logger#log(LogRecord)} checks the level of the logger, walks its handlers and those of its parents and
+ * calls every handler, which checks its own level again. With a routing table, dispatching an entry only takes the
+ * precomputed handlers of its level, and a level without any accepting handler is disabled entirely, so that no
+ * record is created for it.
+ * <p>
+ * All tables become outdated when {@link #invalidateAll()} is called, which happens whenever {@link Log} configures
+ * the logger, when the {@link LogManager} reads its configuration and when {@link Log#refreshRouting()} is called.
+ * Each use only compares a version number for that. Changes via the JDK API, like {@link Logger#setLevel(Level)},
+ * {@link Logger#addHandler(Handler)} or {@link Handler#setLevel(Level)}, are detected by comparing a snapshot of
+ * the loggers and handlers that a table was computed from, which copies the handler arrays and is therefore only
+ * done on every {@value #SNAPSHOT_CHECK_INTERVAL}th use. Code that changes loggers or handlers directly should call
+ * {@link Log#refreshRouting()} afterwards, so that the change applies to the very next entry.
+ * <p>
+ * Handlers with a {@link MarkerFilter} are only called for entries whose {@link MarkerSet} is accepted by the
+ * filter, which is tested here with the bitsets of the markers. Whether any handler accepts entries without markers
+ * is precomputed per level as well, so that unmarked entries are disabled just as cheaply.
+ * <p>
+ * Loggers with a {@link java.util.logging.Filter} and levels other than the five SLF4J levels are dispatched via
+ * {@link Logger#log(LogRecord)} as usual.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+final class RoutingTable
+{
+    private static final Level[] LEVELS = { Level.FINEST, Level.FINE, Level.INFO, Level.WARNING, Level.SEVERE };
+    private static final Handler[] NO_HANDLERS = new Handler[0];
+    private static final MarkerFilter[] NO_FILTERS = new MarkerFilter[0];
+
+    /**
+     * The number of uses of a table after which its snapshot is compared to the loggers and handlers.
+     */
+    static final int SNAPSHOT_CHECK_INTERVAL = 64;
+
+    /**
+     * Increased whenever the configuration of any logger might have changed.
+     */
+    private static final AtomicInteger VERSION = new AtomicInteger();
+
+    static
+    {
+        try
+        {
+            LogManager.getLogManager().addConfigurationListener(RoutingTable::invalidateAll);
+        }
+        catch (RuntimeException e)
+        {
+            // the log manager is not available on some platforms, tables are then only rebuilt on explicit calls
+        }
+    }
+
+    private final int version;
+
+    /**
+     * The accepting handlers per level, null if entries have to be dispatched via the logger.
+     */
+    private final Handler[][] routes;
+
+    /**
+     * The marker filters of the handlers in {@link #routes}, null for handlers without one.
+     */
+    private final MarkerFilter[][] filters;
+
+    /**
+     * Whether any handler accepts entries without markers, per level.
+     */
+    private final boolean[] unmarked;
+
+    private final Snapshot snapshot;
+
+    /**
+     * The number of uses since the snapshot was last compared. Races only delay the next comparison.
+     */
+    private int checks;
+
+    private RoutingTable(int version, Snapshot snapshot, Handler[][] routes, MarkerFilter[][] filters, boolean[] unmarked)
+    {
+        this.version = version;
+        this.snapshot = snapshot;
+        this.routes = routes;
+        this.filters = filters;
+        this.unmarked = unmarked;
+    }
+
+    /**
+     * Computes the routing table of the given logger.
+     *
+     * @param logger
+     *
+     * @return
+     */
+    static RoutingTable build(Logger logger)
+    {
+        // the version and the snapshot are taken first, so that a concurrent change leaves this table outdated
+        int version = VERSION.get();
+        var snapshot = new Snapshot(logger);
+
+        // the logger only checks its own filter, not the ones of its parents
+        if (logger.getFilter() != null)
+        {
+            return new RoutingTable(version, snapshot, null, null, null);
+        }
+
+        List<Handler> handlers = new ArrayList<>();
+
+        for (Handler[] loggerHandlers : snapshot.handlers)
+        {
+            for (Handler handler : loggerHandlers)
+            {
+                handlers.add(handler);
+            }
+        }
+
+        int loggerLevel = getEffectiveLevel(logger);
+        var routes = new Handler[LEVELS.length][];
+        var filters = new MarkerFilter[LEVELS.length][];
+        var unmarked = new boolean[LEVELS.length];
+
+        for (int i = 0; i < LEVELS.length; i++)
+        {
+            routes[i] = findHandlers(handlers, loggerLevel, LEVELS[i].intValue());
+            filters[i] = routes[i].length > 0 ? new MarkerFilter[routes[i].length] : NO_FILTERS;
+
+            for (int j = 0; j < routes[i].length; j++)
+            {
+                if (routes[i][j].getFilter() instanceof MarkerFilter)
+                {
+                    filters[i][j] = (MarkerFilter)routes[i][j].getFilter();
+                }
+
+                unmarked[i] |= filters[i][j] == null || filters[i][j].accepts(MarkerSet.EMPTY);
+            }
+        }
+
+        return new RoutingTable(version, snapshot, routes, filters, unmarked);
+    }
+
+    private static Handler[] findHandlers(List<Handler> handlers, int loggerLevel, int level)
+    {
+        if (level < loggerLevel || loggerLevel == Level.OFF.intValue())
+        {
+            return NO_HANDLERS;
+        }
+
+        List<Handler> accepting = new ArrayList<>(handlers.size());
+
+        for (Handler handler : handlers)
+        {
+            int handlerLevel = handler.getLevel().intValue();
+
+            if (level >= handlerLevel && handlerLevel != Level.OFF.intValue())
+            {
+                accepting.add(handler);
+            }
+        }
+
+        return accepting.isEmpty() ? NO_HANDLERS : accepting.toArray(NO_HANDLERS);
+    }
+
+    private static int getEffectiveLevel(Logger logger)
+    {
+        for (Logger current = logger; current != null; current = current.getParent())
+        {
+            if (current.getLevel() != null)
+            {
+                return current.getLevel().intValue();
+            }
+        }
+
+        return Level.INFO.intValue();
+    }
+
+    /**
+     * Marks all routing tables as outdated, so that they are rebuilt on their next use.
+     */
+    static void invalidateAll()
+    {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Checks whether this table still reflects the current configuration.
+     *
+     * @param logger The logger of this table.
+     *
+     * @return
+     */
+    boolean isCurrent(Logger logger)
+    {
+        if (this.version != VERSION.get())
+        {
+            return false;
+        }
+
+        if (++this.checks >= SNAPSHOT_CHECK_INTERVAL)
+        {
+            this.checks = 0;
+            return this.snapshot.matches(logger);
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether any handler accepts entries of the given level.
+     *
+     * @param logger The logger of this table.
+     * @param level
+     *
+     * @return
+     */
+    boolean isLoggable(Logger logger, Level level)
+    {
+        int index = indexOf(level);
+
+        if (this.routes == null || index < 0)
+        {
+            return logger.isLoggable(level);
+        }
+
+        return this.routes[index].length > 0;
+    }
+
+    /**
+     * Checks whether any handler accepts entries of the given level with the given markers.
+     *
+     * @param logger  The logger of this table.
+     * @param level
+     * @param markers
+     *
+     * @return
+     */
+    boolean isLoggable(Logger logger, Level level, MarkerSet markers)
+    {
+        int index = indexOf(level);
+
+        if (this.routes == null || index < 0)
+        {
+            return logger.isLoggable(level);
+        }
+
+        if (markers.isEmpty())
+        {
+            return this.unmarked[index];
+        }
+
+        for (MarkerFilter filter : this.filters[index])
+        {
+            if (filter == null || filter.accepts(markers))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Publishes the given record to all handlers that accept its level and its markers.
+     *
+     * @param logger The logger of this table.
+     * @param record
+     */
+    void dispatch(Logger logger, LogRecord record)
+    {
+        int index = indexOf(record.getLevel());
+
+        if (this.routes == null || index < 0)
+        {
+            logger.log(record);
+            return;
+        }
+
+        Handler[] handlers = this.routes[index];
+        MarkerFilter[] filters = this.filters[index];
+        MarkerSet markers = record instanceof BtLogRecord ? ((BtLogRecord)record).getMarkers() : MarkerSet.EMPTY;
+
+        for (int i = 0; i < handlers.length; i++)
+        {
+            if (filters[i] == null || filters[i].accepts(markers))
+            {
+                handlers[i].publish(record);
+            }
+        }
+    }
+
+    private static int indexOf(Level level)
+    {
+        for (int i = 0; i < LEVELS.length; i++)
+        {
+            if (LEVELS[i] == level)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The configuration of a logger and its parents that a table was computed from.
+     */
+    private static final class Snapshot
+    {
+        /**
+         * The logger and the parents whose handlers it uses.
+         */
+        private final Logger[] loggers;
+        private final Logger[] parents;
+        private final Level[] levels;
+        private final Filter[] loggerFilters;
+        private final boolean[] useParentHandlers;
+        private final Handler[][] handlers;
+        private final Handler[] allHandlers;
+        private final Level[] handlerLevels;
+        private final Filter[] handlerFilters;
+
+        private Snapshot(Logger logger)
+        {
+            List<Logger> loggers = new ArrayList<>();
+
+            // the effective level can be inherited from any parent, so all of them are kept
+            for (Logger current = logger; current != null; current = current.getParent())
+            {
+                loggers.add(current);
+            }
+
+            this.loggers = loggers.toArray(new Logger[0]);
+            this.parents = new Logger[this.loggers.length];
+            this.levels = new Level[this.loggers.length];
+            this.loggerFilters = new Filter[this.loggers.length];
+            this.useParentHandlers = new boolean[this.loggers.length];
+            this.handlers = new Handler[this.loggers.length][];
+            List<Handler> allHandlers = new ArrayList<>();
+            boolean inherited = true;
+
+            for (int i = 0; i < this.loggers.length; i++)
+            {
+                Logger current = this.loggers[i];
+                this.parents[i] = current.getParent();
+                this.levels[i] = current.getLevel();
+                this.loggerFilters[i] = current.getFilter();
+                this.useParentHandlers[i] = current.getUseParentHandlers();
+                this.handlers[i] = inherited ? current.getHandlers() : NO_HANDLERS;
+
+                for (Handler handler : this.handlers[i])
+                {
+                    allHandlers.add(handler);
+                }
+
+                inherited &= this.useParentHandlers[i];
+            }
+
+            this.allHandlers = allHandlers.toArray(NO_HANDLERS);
+            this.handlerLevels = new Level[this.allHandlers.length];
+            this.handlerFilters = new Filter[this.allHandlers.length];
+
+            for (int i = 0; i < this.allHandlers.length; i++)
+            {
+                this.handlerLevels[i] = this.allHandlers[i].getLevel();
+                this.handlerFilters[i] = this.allHandlers[i].getFilter();
+            }
+        }
+
+        /**
+         * Compares the current configuration of the loggers and handlers with this snapshot.
+         *
+         * @param logger
+         *
+         * @return
+         */
+        private boolean matches(Logger logger)
+        {
+            if (logger != this.loggers[0])
+            {
+                return false;
+            }
+
+            for (int i = 0; i < this.loggers.length; i++)
+            {
+                Logger current = this.loggers[i];
+
+                if (current.getParent() != this.parents[i] || current.getLevel() != this.levels[i]
+                        || current.getFilter() != this.loggerFilters[i]
+                        || current.getUseParentHandlers() != this.useParentHandlers[i])
+                {
+                    return false;
+                }
+            }
+
+            for (int i = 0; i < this.allHandlers.length; i++)
+            {
+                if (this.allHandlers[i].getLevel() != this.handlerLevels[i]
+                        || this.allHandlers[i].getFilter() != this.handlerFilters[i])
+                {
+                    return false;
+                }
+            }
+
+            for (int i = 0; i < this.loggers.length; i++)
+            {
+                if (this.handlers[i] != NO_HANDLERS && !Arrays.equals(this.loggers[i].getHandlers(), this.handlers[i]))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
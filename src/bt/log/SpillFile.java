@@ -0,0 +1,190 @@
+package bt.log;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A circular FIFO of byte frames inside a memory mapped file, used by an {@link AsyncLoggerHandler} to spill
+ * encoded log entries once its in-memory queue is full.
+ * <p>
+ * Every frame consists of its length followed by the payload. Frames are never split at the end of the file,
+ * instead a wrap marker is written and the frame continues at the start of the file.
+ * <p>
+ * This class is not thread safe, callers have to synchronize access themselves.
+ *
+ * @author Lukas Hartwig
+ * @since 18.10.2026
+ */
+final class SpillFile
+{
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int WRAP_MARKER = -1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int readPosition;
+    private int writePosition;
+    private int used;
+    private long count;
+
+    /**
+     * Creates the file at the given path, replacing any existing file, and maps it into memory.
+     *
+     * @param path
+     * @param capacity The size of the file in bytes.
+     *
+     * @throws IOException
+     */
+    SpillFile(Path path, int capacity) throws IOException
+    {
+        this.path = path;
+        this.capacity = capacity;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Checks whether a frame with the given payload size could ever be stored in this file.
+     *
+     * @param size
+     *
+     * @return
+     */
+    boolean fits(int size)
+    {
+        return size + LENGTH_SIZE * 2 <= this.capacity;
+    }
+
+    boolean isEmpty()
+    {
+        return this.count == 0;
+    }
+
+    /**
+     * Gets the number of frames in this file.
+     *
+     * @return
+     */
+    long size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Appends the given payload as a new frame.
+     *
+     * @param payload
+     *
+     * @return false if there is currently not enough free space, true otherwise.
+     */
+    boolean write(byte[] payload)
+    {
+        int frameSize = LENGTH_SIZE + payload.length;
+        int tail = this.capacity - this.writePosition;
+
+        if (frameSize > tail)
+        {
+            if (this.capacity - this.used < tail + frameSize)
+            {
+                return false;
+            }
+
+            if (tail >= LENGTH_SIZE)
+            {
+                this.buffer.putInt(this.writePosition, WRAP_MARKER);
+            }
+
+            this.used += tail;
+            this.writePosition = 0;
+        }
+        else if (this.capacity - this.used < frameSize)
+        {
+            return false;
+        }
+
+        this.buffer.putInt(this.writePosition, payload.length);
+        this.buffer.position(this.writePosition + LENGTH_SIZE);
+        this.buffer.put(payload);
+        this.writePosition += frameSize;
+        this.used += frameSize;
+        this.count++;
+
+        return true;
+    }
+
+    /**
+     * Gets the payload of the oldest frame without removing it.
+     *
+     * @return The payload or null if this file is empty.
+     */
+    byte[] peek()
+    {
+        if (isEmpty())
+        {
+            return null;
+        }
+
+        skipWrap();
+
+        var payload = new byte[this.buffer.getInt(this.readPosition)];
+        this.buffer.position(this.readPosition + LENGTH_SIZE);
+        this.buffer.get(payload);
+
+        return payload;
+    }
+
+    /**
+     * Removes the oldest frame.
+     */
+    void remove()
+    {
+        if (isEmpty())
+        {
+            return;
+        }
+
+        skipWrap();
+
+        int frameSize = LENGTH_SIZE + this.buffer.getInt(this.readPosition);
+        this.readPosition += frameSize;
+        this.used -= frameSize;
+        this.count--;
+
+        if (this.count == 0)
+        {
+            // start over at the beginning to avoid unnecessary wraps
+            this.readPosition = 0;
+            this.writePosition = 0;
+            this.used = 0;
+        }
+    }
+
+    private void skipWrap()
+    {
+        int tail = this.capacity - this.readPosition;
+
+        if (tail < LENGTH_SIZE || this.buffer.getInt(this.readPosition) == WRAP_MARKER)
+        {
+            this.used -= tail;
+            this.readPosition = 0;
+        }
+    }
+
+    /**
+     * Unmaps the file as far as possible and deletes it.
+     *
+     * @throws IOException
+     */
+    void close() throws IOException
+    {
+        this.channel.close();
+        Files.deleteIfExists(this.path);
+    }
+}
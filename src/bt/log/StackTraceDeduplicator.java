@@ -0,0 +1,177 @@
+package bt.log;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of recently logged stack traces, so that a repeated stack trace is printed in full only once per time
+ * window.
+ * <p>
+ * Stack traces are identified by a fingerprint of the class names and stack frames of the throwable, its causes and
+ * its suppressed throwables. Messages are not part of the fingerprint, since they often contain varying values like
+ * ids. The first occurrence of a fingerprint within a window is printed in full, tagged with a {@link #shortHash(long)
+ * short hash}, later occurrences only reference that hash.
+ * <p>
+ * The number of tracked fingerprints is bounded, the least recently seen fingerprint is evicted first.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class StackTraceDeduplicator
+{
+    /**
+     * The maximum number of throwables of a single stack trace that are included in its fingerprint, which also
+     * protects against circular causes.
+     */
+    private static final int MAX_FINGERPRINT_THROWABLES = 64;
+
+    private final long window;
+    private final Map<Long, Occurrences> occurrences;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a new instance with the window and number of tracked stack traces of the given configuration.
+     *
+     * @param config
+     */
+    public StackTraceDeduplicator(LoggerConfiguration config)
+    {
+        this(config.getStackTraceDedupWindow(), config.getStackTraceDedupEntries());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param window     The time in milliseconds after which a repeated stack trace is printed in full again.
+     * @param maxEntries The maximum number of tracked stack traces.
+     */
+    public StackTraceDeduplicator(long window, int maxEntries)
+    {
+        this.window = window;
+        this.occurrences = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Occurrences> eldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Registers an occurrence of the stack trace with the given fingerprint.
+     *
+     * @param fingerprint The fingerprint as returned by {@link #fingerprint(Throwable)}.
+     * @param millis      The time of the occurrence.
+     *
+     * @return The number of previous occurrences within the current window. 0 if the stack trace should be printed
+     * in full.
+     */
+    public int register(long fingerprint, long millis)
+    {
+        this.lock.lock();
+
+        try
+        {
+            Occurrences occ = this.occurrences.get(fingerprint);
+
+            if (occ == null)
+            {
+                occ = new Occurrences();
+                this.occurrences.put(fingerprint, occ);
+            }
+            else if (millis - occ.windowStart < this.window)
+            {
+                return ++occ.count;
+            }
+
+            occ.windowStart = millis;
+            occ.count = 0;
+            return 0;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the stack trace of the given throwable, including its causes and suppressed
+     * throwables.
+     *
+     * @param t
+     *
+     * @return
+     */
+    public static long fingerprint(Throwable t)
+    {
+        long hash = 1125899906842597L;
+        Throwable[] pending = new Throwable[8];
+        int pendingCount = 0;
+        int visited = 0;
+
+        pending[pendingCount++] = t;
+
+        while (pendingCount > 0 && visited++ < MAX_FINGERPRINT_THROWABLES)
+        {
+            Throwable current = pending[--pendingCount];
+            String className = current instanceof RecordedThrowable ? ((RecordedThrowable)current).getClassName()
+                                                                    : current.getClass().getName();
+            hash = 31 * hash + className.hashCode();
+
+            for (StackTraceElement frame : current.getStackTrace())
+            {
+                hash = 31 * hash + frame.hashCode();
+            }
+
+            Throwable[] suppressed = current.getSuppressed();
+            Throwable cause = current.getCause();
+
+            if (pendingCount + suppressed.length + 1 > pending.length)
+            {
+                pending = Arrays.copyOf(pending, (pendingCount + suppressed.length + 1) * 2);
+            }
+
+            if (cause != null && cause != current)
+            {
+                pending[pendingCount++] = cause;
+            }
+
+            for (int i = suppressed.length - 1; i >= 0; i--)
+            {
+                pending[pendingCount++] = suppressed[i];
+            }
+
+            // separates the throwables, so that moving a frame to a cause changes the fingerprint
+            hash = 31 * hash + pendingCount;
+        }
+
+        // spreads the bits, so that the short hash depends on the whole fingerprint
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    /**
+     * Formats the given fingerprint as a short hex String that is used to reference a printed stack trace.
+     *
+     * @param fingerprint
+     *
+     * @return
+     */
+    public static String shortHash(long fingerprint)
+    {
+        String hex = Integer.toHexString((int)(fingerprint >>> 32));
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    private static final class Occurrences
+    {
+        private long windowStart;
+        private int count;
+    }
+}
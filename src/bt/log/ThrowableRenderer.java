@@ -0,0 +1,295 @@
+package bt.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders throwables in the format of {@link Throwable#printStackTrace()} directly into a {@link LogBuffer}.
+ * <p>
+ * In addition to the standard format, the number of printed frames per throwable and the number of printed causes
+ * can be limited, and consecutive frames of configured packages, for example of reflection or proxies, can be
+ * collapsed into a single line. Every line is preceded by a given line prefix.
+ * <p>
+ * The encoded text of every unique stack frame is cached, since the same frames are printed over and over again.
+ * The cache is shared by all renderers and is cleared once it reaches {@link #FRAME_CACHE_SIZE} entries.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class ThrowableRenderer
+{
+    /**
+     * The maximum number of cached stack frames.
+     */
+    public static final int FRAME_CACHE_SIZE = 8192;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private static final Map<StackTraceElement, byte[]> FRAME_CACHE = new ConcurrentHashMap<>();
+
+    private final int maxFrames;
+    private final int maxCauseDepth;
+    private final String[] collapsedPackages;
+
+    /**
+     * Creates a new instance with the limits of the given configuration.
+     *
+     * @param config
+     */
+    public ThrowableRenderer(LoggerConfiguration config)
+    {
+        this(config.getMaxStackFrames(), config.getMaxCauseDepth(), config.getCollapsedFramePackages());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxFrames         The maximum number of printed frames per throwable.
+     * @param maxCauseDepth     The maximum number of printed causes and suppressed throwables below a throwable.
+     * @param collapsedPackages Consecutive frames of classes in these packages are collapsed into a single line.
+     */
+    public ThrowableRenderer(int maxFrames, int maxCauseDepth, String... collapsedPackages)
+    {
+        this.maxFrames = maxFrames;
+        this.maxCauseDepth = maxCauseDepth;
+        this.collapsedPackages = collapsedPackages == null ? new String[0] : collapsedPackages;
+    }
+
+    /**
+     * Renders the given throwable including its causes and suppressed throwables.
+     *
+     * @param t
+     * @param buffer     The buffer to append to.
+     * @param linePrefix The encoded prefix of every line. May be null.
+     */
+    public void render(Throwable t, LogBuffer buffer, LogBuffer linePrefix)
+    {
+        render(t, buffer, linePrefix, null);
+    }
+
+    /**
+     * Renders the given throwable including its causes and suppressed throwables.
+     *
+     * @param t
+     * @param buffer     The buffer to append to.
+     * @param linePrefix The encoded prefix of every line. May be null.
+     * @param suffix     A text that is appended to the first line, for example a reference to the stack trace.
+     *                   May be null.
+     */
+    public void render(Throwable t, LogBuffer buffer, LogBuffer linePrefix, String suffix)
+    {
+        Set<Throwable> rendered = Collections.newSetFromMap(new IdentityHashMap<>());
+        render(t, buffer, linePrefix, new StackTraceElement[0], "", "", suffix, 0, rendered);
+    }
+
+    /**
+     * Renders only the first line of the given throwable followed by the given suffix, without any stack frames or
+     * causes.
+     *
+     * @param t
+     * @param buffer     The buffer to append to.
+     * @param linePrefix The encoded prefix of every line. May be null.
+     * @param suffix     A text that is appended to the line. May be null.
+     */
+    public void renderSummary(Throwable t, LogBuffer buffer, LogBuffer linePrefix, String suffix)
+    {
+        startLine(buffer, linePrefix, "");
+        appendText(buffer, linePrefix, t.toString());
+
+        if (suffix != null)
+        {
+            buffer.append(suffix);
+        }
+
+        buffer.append(LINE_SEPARATOR);
+    }
+
+    private void render(Throwable t, LogBuffer buffer, LogBuffer linePrefix, StackTraceElement[] enclosingTrace,
+                        String caption, String indent, String suffix, int depth, Set<Throwable> rendered)
+    {
+        if (!rendered.add(t))
+        {
+            startLine(buffer, linePrefix, indent);
+            buffer.append(caption);
+            buffer.appendAscii("[CIRCULAR REFERENCE: ");
+            appendText(buffer, linePrefix, t.toString());
+            buffer.appendAscii(']');
+            buffer.append(LINE_SEPARATOR);
+            return;
+        }
+
+        StackTraceElement[] trace = t.getStackTrace();
+
+        // frames in common with the enclosing trace are only counted, just like printStackTrace does
+        int last = trace.length - 1;
+
+        for (int i = enclosingTrace.length - 1; last >= 0 && i >= 0 && trace[last].equals(enclosingTrace[i]); i--)
+        {
+            last--;
+        }
+
+        int common = trace.length - 1 - last;
+
+        startLine(buffer, linePrefix, indent);
+        buffer.append(caption);
+        appendText(buffer, linePrefix, t.toString());
+
+        if (suffix != null)
+        {
+            buffer.append(suffix);
+        }
+
+        buffer.append(LINE_SEPARATOR);
+
+        int printed = 0;
+        int collapsed = 0;
+
+        for (int i = 0; i <= last; i++)
+        {
+            if (printed == this.maxFrames)
+            {
+                appendCollapsed(buffer, linePrefix, indent, collapsed);
+                collapsed = 0;
+                startLine(buffer, linePrefix, indent);
+                buffer.appendAscii("\t... ");
+                buffer.append(last + 1 - i);
+                buffer.appendAscii(" frames omitted");
+                buffer.append(LINE_SEPARATOR);
+                break;
+            }
+
+            if (isCollapsed(trace[i]))
+            {
+                collapsed++;
+                continue;
+            }
+
+            appendCollapsed(buffer, linePrefix, indent, collapsed);
+            collapsed = 0;
+            startLine(buffer, linePrefix, indent);
+            buffer.append(getFrameBytes(trace[i]));
+            buffer.append(LINE_SEPARATOR);
+            printed++;
+        }
+
+        appendCollapsed(buffer, linePrefix, indent, collapsed);
+
+        if (common > 0)
+        {
+            startLine(buffer, linePrefix, indent);
+            buffer.appendAscii("\t... ");
+            buffer.append(common);
+            buffer.appendAscii(" more");
+            buffer.append(LINE_SEPARATOR);
+        }
+
+        if (depth >= this.maxCauseDepth)
+        {
+            if (t.getCause() != null || t.getSuppressed().length > 0)
+            {
+                startLine(buffer, linePrefix, indent);
+                buffer.appendAscii("\t... causes omitted");
+                buffer.append(LINE_SEPARATOR);
+            }
+
+            return;
+        }
+
+        for (Throwable suppressed : t.getSuppressed())
+        {
+            render(suppressed, buffer, linePrefix, trace, "Suppressed: ", indent + "\t", null, depth + 1, rendered);
+        }
+
+        if (t.getCause() != null)
+        {
+            render(t.getCause(), buffer, linePrefix, trace, "Caused by: ", indent, null, depth + 1, rendered);
+        }
+    }
+
+    private boolean isCollapsed(StackTraceElement frame)
+    {
+        String className = frame.getClassName();
+
+        for (String pkg : this.collapsedPackages)
+        {
+            if (className.startsWith(pkg))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void appendCollapsed(LogBuffer buffer, LogBuffer linePrefix, String indent, int collapsed)
+    {
+        if (collapsed > 0)
+        {
+            startLine(buffer, linePrefix, indent);
+            buffer.appendAscii("\t... ");
+            buffer.append(collapsed);
+            buffer.appendAscii(collapsed == 1 ? " collapsed frame" : " collapsed frames");
+            buffer.append(LINE_SEPARATOR);
+        }
+    }
+
+    private static void startLine(LogBuffer buffer, LogBuffer linePrefix, String indent)
+    {
+        if (linePrefix != null)
+        {
+            buffer.append(linePrefix);
+        }
+
+        buffer.append(indent);
+    }
+
+    /**
+     * Appends the given text, which might contain line breaks. Every additional line gets the line prefix.
+     */
+    private static void appendText(LogBuffer buffer, LogBuffer linePrefix, String text)
+    {
+        int start = 0;
+        int lineBreak;
+
+        while ((lineBreak = text.indexOf('\n', start)) >= 0)
+        {
+            int end = lineBreak > start && text.charAt(lineBreak - 1) == '\r' ? lineBreak - 1 : lineBreak;
+            buffer.append(text, start, end);
+            buffer.append(LINE_SEPARATOR);
+            startLine(buffer, linePrefix, "");
+            start = lineBreak + 1;
+        }
+
+        buffer.append(text, start, text.length());
+    }
+
+    /**
+     * Gets the encoded line of the given frame without the line separator.
+     *
+     * @param frame
+     *
+     * @return
+     */
+    private static byte[] getFrameBytes(StackTraceElement frame)
+    {
+        byte[] bytes = FRAME_CACHE.get(frame);
+
+        if (bytes == null)
+        {
+            bytes = ("\tat " + frame).getBytes(StandardCharsets.UTF_8);
+
+            if (FRAME_CACHE.size() >= FRAME_CACHE_SIZE)
+            {
+                FRAME_CACHE.clear();
+            }
+
+            FRAME_CACHE.put(frame, bytes);
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,62 @@
+package bt.log;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Detects virtual threads, so that the framework can avoid per thread caches and monitors on them.
+ * <p>
+ * This is the implementation for runtimes before Java 21. It looks up {@link Thread}{@code .isVirtual()} via a method
+ * handle, so that virtual threads are still detected if a jar built without the java21 profile runs on Java 21 or
+ * newer. The multi-release jar contains a Java 21 implementation in META-INF/versions/21, which is compiled from the
+ * src21 folder and calls the method directly.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+final class VirtualThreads
+{
+    /**
+     * Thread.isVirtual(), null if the runtime doesn't have virtual threads.
+     */
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private VirtualThreads()
+    {
+    }
+
+    private static MethodHandle findIsVirtual()
+    {
+        try
+        {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the current thread is a virtual thread.
+     *
+     * @return
+     */
+    static boolean isCurrentVirtual()
+    {
+        if (IS_VIRTUAL == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            return (boolean)IS_VIRTUAL.invokeExact(Thread.currentThread());
+        }
+        catch (Throwable e)
+        {
+            return false;
+        }
+    }
+}
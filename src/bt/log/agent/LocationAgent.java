@@ -0,0 +1,40 @@
+package bt.log.agent;
+
+import java.lang.instrument.Instrumentation;
+
+/**
+ * An optional java agent that injects the caller location of logging calls when classes are loaded, so that
+ * enabled log entries don't need to walk the stack to find their caller.
+ * <p>
+ * The agent is enabled by starting the JVM with {@code -javaagent:path/to/BtLogging.jar}. It requires ASM on the
+ * class path. Without the agent the caller is found by walking the stack as before.
+ *
+ * @author Lukas Hartwig
+ * @see LocationTransformer
+ * @since 19.10.2026
+ */
+public final class LocationAgent
+{
+    private LocationAgent()
+    {
+    }
+
+    /**
+     * Installs the {@link LocationTransformer}. If ASM is missing, the agent is disabled instead of preventing the
+     * JVM from starting.
+     *
+     * @param args
+     * @param instrumentation
+     */
+    public static void premain(String args, Instrumentation instrumentation)
+    {
+        try
+        {
+            instrumentation.addTransformer(new LocationTransformer());
+        }
+        catch (LinkageError e)
+        {
+            System.err.println("BtLogging agent disabled, ASM is not available: " + e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package bt.log.agent;
+
+import bt.log.CallerLocation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * Links the logging call sites that were rewritten by the {@link LocationTransformer} and holds the location of
+ * the call that is currently executed by each thread.
+ * <p>
+ * Every rewritten call site is bound to a constant {@link CallerLocation}. While the original logging method runs,
+ * that location is the {@link #current()} location of the calling thread, which is picked up by
+ * {@link CallerLocation#capture(String)} instead of walking the stack.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public final class LocationBootstrap
+{
+    /**
+     * The kind of a rewritten call of a static method.
+     */
+    static final int KIND_STATIC = 0;
+
+    /**
+     * The kind of a rewritten call of an instance method, whose receiver is the first argument of the call site.
+     */
+    static final int KIND_VIRTUAL = 1;
+
+    /**
+     * Set once the first call site is linked, so that runs without the agent don't pay for the thread local.
+     */
+    private static volatile boolean active;
+
+    private static final ThreadLocal<Locations> LOCATIONS = ThreadLocal.withInitial(Locations::new);
+
+    private static final MethodHandle ENTER;
+    private static final MethodHandle EXIT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ENTER = lookup.findStatic(LocationBootstrap.class, "enter", MethodType.methodType(void.class, CallerLocation.class));
+            EXIT = lookup.findStatic(LocationBootstrap.class, "exit", MethodType.methodType(void.class, Throwable.class));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private LocationBootstrap()
+    {
+    }
+
+    /**
+     * Gets the location of the rewritten logging call that is currently executed by the calling thread.
+     *
+     * @return The location or null if the current thread is not inside a rewritten call.
+     */
+    public static CallerLocation current()
+    {
+        if (!active)
+        {
+            return null;
+        }
+
+        Locations locations = LOCATIONS.get();
+        return locations.depth > 0 ? locations.stack[locations.depth - 1] : null;
+    }
+
+    /**
+     * The bootstrap method of the rewritten call sites.
+     *
+     * @param lookup     The lookup of the calling class.
+     * @param name       The name of the original logging method.
+     * @param type       The type of the call site, which includes the receiver for instance methods.
+     * @param owner      The internal name of the class that declares the original logging method.
+     * @param kind       {@link #KIND_STATIC} or {@link #KIND_VIRTUAL}.
+     * @param className  The name of the calling class.
+     * @param methodName The name of the calling method.
+     * @param descriptor The descriptor of the calling method.
+     * @param lineNumber The line number of the call or -1 if unknown.
+     *
+     * @return A constant call site that invokes the original method with the given location.
+     *
+     * @throws ReflectiveOperationException
+     */
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String owner,
+                                     int kind, String className, String methodName, String descriptor,
+                                     int lineNumber) throws ReflectiveOperationException
+    {
+        Class<?> ownerClass = lookup.findClass(owner.replace('/', '.'));
+        MethodHandle target;
+
+        if (kind == KIND_STATIC)
+        {
+            target = lookup.findStatic(ownerClass, name, type);
+        }
+        else
+        {
+            target = lookup.findVirtual(ownerClass, name, type.dropParameterTypes(0, 1)).asType(type);
+        }
+
+        var location = new CallerLocation(className, methodName, descriptor, lineNumber);
+        MethodHandle enter = MethodHandles.insertArguments(ENTER, 0, location);
+
+        active = true;
+
+        // only void methods are rewritten, so the cleanup doesn't need to pass through a result
+        return new ConstantCallSite(MethodHandles.tryFinally(MethodHandles.foldArguments(target, enter), EXIT));
+    }
+
+    private static void enter(CallerLocation location)
+    {
+        Locations locations = LOCATIONS.get();
+
+        if (locations.depth == locations.stack.length)
+        {
+            locations.stack = Arrays.copyOf(locations.stack, locations.depth * 2);
+        }
+
+        locations.stack[locations.depth++] = location;
+    }
+
+    private static void exit(Throwable t)
+    {
+        Locations locations = LOCATIONS.get();
+        locations.stack[--locations.depth] = null;
+    }
+
+    /**
+     * The locations of the nested rewritten calls of a thread, for example if a logged argument logs itself.
+     */
+    private static final class Locations
+    {
+        private CallerLocation[] stack = new CallerLocation[4];
+        private int depth;
+    }
+}
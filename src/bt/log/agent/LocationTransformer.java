@@ -0,0 +1,200 @@
+package bt.log.agent;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.nio.charset.StandardCharsets;
+import java.security.ProtectionDomain;
+import java.util.Set;
+
+/**
+ * Rewrites the logging calls of loaded classes, so that every call site passes a constant {@link bt.log.CallerLocation}
+ * to the logging framework.
+ * <p>
+ * Calls of the logging methods of {@link bt.log.Log}, {@link org.slf4j.Logger} and {@link bt.log.JDK14LoggerAdapter}
+ * are replaced by an invokedynamic instruction with the same stack effect, which is linked by
+ * {@link LocationBootstrap}. The location consists of the calling class, method, method descriptor and the line
+ * number of the call.
+ * <p>
+ * Classes of the JDK, of SLF4J and of this framework are not rewritten, neither are classes compiled for Java 6 or
+ * older, since those can't contain invokedynamic instructions.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+public class LocationTransformer implements ClassFileTransformer
+{
+    private static final String[] SKIPPED_PACKAGES = { "java/", "javax/", "jdk/", "sun/", "com/sun/", "org/slf4j/",
+                                                       "bt/log/", "org/objectweb/asm/" };
+
+    private static final Set<String> OWNERS = Set.of("bt/log/Log", "org/slf4j/Logger", "bt/log/JDK14LoggerAdapter");
+    private static final Set<String> METHODS = Set.of("trace", "debug", "info", "warn", "error");
+
+    private static final byte[][] OWNER_BYTES = OWNERS.stream()
+                                                      .map(owner -> owner.getBytes(StandardCharsets.UTF_8))
+                                                      .toArray(byte[][]::new);
+
+    private static final Handle BOOTSTRAP = new Handle(Opcodes.H_INVOKESTATIC,
+                                                       "bt/log/agent/LocationBootstrap",
+                                                       "bootstrap",
+                                                       "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;"
+                                                               + "Ljava/lang/invoke/MethodType;Ljava/lang/String;ILjava/lang/String;"
+                                                               + "Ljava/lang/String;Ljava/lang/String;I)Ljava/lang/invoke/CallSite;",
+                                                       false);
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain, byte[] classfileBuffer)
+    {
+        if (className == null || classBeingRedefined != null || isSkipped(className) || !referencesOwner(classfileBuffer))
+        {
+            return null;
+        }
+
+        try
+        {
+            var reader = new ClassReader(classfileBuffer);
+
+            // invokedynamic requires class files of Java 7 or newer
+            if ((reader.readUnsignedShort(6)) < Opcodes.V1_7)
+            {
+                return null;
+            }
+
+            // the stack effect of the calls is unchanged, so frames and stack sizes can be copied
+            var writer = new ClassWriter(reader, 0);
+            var rewriter = new CallSiteRewriter(writer, className.replace('/', '.'));
+            reader.accept(rewriter, 0);
+
+            return rewriter.rewritten ? writer.toByteArray() : null;
+        }
+        catch (RuntimeException e)
+        {
+            // leave the class untouched rather than preventing it from being loaded
+            return null;
+        }
+    }
+
+    private static boolean isSkipped(String className)
+    {
+        for (String pkg : SKIPPED_PACKAGES)
+        {
+            if (className.startsWith(pkg))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the constant pool of the given class could reference one of the rewritten classes, without
+     * parsing the class.
+     */
+    private static boolean referencesOwner(byte[] classfile)
+    {
+        for (byte[] owner : OWNER_BYTES)
+        {
+            if (indexOf(classfile, owner) >= 0)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern)
+    {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++)
+        {
+            for (int j = 0; j < pattern.length; j++)
+            {
+                if (data[i + j] != pattern[j])
+                {
+                    continue outer;
+                }
+            }
+
+            return i;
+        }
+
+        return -1;
+    }
+
+    private static final class CallSiteRewriter extends ClassVisitor
+    {
+        private final String className;
+        private boolean rewritten;
+
+        CallSiteRewriter(ClassVisitor next, String className)
+        {
+            super(Opcodes.ASM9, next);
+            this.className = className;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions)
+        {
+            MethodVisitor next = super.visitMethod(access, name, descriptor, signature, exceptions);
+            return new MethodRewriter(next, name, descriptor);
+        }
+
+        private final class MethodRewriter extends MethodVisitor
+        {
+            private final String methodName;
+            private final String methodDescriptor;
+            private int lineNumber = -1;
+
+            MethodRewriter(MethodVisitor next, String methodName, String methodDescriptor)
+            {
+                super(Opcodes.ASM9, next);
+                this.methodName = methodName;
+                this.methodDescriptor = methodDescriptor;
+            }
+
+            @Override
+            public void visitLineNumber(int line, Label start)
+            {
+                this.lineNumber = line;
+                super.visitLineNumber(line, start);
+            }
+
+            @Override
+            public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface)
+            {
+                if (!OWNERS.contains(owner) || !METHODS.contains(name) || !descriptor.endsWith(")V"))
+                {
+                    super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+                    return;
+                }
+
+                int kind;
+                String callSiteDescriptor;
+
+                if (opcode == Opcodes.INVOKESTATIC)
+                {
+                    kind = LocationBootstrap.KIND_STATIC;
+                    callSiteDescriptor = descriptor;
+                }
+                else
+                {
+                    kind = LocationBootstrap.KIND_VIRTUAL;
+                    callSiteDescriptor = "(L" + owner + ";" + descriptor.substring(1);
+                }
+
+                super.visitInvokeDynamicInsn(name, callSiteDescriptor, BOOTSTRAP, owner, kind, CallSiteRewriter.this.className,
+                                             this.methodName, this.methodDescriptor, this.lineNumber);
+                CallSiteRewriter.this.rewritten = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package bt.log;
+
+/**
+ * Detects virtual threads, so that the framework can avoid per thread caches and monitors on them.
+ * <p>
+ * This is the implementation for Java 21 and newer, which is packaged into META-INF/versions/21 of the
+ * multi-release jar.
+ *
+ * @author Lukas Hartwig
+ * @since 19.10.2026
+ */
+final class VirtualThreads
+{
+    private VirtualThreads()
+    {
+    }
+
+    /**
+     * Checks whether the current thread is a virtual thread.
+     *
+     * @return
+     */
+    static boolean isCurrentVirtual()
+    {
+        return Thread.currentThread().isVirtual();
+    }
+}